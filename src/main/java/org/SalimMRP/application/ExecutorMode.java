@@ -0,0 +1,9 @@
+package org.SalimMRP.application;
+
+// Legt fest, auf welchen Threads der HttpServer die Requests abarbeitet.
+public enum ExecutorMode {
+    // Ein virtueller Thread pro Request; blockierende JDBC-Aufrufe binden keinen Plattform-Thread.
+    VIRTUAL,
+    // Fester Pool aus Plattform-Threads mit begrenzter Warteschlange.
+    PLATFORM
+}
@@ -3,35 +3,55 @@ package org.SalimMRP.application;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.Filter;
 import com.sun.net.httpserver.HttpServer;
 import org.SalimMRP.business.DefaultMediaService;
 import org.SalimMRP.business.DefaultProfileService;
 import org.SalimMRP.business.DefaultRatingService;
 import org.SalimMRP.business.DefaultUserService;
+import org.SalimMRP.business.ItemSimilarityIndex;
+import org.SalimMRP.business.MediaAttributeIndex;
 import org.SalimMRP.business.MediaService;
-import org.SalimMRP.business.ProfileService;
+import org.SalimMRP.business.MediaServiceComponents;
+import org.SalimMRP.business.MediaVersions;
+import org.SalimMRP.business.ParallelScorer;
+import org.SalimMRP.business.RatingEventListener;
 import org.SalimMRP.business.RatingService;
+import org.SalimMRP.business.SearchResultCache;
+import org.SalimMRP.business.TitleSuggestionIndex;
 import org.SalimMRP.business.UserService;
+import org.SalimMRP.business.auth.BcryptPasswordHasher;
 import org.SalimMRP.business.auth.InMemoryTokenService;
-import org.SalimMRP.business.auth.PasswordHasher;
+import org.SalimMRP.business.auth.PooledPasswordHasher;
 import org.SalimMRP.business.auth.Sha256PasswordHasher;
+import org.SalimMRP.business.auth.SignedTokenService;
 import org.SalimMRP.business.auth.TokenService;
-import org.SalimMRP.persistence.ConnectionProvider;
-import org.SalimMRP.persistence.Database;
 import org.SalimMRP.persistence.FavoriteRepository;
+import org.SalimMRP.persistence.HikariConnectionProvider;
 import org.SalimMRP.persistence.JdbcMediaRepository;
 import org.SalimMRP.persistence.JdbcRatingRepository;
 import org.SalimMRP.persistence.JdbcUserRepository;
 import org.SalimMRP.persistence.MediaRepository;
+import org.SalimMRP.persistence.MigrationException;
+import org.SalimMRP.persistence.MigrationRunner;
 import org.SalimMRP.persistence.RatingRepository;
 import org.SalimMRP.persistence.JdbcFavoriteRepository;
 import org.SalimMRP.persistence.UserRepository;
+import org.SalimMRP.presentation.AdmissionFilter;
 import org.SalimMRP.presentation.MediaController;
+import org.SalimMRP.presentation.MetricsController;
 import org.SalimMRP.presentation.RatingController;
+import org.SalimMRP.presentation.ResponseWriter;
+import org.SalimMRP.presentation.RouteTimings;
 import org.SalimMRP.presentation.UserController;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 
 // Startpunkt der Anwendung. Stellt alle benötigten Komponenten zusammen,
 // richtet die HTTP-Routen ein und startet anschließend den eingebauten HTTP-Server auf Port 8080.
@@ -40,43 +60,138 @@ public class Main {
     public static void main(String[] args) {
         try {
             int port = 8080;
+            // Begrenzte Warteschlange für noch nicht angenommene Verbindungen (0 hieße: Systemvorgabe).
+            int backlog = Integer.getInteger("mrp.server.backlog", 128);
 
             // HttpServer.create erzeugt einen einfachen HTTP-Server, der auf dem angegebenen Port lauscht.
-            HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+            HttpServer server = HttpServer.create(new InetSocketAddress(port), backlog);
 
             System.out.println("Starting Media Ratings Platform server on port " + port + "...");
 
-            // Aufbau der Infrastruktur: Datenbank, Repositories und Services.
-            ConnectionProvider connectionProvider = Database.fromDefaults();
+            // Aufbau der Infrastruktur: Verbindungspool, Repositories und Services.
+            HikariConnectionProvider connectionProvider = HikariConnectionProvider.fromDefaults();
+            Runtime.getRuntime().addShutdownHook(new Thread(connectionProvider::close));
+            // Fehlende Schemaänderungen (z. B. Indizes) werden vor dem ersten Request eingespielt.
+            new MigrationRunner(connectionProvider).migrate();
             UserRepository userRepository = new JdbcUserRepository(connectionProvider);
             MediaRepository mediaRepository = new JdbcMediaRepository(connectionProvider);
             RatingRepository ratingRepository = new JdbcRatingRepository(connectionProvider);
             FavoriteRepository favoriteRepository = new JdbcFavoriteRepository(connectionProvider);
 
-            PasswordHasher passwordHasher = new Sha256PasswordHasher();
-            TokenService tokenService = new InMemoryTokenService();
+            // bcrypt läuft auf einem eigenen, begrenzten Pool; der Kostenfaktor wird beim Start auf die Zielzeit
+            // (-Dmrp.password.targetMillis, Standard 100) eingemessen. Alte SHA-256-Hashes werden beim Login ersetzt.
+            int hashingTargetMillis = Integer.getInteger("mrp.password.targetMillis", 100);
+            int hashingThreads = Integer.getInteger("mrp.password.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+            int hashingQueue = Integer.getInteger("mrp.password.queue", 64);
+            int bcryptCost = BcryptPasswordHasher.calibrateCost(Duration.ofMillis(hashingTargetMillis));
+            System.out.println("Using bcrypt cost " + bcryptCost + " for password hashing");
+            PooledPasswordHasher passwordHasher = new PooledPasswordHasher(
+                    new BcryptPasswordHasher(bcryptCost, new Sha256PasswordHasher()), hashingThreads, hashingQueue);
+            Runtime.getRuntime().addShutdownHook(new Thread(passwordHasher::close));
+            // Mit -Dmrp.token.secret (mind. 32 Bytes, auf allen Instanzen gleich) werden zustandslose, signierte Tokens
+            // ausgestellt; ohne Schlüssel bleiben die Tokens im Speicher dieser Instanz.
+            TokenService tokenService;
+            Supplier<?> tokenMetrics;
+            String tokenSecret = System.getProperty("mrp.token.secret");
+            if (tokenSecret != null && !tokenSecret.isBlank()) {
+                SignedTokenService signedTokens = new SignedTokenService(tokenSecret.getBytes(StandardCharsets.UTF_8));
+                tokenService = signedTokens;
+                tokenMetrics = signedTokens::metrics;
+            } else {
+                InMemoryTokenService inMemoryTokens = new InMemoryTokenService();
+                tokenService = inMemoryTokens;
+                tokenMetrics = inMemoryTokens::metrics;
+            }
 
             UserService userService = new DefaultUserService(userRepository, passwordHasher, tokenService);
-            MediaService mediaService = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository);
-            RatingService ratingService = new DefaultRatingService(ratingRepository, mediaRepository);
-            ProfileService profileService = new DefaultProfileService(userRepository, ratingRepository, favoriteRepository, mediaService);
+            // Änderungszähler für ETags; Medien-, Favoriten- und Rating-Schreibvorgänge erhöhen sie.
+            MediaVersions mediaVersions = new MediaVersions();
+            // Vorberechnete Item-zu-Item-Ähnlichkeiten für Empfehlungen (-Dmrp.recommend.neighbors), einmal aus allen
+            // Ratings aufgebaut und danach über Rating-Ereignisse im Hintergrund fortgeschrieben; pro Benutzer zählen
+            // nur die letzten -Dmrp.recommend.maxRatingsPerUser Ratings.
+            ItemSimilarityIndex similarityIndex = new ItemSimilarityIndex(
+                    Integer.getInteger("mrp.recommend.neighbors", 20),
+                    Integer.getInteger("mrp.recommend.maxRatingsPerUser", 200));
+            // Bitmaps je Genre, Typ und Altersfreigabe für die Kandidatenauswahl.
+            MediaAttributeIndex attributeIndex = new MediaAttributeIndex();
+            // Gemerkte Suchergebnisse (-Dmrp.search.cache.size, -Dmrp.search.cache.ttlSeconds); Schreibvorgänge verwerfen betroffene Einträge.
+            // Bei Ratings entscheiden die Attribute des Mediums aus dem attributeIndex, welche Suchen betroffen sind.
+            SearchResultCache searchCache = new SearchResultCache(
+                    Integer.getInteger("mrp.search.cache.size", 500),
+                    Duration.ofSeconds(Integer.getInteger("mrp.search.cache.ttlSeconds", 30)),
+                    attributeIndex);
+            // N-Gramm-Index für /api/media/suggest mit Zeitbudget je Abfrage (-Dmrp.suggest.budgetMillis, Standard 20);
+            // die Popularität startet mit der Anzahl Ratings und folgt danach den Rating-Ereignissen.
+            TitleSuggestionIndex titleIndex = new TitleSuggestionIndex(
+                    Duration.ofMillis(Integer.getInteger("mrp.suggest.budgetMillis", 20)));
+            // Ab -Dmrp.recommend.parallelThreshold Kandidaten wird auf einem eigenen Pool (-Dmrp.recommend.threads) bewertet.
+            ParallelScorer recommendationScorer = new ParallelScorer(
+                    Integer.getInteger("mrp.recommend.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                    Integer.getInteger("mrp.recommend.parallelThreshold", 20_000));
+            Runtime.getRuntime().addShutdownHook(new Thread(recommendationScorer::close));
+            MediaServiceComponents mediaComponents = new MediaServiceComponents();
+            mediaComponents.setMediaVersions(mediaVersions);
+            mediaComponents.setSearchCache(searchCache);
+            mediaComponents.setSimilarityIndex(similarityIndex);
+            mediaComponents.setAttributeIndex(attributeIndex);
+            mediaComponents.setScorer(recommendationScorer);
+            mediaComponents.setTitleIndex(titleIndex);
+            // Die Indizes werden einmal aus Katalog und Ratings aufgebaut und danach über Ereignisse fortgeschrieben.
+            mediaComponents.rebuildIndexes(mediaRepository, ratingRepository);
+            MediaService mediaService = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository,
+                    mediaComponents);
+            DefaultProfileService profileService = new DefaultProfileService(userRepository, ratingRepository, favoriteRepository, mediaService);
+            // Rating-Änderungen halten abhängige Caches (Leaderboard, Suchergebnisse, Ähnlichkeiten, Popularität) und die
+            // ETag-Versionen aktuell.
+            List<RatingEventListener> ratingListeners = new ArrayList<>();
+            ratingListeners.add(profileService);
+            ratingListeners.addAll(mediaComponents.ratingListeners());
+            RatingService ratingService = new DefaultRatingService(ratingRepository, mediaRepository, ratingListeners);
 
             ObjectMapper mapper = new ObjectMapper();
             mapper.registerModule(new JavaTimeModule());
             mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            // Gemeinsamer Antwortpfad aller Handler (JSON wird direkt in den Response-Body geschrieben).
+            ResponseWriter responseWriter = new ResponseWriter(mapper);
 
-            // Controller registrieren ihre Endpunkte beim Server.
-            UserController userController = new UserController(userService, profileService, mediaService, mapper);
-            userController.registerRoutes(server);
-
-            MediaController mediaController = new MediaController(mediaService, userService, mapper);
-            mediaController.registerRoutes(server);
-
-            RatingController ratingController = new RatingController(ratingService, userService, mapper);
-            ratingController.registerRoutes(server);
+            // Überlast wird pro Route mit 503 abgewiesen, bevor sie Threads und DB-Verbindungen bindet.
+            AdmissionFilter admissionFilter = new AdmissionFilter();
+            List<Filter> apiFilters = List.of(admissionFilter);
+            RouteTimings routeTimings = new RouteTimings();
 
-            // Der Server arbeitet mit dem Standard-Executor und läuft anschließend dauerhaft.
-            server.setExecutor(null);
+            // Controller registrieren ihre Endpunkte beim Server.
+            UserController userController = new UserController(userService, profileService, mediaService, mapper, responseWriter);
+            userController.registerRoutes(server, apiFilters, routeTimings);
+
+            MediaController mediaController = new MediaController(mediaService, userService, mapper, responseWriter);
+            mediaController.registerRoutes(server, apiFilters, routeTimings);
+
+            RatingController ratingController = new RatingController(ratingService, userService, mapper, responseWriter);
+            ratingController.registerRoutes(server, apiFilters, routeTimings);
+
+            MetricsController metricsController = new MetricsController(userService, mapper);
+            metricsController.register("connectionPool", connectionProvider::metrics);
+            metricsController.register("admission", admissionFilter::snapshot);
+            metricsController.register("compression", responseWriter::metrics);
+            metricsController.register("routes", routeTimings::snapshot);
+            metricsController.register("tokens", tokenMetrics);
+            metricsController.register("passwordHashing", passwordHasher::metrics);
+            metricsController.register("searchCache", searchCache::metrics);
+            metricsController.register("recommendations", similarityIndex::metrics);
+            metricsController.register("recommendationScoring", recommendationScorer::metrics);
+            metricsController.register("titleSuggestions", titleIndex::metrics);
+            metricsController.registerRoutes(server);
+
+            // Requests laufen standardmäßig auf virtuellen Threads, damit langsame Aufrufe keine anderen blockieren.
+            // Alternativ: -Dmrp.executor=platform mit -Dmrp.executor.threads und -Dmrp.executor.queue.
+            ExecutorMode executorMode = ExecutorMode.valueOf(System.getProperty("mrp.executor", "virtual").toUpperCase());
+            int poolThreads = Integer.getInteger("mrp.executor.threads", Runtime.getRuntime().availableProcessors() * 4);
+            int poolQueue = Integer.getInteger("mrp.executor.queue", 1_000);
+            RequestExecutor requestExecutor = RequestExecutor.create(executorMode, poolThreads, poolQueue);
+            Runtime.getRuntime().addShutdownHook(new Thread(requestExecutor::close));
+            metricsController.register("requests", requestExecutor::metrics);
+
+            server.setExecutor(requestExecutor);
             server.start();
 
             System.out.println("Server started successfully at http://localhost:" + port);
@@ -85,6 +200,9 @@ public class Main {
         } catch (IOException e) {
             System.err.println("Error starting HTTP server: " + e.getMessage());
             e.printStackTrace();
+        } catch (MigrationException e) {
+            System.err.println("Error migrating database schema: " + e.getMessage());
+            e.printStackTrace();
         }
     }
 }
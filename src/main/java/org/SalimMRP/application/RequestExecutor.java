@@ -0,0 +1,94 @@
+package org.SalimMRP.application;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Executor für den HttpServer, der zusätzlich mitzählt, wie viele Requests gerade in Bearbeitung sind.
+// Ohne eigenen Executor würde der HttpServer alle Requests auf seinem einzigen Dispatcher-Thread abarbeiten.
+public class RequestExecutor implements Executor, AutoCloseable {
+
+    private final ExecutorMode mode;
+    private final ExecutorService delegate;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private RequestExecutor(ExecutorMode mode, ExecutorService delegate) {
+        this.mode = mode;
+        this.delegate = delegate;
+    }
+
+    public static RequestExecutor virtualThreads() {
+        ThreadFactory factory = Thread.ofVirtual().name("mrp-request-", 0).factory();
+        return new RequestExecutor(ExecutorMode.VIRTUAL, Executors.newThreadPerTaskExecutor(factory));
+    }
+
+    // Fester Pool; ist auch die Warteschlange voll, wird der Request abgewiesen statt unbegrenzt zu puffern.
+    public static RequestExecutor boundedPool(int threads, int queueCapacity) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be at least 1");
+        }
+        ThreadFactory factory = Thread.ofPlatform().name("mrp-request-", 0).daemon(false).factory();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                factory,
+                new ThreadPoolExecutor.AbortPolicy());
+        return new RequestExecutor(ExecutorMode.PLATFORM, pool);
+    }
+
+    public static RequestExecutor create(ExecutorMode mode, int threads, int queueCapacity) {
+        return mode == ExecutorMode.PLATFORM ? boundedPool(threads, queueCapacity) : virtualThreads();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                int running = inFlight.incrementAndGet();
+                peakInFlight.accumulateAndGet(running, Math::max);
+                try {
+                    command.run();
+                } finally {
+                    inFlight.decrementAndGet();
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    public RequestMetrics metrics() {
+        return new RequestMetrics(
+                mode,
+                inFlight.get(),
+                peakInFlight.get(),
+                queued.get(),
+                completed.sum(),
+                rejected.sum()
+        );
+    }
+
+    @Override
+    public void close() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,10 @@
+package org.SalimMRP.application;
+
+// Momentaufnahme der Request-Verarbeitung: gerade laufende, wartende und insgesamt abgeschlossene Requests.
+public record RequestMetrics(ExecutorMode mode,
+                             int inFlight,
+                             int peakInFlight,
+                             int queued,
+                             long completed,
+                             long rejected) {
+}
@@ -1,17 +1,24 @@
 package org.SalimMRP.business;
 
 import org.SalimMRP.business.dto.MediaDetails;
-import org.SalimMRP.business.dto.MediaSearchCriteria;
 import org.SalimMRP.persistence.FavoriteRepository;
 import org.SalimMRP.persistence.MediaRepository;
+import org.SalimMRP.persistence.MediaSearchCriteria;
+import org.SalimMRP.persistence.PageRequest;
+import org.SalimMRP.persistence.RatingCursor;
+import org.SalimMRP.persistence.RatingPage;
 import org.SalimMRP.persistence.RatingRepository;
+import org.SalimMRP.persistence.models.FavoriteSummary;
 import org.SalimMRP.persistence.models.Media;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.RatingSummary;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -24,22 +31,59 @@ public class DefaultMediaService implements MediaService {
 
     private static final int MIN_RELEASE_YEAR = 1900;
     private static final int MAX_RELEASE_YEAR = 2100;
+    // Die Detailansicht bettet nur die neuesten Ratings ein; weitere lädt der Client über /api/ratings/media/{id}.
+    private static final int EMBEDDED_RATINGS = 20;
+    private static final int RECOMMENDATIONS = 10;
+    private static final int MAX_SUGGESTIONS = 20;
+    // Rangfolge der Heuristik-Kandidaten, beste zuerst.
+    private static final Comparator<Candidate> CANDIDATE_ORDER = Comparator
+            .comparingInt(Candidate::score).reversed()
+            .thenComparingDouble(Candidate::average).reversed()
+            .thenComparingInt(Candidate::ratingCount).reversed()
+            .thenComparing(c -> c.media().getTitle(), String.CASE_INSENSITIVE_ORDER);
+    // Höchster Ähnlichkeits-Score zuerst, bei Gleichstand die kleinere Media-ID.
+    private static final Comparator<Map.Entry<Integer, Double>> SCORE_ORDER =
+            Map.Entry.<Integer, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey());
 
     private final MediaRepository mediaRepository;
     private final RatingRepository ratingRepository;
     private final FavoriteRepository favoriteRepository;
-
+    private final MediaVersions mediaVersions;
+    private final SearchResultCache searchCache;
+    private final ItemSimilarityIndex similarityIndex;
+    private final MediaAttributeIndex attributeIndex;
+    private final ParallelScorer scorer;
+    private final TitleSuggestionIndex titleIndex;
+
+    // mediaVersions, searchCache, similarityIndex und titleIndex müssen zusätzlich als components.ratingListeners()
+    // beim RatingService registriert sein, damit auch Rating-Änderungen sie aktualisieren.
     public DefaultMediaService(MediaRepository mediaRepository,
                                RatingRepository ratingRepository,
-                               FavoriteRepository favoriteRepository) {
+                               FavoriteRepository favoriteRepository,
+                               MediaServiceComponents components) {
+        Objects.requireNonNull(components, "components must not be null");
         this.mediaRepository = Objects.requireNonNull(mediaRepository, "mediaRepository must not be null");
         this.ratingRepository = Objects.requireNonNull(ratingRepository, "ratingRepository must not be null");
         this.favoriteRepository = Objects.requireNonNull(favoriteRepository, "favoriteRepository must not be null");
+        this.mediaVersions = MediaServiceComponents.require(components.getMediaVersions(), "mediaVersions");
+        this.searchCache = MediaServiceComponents.require(components.getSearchCache(), "searchCache");
+        this.similarityIndex = MediaServiceComponents.require(components.getSimilarityIndex(), "similarityIndex");
+        this.attributeIndex = MediaServiceComponents.require(components.getAttributeIndex(), "attributeIndex");
+        this.scorer = MediaServiceComponents.require(components.getScorer(), "scorer");
+        this.titleIndex = MediaServiceComponents.require(components.getTitleIndex(), "titleIndex");
     }
 
     @Override
     public boolean createMedia(Media media) {
-        return isValid(media) && mediaRepository.save(media);
+        if (!isValid(media) || !mediaRepository.save(media)) {
+            return false;
+        }
+        mediaVersions.catalogChanged();
+        searchCache.mediaCreated(media);
+        attributeIndex.mediaCreated(media);
+        titleIndex.mediaCreated(media);
+        return true;
     }
 
     @Override
@@ -55,12 +99,33 @@ public class DefaultMediaService implements MediaService {
         return mediaRepository.findById(id);
     }
 
+    @Override
+    public List<Media> getMediaByIds(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> validIds = ids.stream()
+                .filter(id -> id != null && id > 0)
+                .distinct()
+                .toList();
+        return validIds.isEmpty() ? List.of() : mediaRepository.findByIds(validIds);
+    }
+
     @Override
     public boolean updateMedia(Media media) {
-        return media != null
-                && media.getId() > 0
-                && isValid(media)
-                && mediaRepository.update(media);
+        if (media == null || media.getId() <= 0 || !isValid(media)) {
+            return false;
+        }
+        // Der alte Stand entscheidet mit, welche gemerkten Suchen das Medium bisher enthalten konnten.
+        Media previous = mediaRepository.findById(media.getId());
+        if (!mediaRepository.update(media)) {
+            return false;
+        }
+        mediaVersions.mediaChanged(media.getId());
+        searchCache.mediaUpdated(previous, media);
+        attributeIndex.mediaUpdated(media);
+        titleIndex.mediaUpdated(media);
+        return true;
     }
 
     @Override
@@ -68,30 +133,43 @@ public class DefaultMediaService implements MediaService {
         if (id <= 0) {
             return false;
         }
-        return mediaRepository.delete(id);
+        Media previous = mediaRepository.findById(id);
+        if (previous == null || !mediaRepository.delete(id)) {
+            return false;
+        }
+        mediaVersions.mediaChanged(id);
+        searchCache.mediaDeleted(previous);
+        similarityIndex.mediaRemoved(id);
+        attributeIndex.mediaDeleted(id);
+        titleIndex.mediaDeleted(id);
+        return true;
     }
 
     @Override
     public List<MediaDetails> searchMedia(MediaSearchCriteria criteria, int requestingUserId) {
-        Objects.requireNonNull(criteria, "criteria must not be null");
-
-        List<Media> baseMatches = mediaRepository.findAll().stream()
-                .filter(media -> matchesBasicFilters(media, criteria))
-                .toList();
-
-        Map<Integer, RatingSummary> summaryById = summariesFor(baseMatches);
-        List<MediaDetails> details = new ArrayList<>();
+        return searchMedia(criteria, requestingUserId, PageRequest.unbounded());
+    }
 
-        for (Media media : baseMatches) {
-            RatingSummary summary = summaryById.get(media.getId());
-            if (!passesRatingThreshold(summary, criteria.getMinimumRating())) {
-                continue;
+    @Override
+    public List<MediaDetails> searchMedia(MediaSearchCriteria criteria, int requestingUserId, PageRequest page) {
+        Objects.requireNonNull(criteria, "criteria must not be null");
+        Objects.requireNonNull(page, "page must not be null");
+
+        // Gleiche Suchen teilen sich ein gemerktes Ergebnis; nur die Favoriten-Markierung hängt vom Benutzer ab.
+        SearchResultCache.Key key = SearchResultCache.Key.of(criteria, page);
+        List<SearchResultCache.CachedMedia> results = searchCache.get(key);
+        if (results == null) {
+            long generation = searchCache.generation();
+            // Filter, Mindestbewertung, Sortierung und Paging erledigt bereits die Datenbank.
+            List<Media> found = mediaRepository.search(criteria, page);
+            if (found == null) {
+                // Datenbankfehler: leer antworten, aber nicht merken, damit die nächste Suche es erneut versucht.
+                return List.of();
             }
-            details.add(buildDetails(media, summary, requestingUserId, false));
+            results = cacheableResultsFor(found);
+            searchCache.put(key, results, generation);
         }
-
-        details.sort(comparatorFor(criteria));
-        return details;
+        return withFavoriteFlags(results, requestingUserId);
     }
 
     @Override
@@ -101,8 +179,9 @@ public class DefaultMediaService implements MediaService {
             return null;
         }
         Map<Integer, RatingSummary> summary = summariesFor(List.of(media));
-        List<Rating> ratings = ratingRepository.findByMediaId(id);
-        return buildDetails(media, summary.get(id), requestingUserId, true, ratings);
+        Map<Integer, FavoriteSummary> favorites = favoriteSummariesFor(List.of(media), requestingUserId);
+        RatingPage ratings = ratingRepository.findByMediaId(id, null, EMBEDDED_RATINGS);
+        return buildDetails(media, summary.get(id), favorites.get(id), ratings.ratings(), ratings.nextCursor());
     }
 
     @Override
@@ -114,7 +193,12 @@ public class DefaultMediaService implements MediaService {
         if (media == null) {
             return false;
         }
-        return favoriteRepository.addFavorite(userId, mediaId);
+        if (!favoriteRepository.addFavorite(userId, mediaId)) {
+            return false;
+        }
+        mediaVersions.mediaChanged(mediaId);
+        searchCache.favoritesChanged(mediaId);
+        return true;
     }
 
     @Override
@@ -122,7 +206,12 @@ public class DefaultMediaService implements MediaService {
         if (userId <= 0 || mediaId <= 0) {
             return false;
         }
-        return favoriteRepository.removeFavorite(userId, mediaId);
+        if (!favoriteRepository.removeFavorite(userId, mediaId)) {
+            return false;
+        }
+        mediaVersions.mediaChanged(mediaId);
+        searchCache.favoritesChanged(mediaId);
+        return true;
     }
 
     @Override
@@ -135,16 +224,9 @@ public class DefaultMediaService implements MediaService {
             return List.of();
         }
 
-        List<Media> favorites = favoriteIds.stream()
-                .map(mediaRepository::findById)
-                .filter(Objects::nonNull)
-                .toList();
+        List<Media> favorites = mediaRepository.findByIds(favoriteIds);
 
-        Map<Integer, RatingSummary> summary = summariesFor(favorites);
-        List<MediaDetails> details = new ArrayList<>();
-        for (Media media : favorites) {
-            details.add(buildDetails(media, summary.get(media.getId()), userId, false));
-        }
+        List<MediaDetails> details = new ArrayList<>(detailsFor(favorites, userId));
         details.sort(Comparator.comparing(md -> md.getMedia().getTitle(), String.CASE_INSENSITIVE_ORDER));
         return details;
     }
@@ -156,13 +238,40 @@ public class DefaultMediaService implements MediaService {
         }
 
         List<Rating> userRatings = ratingRepository.findByUserId(userId);
-        List<Media> allMedia = mediaRepository.findAll();
-        Map<Integer, Media> mediaById = allMedia.stream()
+
+        // Zuerst Medien, die Benutzer mit ähnlichem Geschmack ebenfalls gut bewertet haben; das kostet nur
+        // Nachschläge in den vorberechneten Nachbarlisten statt eines Laufs über den ganzen Katalog.
+        List<MediaDetails> collaborative = recommendFromSimilarMedia(userRatings, userId);
+        if (!collaborative.isEmpty()) {
+            return collaborative;
+        }
+        return recommendByPreferences(userRatings, userId);
+    }
+
+    private List<MediaDetails> recommendFromSimilarMedia(List<Rating> userRatings, int userId) {
+        TopK<Map.Entry<Integer, Double>> best = new TopK<>(RECOMMENDATIONS, SCORE_ORDER);
+        for (Map.Entry<Integer, Double> scored : similarityIndex.score(userRatings).entrySet()) {
+            best.offer(scored);
+        }
+        List<Integer> ids = best.toList().stream()
+                .map(Map.Entry::getKey)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // findByIds lässt inzwischen gelöschte Medien aus; die Reihenfolge der Scores bleibt erhalten.
+        Map<Integer, Media> found = mediaRepository.findByIds(ids).stream()
                 .collect(Collectors.toMap(Media::getId, media -> media));
-        Set<Integer> ratedMediaIds = userRatings.stream()
-                .map(Rating::getMediaId)
-                .collect(Collectors.toSet());
+        List<Media> recommended = ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return detailsFor(recommended, userId);
+    }
 
+    // Ohne passende Nachbarn (neue Benutzer, wenig bewertete Medien): Genre, Typ und Altersfreigabe der gut
+    // bewerteten Medien des Benutzers. Die Übereinstimmungen kommen als Bitmaps aus dem attributeIndex.
+    private List<MediaDetails> recommendByPreferences(List<Rating> userRatings, int userId) {
         Map<String, Integer> genreScores = new HashMap<>();
         Map<String, Integer> typeScores = new HashMap<>();
         Map<String, Integer> ageScores = new HashMap<>();
@@ -171,144 +280,96 @@ public class DefaultMediaService implements MediaService {
             if (rating.getStarValue() < 4) {
                 continue;
             }
-            Media ratedMedia = mediaById.get(rating.getMediaId());
-            if (ratedMedia == null) {
+            MediaAttributeIndex.Attributes rated = attributeIndex.attributes(rating.getMediaId());
+            if (rated == null) {
                 continue;
             }
             int weight = rating.getStarValue();
-            for (String genre : ratedMedia.getGenres()) {
-                genreScores.merge(normalize(genre), weight, Integer::sum);
+            for (String genre : rated.genres()) {
+                genreScores.merge(genre, weight, Integer::sum);
             }
-            typeScores.merge(normalize(ratedMedia.getMediaType()), weight, Integer::sum);
-            if (ratedMedia.getAgeRestriction() != null) {
-                ageScores.merge(normalize(ratedMedia.getAgeRestriction()), weight, Integer::sum);
+            typeScores.merge(rated.mediaType(), weight, Integer::sum);
+            if (rated.ageRestriction() != null) {
+                ageScores.merge(rated.ageRestriction(), weight, Integer::sum);
             }
         }
 
-        Set<String> topGenres = topKeys(genreScores, 3);
-        Set<String> topTypes = topKeys(typeScores, 2);
-        Set<String> topAges = topKeys(ageScores, 2);
-
-        Map<Integer, RatingSummary> summaries = summariesFor(allMedia);
-        List<Candidate> candidates = new ArrayList<>();
+        BitSet genreMatches = attributeIndex.withAnyGenre(topKeys(genreScores, 3));
+        BitSet typeMatches = attributeIndex.withAnyType(topKeys(typeScores, 2));
+        BitSet ageMatches = attributeIndex.withAnyAgeRestriction(topKeys(ageScores, 2));
 
-        for (Media media : allMedia) {
-            if (ratedMediaIds.contains(media.getId())) {
-                continue;
-            }
-            RatingSummary summary = summaries.get(media.getId());
+        // Kandidaten sind alle nicht bewerteten Medien; die Bitmaps bestimmen nur den Score. Medien ohne passendes
+        // Attribut füllen so mit ihren Ratings die übrigen Plätze auf.
+        BitSet candidateIds = attributeIndex.allIds();
+        Set<Integer> ratedIds = new HashSet<>();
+        for (Rating rating : userRatings) {
+            candidateIds.clear(rating.getMediaId());
+            ratedIds.add(rating.getMediaId());
+        }
+        List<Media> catalog = attributeIndex.mediaFor(candidateIds);
+        Map<Integer, RatingSummary> summaries = summariesFor(catalog);
+        // Nur die besten Kandidaten bleiben im Heap; verdrängte bekommen nie Details. Große Kataloge werden
+        // abschnittsweise parallel bewertet; der Scorer liest nur unveränderliche Daten.
+        List<Candidate> candidates = scorer.topK(catalog, media -> {
+            int id = media.getId();
+            RatingSummary summary = summaries.get(id);
             double average = summary != null ? summary.getAverageScore() : 0.0;
             int ratingCount = summary != null ? summary.getRatingCount() : 0;
 
             int score = 0;
-            if (!topGenres.isEmpty() && intersects(media.getGenres(), topGenres)) {
+            if (genreMatches.get(id)) {
                 score += 6;
             }
-            if (!topTypes.isEmpty() && topTypes.contains(normalize(media.getMediaType()))) {
+            if (typeMatches.get(id)) {
                 score += 3;
             }
-            if (!topAges.isEmpty()
-                    && media.getAgeRestriction() != null
-                    && topAges.contains(normalize(media.getAgeRestriction()))) {
+            if (ageMatches.get(id)) {
                 score += 2;
             }
             if (summary != null) {
                 score += Math.min(5, (int) Math.round(average));
             }
             if (score == 0 && ratingCount == 0) {
-                continue;
+                return null;
             }
-
-            MediaDetails details = buildDetails(media, summary, userId, false);
-            candidates.add(new Candidate(details, score, average, ratingCount));
-        }
+            return new Candidate(media, score, average, ratingCount);
+        }, RECOMMENDATIONS, CANDIDATE_ORDER);
 
         if (candidates.isEmpty()) {
+            // Die Suche kennt die Ratings des Benutzers nicht; es wird um deren Anzahl mehr geladen und danach gefiltert.
             MediaSearchCriteria fallback = new MediaSearchCriteria();
             fallback.setSortField(MediaSearchCriteria.SortField.SCORE);
             fallback.setSortDirection(MediaSearchCriteria.SortDirection.DESC);
             fallback.setMinimumRating(3.5);
-            return searchMedia(fallback, userId).stream()
-                    .limit(10)
+            return searchMedia(fallback, userId, PageRequest.of(0, RECOMMENDATIONS + ratedIds.size())).stream()
+                    .filter(details -> !ratedIds.contains(details.getMedia().getId()))
+                    .limit(RECOMMENDATIONS)
                     .toList();
         }
 
-        candidates.sort(Comparator
-                .comparingInt(Candidate::score).reversed()
-                .thenComparingDouble(Candidate::average).reversed()
-                .thenComparingInt(Candidate::ratingCount).reversed()
-                .thenComparing(c -> c.details().getMedia().getTitle(), String.CASE_INSENSITIVE_ORDER));
-
-        return candidates.stream()
-                .map(Candidate::details)
-                .limit(10)
+        // Details (inkl. Favoriten) werden nur für die tatsächlich empfohlenen Einträge gesammelt geladen.
+        List<Media> recommended = candidates.stream()
+                .map(Candidate::media)
                 .toList();
+        return detailsFor(recommended, userId);
     }
 
-    private Comparator<MediaDetails> comparatorFor(MediaSearchCriteria criteria) {
-        Comparator<MediaDetails> comparator;
-        if (criteria.getSortField() == MediaSearchCriteria.SortField.YEAR) {
-            comparator = Comparator.comparingInt(details ->
-                    details.getMedia().getReleaseYear() != null ? details.getMedia().getReleaseYear() : Integer.MIN_VALUE);
-        } else if (criteria.getSortField() == MediaSearchCriteria.SortField.SCORE) {
-            comparator = Comparator.comparingDouble(MediaDetails::getAverageRating);
-        } else {
-            comparator = Comparator.comparing(details -> details.getMedia().getTitle(), String.CASE_INSENSITIVE_ORDER);
-        }
-
-        if (criteria.getSortDirection() == MediaSearchCriteria.SortDirection.DESC) {
-            comparator = comparator.reversed();
+    @Override
+    public List<Media> suggestMedia(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return List.of();
         }
-
-        return comparator.thenComparing(details -> details.getMedia().getTitle(), String.CASE_INSENSITIVE_ORDER);
+        return titleIndex.suggest(query, Math.min(limit, MAX_SUGGESTIONS));
     }
 
-    private boolean matchesBasicFilters(Media media, MediaSearchCriteria criteria) {
-        if (criteria.getTitleQuery() != null) {
-            String query = criteria.getTitleQuery().toLowerCase();
-            if (media.getTitle() == null || !media.getTitle().toLowerCase().contains(query)) {
-                return false;
-            }
-        }
-
-        if (criteria.getMediaType() != null) {
-            if (media.getMediaType() == null
-                    || !normalize(media.getMediaType()).equals(normalize(criteria.getMediaType()))) {
-                return false;
-            }
-        }
-
-        if (criteria.getGenre() != null) {
-            String wanted = normalize(criteria.getGenre());
-            boolean found = media.getGenres().stream()
-                    .map(this::normalize)
-                    .anyMatch(wanted::equals);
-            if (!found) {
-                return false;
-            }
-        }
-
-        if (criteria.getReleaseYear() != null) {
-            if (!Objects.equals(media.getReleaseYear(), criteria.getReleaseYear())) {
-                return false;
-            }
-        }
-
-        if (criteria.getAgeRestriction() != null) {
-            if (media.getAgeRestriction() == null
-                    || !normalize(media.getAgeRestriction()).equals(normalize(criteria.getAgeRestriction()))) {
-                return false;
-            }
-        }
-
-        return true;
+    @Override
+    public String mediaVersion(int mediaId) {
+        return mediaVersions.mediaVersion(mediaId);
     }
 
-    private boolean passesRatingThreshold(RatingSummary summary, Double minimumRating) {
-        if (minimumRating == null) {
-            return true;
-        }
-        return summary != null && summary.getAverageScore() >= minimumRating;
+    @Override
+    public String catalogVersion() {
+        return mediaVersions.catalogVersion();
     }
 
     private Map<Integer, RatingSummary> summariesFor(List<Media> mediaList) {
@@ -322,39 +383,72 @@ public class DefaultMediaService implements MediaService {
                 .collect(Collectors.toMap(RatingSummary::getMediaId, summary -> summary));
     }
 
-    private MediaDetails buildDetails(Media media,
-                                      RatingSummary summary,
-                                      int userId,
-                                      boolean includeRatings) {
-        return buildDetails(media, summary, userId, includeRatings, includeRatings ? null : List.of());
+    private Map<Integer, FavoriteSummary> favoriteSummariesFor(List<Media> mediaList, int userId) {
+        if (mediaList.isEmpty()) {
+            return Map.of();
+        }
+        List<Integer> ids = mediaList.stream()
+                .map(Media::getId)
+                .collect(Collectors.toList());
+        return favoriteRepository.summarizeByMediaIds(ids, userId).stream()
+                .collect(Collectors.toMap(FavoriteSummary::getMediaId, summary -> summary));
     }
 
-    private MediaDetails buildDetails(Media media,
-                                      RatingSummary summary,
-                                      int userId,
-                                      boolean includeRatings,
-                                      List<Rating> ratingsOverride) {
-        double average = summary != null ? summary.getAverageScore() : 0.0;
-        int ratingCount = summary != null ? summary.getRatingCount() : 0;
-        int favoritesCount = favoriteRepository.countFavoritesForMedia(media.getId());
-        boolean favorite = userId > 0 && favoriteRepository.isFavorite(userId, media.getId());
-        List<Rating> ratings = includeRatings
-                ? (ratingsOverride != null ? ratingsOverride : ratingRepository.findByMediaId(media.getId()))
-                : List.of();
-        return MediaDetails.of(media, average, ratingCount, favoritesCount, favorite, ratings);
+    // Baut Listen-Details (ohne Ratings) für alle Medien mit je einer Sammelabfrage für Ratings und Favoriten.
+    private List<MediaDetails> detailsFor(List<Media> mediaList, int userId) {
+        Map<Integer, RatingSummary> ratingSummaries = summariesFor(mediaList);
+        Map<Integer, FavoriteSummary> favoriteSummaries = favoriteSummariesFor(mediaList, userId);
+        List<MediaDetails> details = new ArrayList<>(mediaList.size());
+        for (Media media : mediaList) {
+            details.add(buildDetails(media,
+                    ratingSummaries.get(media.getId()),
+                    favoriteSummaries.get(media.getId()),
+                    List.of(),
+                    null));
+        }
+        return details;
     }
 
-    private String normalize(String value) {
-        return value == null ? "" : value.trim().toLowerCase();
+    // Benutzerunabhängige Listenwerte (Ratings, Favoritenanzahl) mit je einer Sammelabfrage.
+    private List<SearchResultCache.CachedMedia> cacheableResultsFor(List<Media> mediaList) {
+        Map<Integer, RatingSummary> ratingSummaries = summariesFor(mediaList);
+        Map<Integer, FavoriteSummary> favoriteSummaries = favoriteSummariesFor(mediaList, 0);
+        List<SearchResultCache.CachedMedia> results = new ArrayList<>(mediaList.size());
+        for (Media media : mediaList) {
+            RatingSummary summary = ratingSummaries.get(media.getId());
+            FavoriteSummary favorites = favoriteSummaries.get(media.getId());
+            results.add(new SearchResultCache.CachedMedia(media,
+                    summary != null ? summary.getAverageScore() : 0.0,
+                    summary != null ? summary.getRatingCount() : 0,
+                    favorites != null ? favorites.getFavoritesCount() : 0));
+        }
+        return results;
     }
 
-    private boolean intersects(List<String> genres, Set<String> preferred) {
-        for (String genre : genres) {
-            if (preferred.contains(normalize(genre))) {
-                return true;
-            }
+    // Setzt die Favoriten-Markierung des anfragenden Benutzers; dafür reicht eine Abfrage seiner Favoriten.
+    private List<MediaDetails> withFavoriteFlags(List<SearchResultCache.CachedMedia> results, int userId) {
+        if (results.isEmpty()) {
+            return List.of();
+        }
+        Set<Integer> favoriteIds = userId > 0 ? Set.copyOf(favoriteRepository.findMediaIdsByUser(userId)) : Set.of();
+        List<MediaDetails> details = new ArrayList<>(results.size());
+        for (SearchResultCache.CachedMedia cached : results) {
+            details.add(MediaDetails.of(cached.media(), cached.averageRating(), cached.ratingCount(),
+                    cached.favoritesCount(), favoriteIds.contains(cached.media().getId()), List.of()));
         }
-        return false;
+        return details;
+    }
+
+    private MediaDetails buildDetails(Media media,
+                                      RatingSummary summary,
+                                      FavoriteSummary favorites,
+                                      List<Rating> ratings,
+                                      RatingCursor ratingsNextCursor) {
+        double average = summary != null ? summary.getAverageScore() : 0.0;
+        int ratingCount = summary != null ? summary.getRatingCount() : 0;
+        int favoritesCount = favorites != null ? favorites.getFavoritesCount() : 0;
+        boolean favorite = favorites != null && favorites.isFavoriteForUser();
+        return MediaDetails.of(media, average, ratingCount, favoritesCount, favorite, ratings, ratingsNextCursor);
     }
 
     private Set<String> topKeys(Map<String, Integer> scores, int limit) {
@@ -395,6 +489,6 @@ public class DefaultMediaService implements MediaService {
         return true;
     }
 
-    private record Candidate(MediaDetails details, int score, double average, int ratingCount) {
+    private record Candidate(Media media, int score, double average, int ratingCount) {
     }
 }
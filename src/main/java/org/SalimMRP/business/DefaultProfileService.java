@@ -4,14 +4,14 @@ import org.SalimMRP.business.dto.LeaderboardEntry;
 import org.SalimMRP.business.dto.MediaDetails;
 import org.SalimMRP.business.dto.UserProfile;
 import org.SalimMRP.persistence.FavoriteRepository;
+import org.SalimMRP.persistence.RatingCursor;
+import org.SalimMRP.persistence.RatingPage;
 import org.SalimMRP.persistence.RatingRepository;
 import org.SalimMRP.persistence.UserRepository;
 import org.SalimMRP.persistence.models.Media;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.User;
-import org.SalimMRP.persistence.models.UserRatingCount;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -19,12 +19,14 @@ import java.util.Map;
 import java.util.Objects;
 
 // Kombiniert Daten aus mehreren Repositories, um Profilinformationen aufzubereiten.
-public class DefaultProfileService implements ProfileService {
+// Die Rangliste wird über den LeaderboardCache bedient, der bei neuen/gelöschten Ratings verworfen wird.
+public class DefaultProfileService implements ProfileService, RatingEventListener {
 
     private final UserRepository userRepository;
     private final RatingRepository ratingRepository;
     private final FavoriteRepository favoriteRepository;
     private final MediaService mediaService;
+    private final LeaderboardCache leaderboardCache;
 
     public DefaultProfileService(UserRepository userRepository,
                                  RatingRepository ratingRepository,
@@ -34,6 +36,7 @@ public class DefaultProfileService implements ProfileService {
         this.ratingRepository = Objects.requireNonNull(ratingRepository, "ratingRepository must not be null");
         this.favoriteRepository = Objects.requireNonNull(favoriteRepository, "favoriteRepository must not be null");
         this.mediaService = Objects.requireNonNull(mediaService, "mediaService must not be null");
+        this.leaderboardCache = new LeaderboardCache(ratingRepository);
     }
 
     @Override
@@ -65,11 +68,11 @@ public class DefaultProfileService implements ProfileService {
     }
 
     @Override
-    public List<Rating> ratingHistory(int userId) {
-        if (userId <= 0) {
-            return List.of();
+    public RatingPage ratingHistory(int userId, RatingCursor after, int limit) {
+        if (userId <= 0 || limit < 1) {
+            return RatingPage.empty();
         }
-        return ratingRepository.findByUserId(userId);
+        return ratingRepository.findByUserId(userId, after, limit);
     }
 
     @Override
@@ -80,17 +83,17 @@ public class DefaultProfileService implements ProfileService {
     @Override
     public List<LeaderboardEntry> leaderboard(int limit) {
         int effectiveLimit = limit > 0 ? limit : 10;
-        List<UserRatingCount> ratingCounts = ratingRepository.findRatingCountsPerUser(effectiveLimit);
-        List<LeaderboardEntry> result = new ArrayList<>();
+        return leaderboardCache.top(effectiveLimit);
+    }
 
-        for (UserRatingCount count : ratingCounts) {
-            User user = userRepository.findById(count.getUserId());
-            if (user == null) {
-                continue;
-            }
-            result.add(new LeaderboardEntry(user.getUsername(), count.getRatingCount()));
-        }
-        return result;
+    @Override
+    public void ratingCreated(Rating rating) {
+        leaderboardCache.ratingCreated(rating);
+    }
+
+    @Override
+    public void ratingDeleted(Rating rating) {
+        leaderboardCache.ratingDeleted(rating);
     }
 
     private String determineFavoriteGenre(List<Rating> ratings) {
@@ -100,13 +103,22 @@ public class DefaultProfileService implements ProfileService {
 
         Map<String, Integer> scores = new HashMap<>();
         Map<String, String> displayNames = new HashMap<>();
-        Map<Integer, Media> mediaCache = new HashMap<>();
+
+        // Alle relevanten Medien werden mit einer Sammelabfrage geladen statt einzeln pro Rating.
+        List<Integer> relevantIds = ratings.stream()
+                .filter(rating -> rating.getStarValue() >= 3)
+                .map(Rating::getMediaId)
+                .toList();
+        Map<Integer, Media> mediaById = new HashMap<>();
+        for (Media media : mediaService.getMediaByIds(relevantIds)) {
+            mediaById.put(media.getId(), media);
+        }
 
         for (Rating rating : ratings) {
             if (rating.getStarValue() < 3) {
                 continue;
             }
-            Media media = mediaCache.computeIfAbsent(rating.getMediaId(), mediaService::getMediaById);
+            Media media = mediaById.get(rating.getMediaId());
             if (media == null) {
                 continue;
             }
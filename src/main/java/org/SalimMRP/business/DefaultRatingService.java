@@ -1,6 +1,8 @@
 package org.SalimMRP.business;
 
 import org.SalimMRP.persistence.MediaRepository;
+import org.SalimMRP.persistence.RatingCursor;
+import org.SalimMRP.persistence.RatingPage;
 import org.SalimMRP.persistence.RatingRepository;
 import org.SalimMRP.persistence.models.Media;
 import org.SalimMRP.persistence.models.Rating;
@@ -14,10 +16,19 @@ public class DefaultRatingService implements RatingService {
 
     private final RatingRepository ratingRepository;
     private final MediaRepository mediaRepository;
+    private final List<RatingEventListener> listeners;
 
     public DefaultRatingService(RatingRepository ratingRepository, MediaRepository mediaRepository) {
+        this(ratingRepository, mediaRepository, List.of());
+    }
+
+    // Die Listener werden nach jedem erfolgreichen Schreibvorgang benachrichtigt (z. B. Caches).
+    public DefaultRatingService(RatingRepository ratingRepository,
+                                MediaRepository mediaRepository,
+                                List<RatingEventListener> listeners) {
         this.ratingRepository = Objects.requireNonNull(ratingRepository, "ratingRepository must not be null");
         this.mediaRepository = Objects.requireNonNull(mediaRepository, "mediaRepository must not be null");
+        this.listeners = List.copyOf(Objects.requireNonNull(listeners, "listeners must not be null"));
     }
 
     @Override
@@ -40,15 +51,19 @@ public class DefaultRatingService implements RatingService {
         rating.setCommentConfirmed(false);
         rating.setCreatedAt(Instant.now());
         rating.setLikedByUserIds(null);
-        return ratingRepository.save(rating);
+        Rating saved = ratingRepository.save(rating);
+        if (saved != null) {
+            listeners.forEach(listener -> listener.ratingCreated(saved));
+        }
+        return saved;
     }
 
     @Override
-    public List<Rating> getRatingsForMedia(int mediaId) {
-        if (mediaId <= 0) {
-            return List.of();
+    public RatingPage getRatingsForMedia(int mediaId, RatingCursor after, int limit) {
+        if (mediaId <= 0 || limit < 1) {
+            return RatingPage.empty();
         }
-        return ratingRepository.findByMediaId(mediaId);
+        return ratingRepository.findByMediaId(mediaId, after, limit);
     }
 
     @Override
@@ -68,11 +83,11 @@ public class DefaultRatingService implements RatingService {
     }
 
     @Override
-    public List<Rating> getRatingsByUser(int userId) {
-        if (userId <= 0) {
-            return List.of();
+    public RatingPage getRatingsByUser(int userId, RatingCursor after, int limit) {
+        if (userId <= 0 || limit < 1) {
+            return RatingPage.empty();
         }
-        return ratingRepository.findByUserId(userId);
+        return ratingRepository.findByUserId(userId, after, limit);
     }
 
     @Override
@@ -90,6 +105,7 @@ public class DefaultRatingService implements RatingService {
             return false;
         }
 
+        Rating previous = copyOf(existing);
         boolean commentChanged = !Objects.equals(existing.getComment(), rating.getComment());
         existing.setStarValue(rating.getStarValue());
         existing.setComment(rating.getComment());
@@ -97,7 +113,11 @@ public class DefaultRatingService implements RatingService {
             existing.setCommentConfirmed(false);
         }
 
-        return ratingRepository.update(existing);
+        if (!ratingRepository.update(existing)) {
+            return false;
+        }
+        listeners.forEach(listener -> listener.ratingUpdated(previous, existing));
+        return true;
     }
 
     @Override
@@ -110,7 +130,11 @@ public class DefaultRatingService implements RatingService {
         if (existing == null || existing.getUserId() != userId) {
             return false;
         }
-        return ratingRepository.delete(ratingId);
+        if (!ratingRepository.delete(ratingId)) {
+            return false;
+        }
+        listeners.forEach(listener -> listener.ratingDeleted(existing));
+        return true;
     }
 
     @Override
@@ -132,7 +156,11 @@ public class DefaultRatingService implements RatingService {
             return true;
         }
 
-        return ratingRepository.confirmComment(ratingId);
+        if (!ratingRepository.confirmComment(ratingId)) {
+            return false;
+        }
+        listeners.forEach(listener -> listener.commentConfirmed(existing));
+        return true;
     }
 
     @Override
@@ -146,7 +174,11 @@ public class DefaultRatingService implements RatingService {
             return false;
         }
 
-        return ratingRepository.addLike(ratingId, userId);
+        if (!ratingRepository.addLike(ratingId, userId)) {
+            return false;
+        }
+        listeners.forEach(listener -> listener.ratingLikesChanged(rating));
+        return true;
     }
 
     @Override
@@ -160,7 +192,24 @@ public class DefaultRatingService implements RatingService {
             return false;
         }
 
-        return ratingRepository.removeLike(ratingId, userId);
+        if (!ratingRepository.removeLike(ratingId, userId)) {
+            return false;
+        }
+        listeners.forEach(listener -> listener.ratingLikesChanged(rating));
+        return true;
+    }
+
+    private Rating copyOf(Rating source) {
+        return new Rating(
+                source.getId(),
+                source.getMediaId(),
+                source.getUserId(),
+                source.getStarValue(),
+                source.getComment(),
+                source.getCreatedAt(),
+                source.isCommentConfirmed(),
+                source.getLikedByUserIds()
+        );
     }
 
     private boolean isCreatable(Rating rating) {
@@ -1,26 +1,44 @@
 package org.SalimMRP.business;
 
 import org.SalimMRP.business.auth.PasswordHasher;
+import org.SalimMRP.business.auth.PasswordHashingBusyException;
+import org.SalimMRP.business.auth.PrincipalCache;
 import org.SalimMRP.business.auth.TokenService;
 import org.SalimMRP.persistence.UserRepository;
 import org.SalimMRP.persistence.models.User;
 
+import java.time.Duration;
 import java.util.Objects;
 
 // Enthält die Geschäftslogik für Registrierung, Login und Tokenprüfung und nutzt nur die übergebenen Abstraktionen.
 public class DefaultUserService implements UserService {
 
+    // Obergrenze für Benutzernamen; so passt jeder Name (auch in UTF-8 kodiert) in ein signiertes Token.
+    static final int MAX_USERNAME_LENGTH = 64;
+
     private final UserRepository userRepository;
     private final PasswordHasher passwordHasher;
     private final TokenService tokenService;
+    private final PrincipalCache principalCache;
+    // Vergleichs-Hash für unbekannte Benutzernamen; wird beim ersten Bedarf mit dem konfigurierten Verfahren
+    // und dessen Kosten erzeugt, damit der Fehlversuch gleich lange dauert wie bei einem falschen Passwort.
+    private volatile String dummyHash;
 
     // Abhängigkeiten werden injiziert, damit Tests und Austausch der Implementierung leicht möglich sind.
     public DefaultUserService(UserRepository userRepository,
                               PasswordHasher passwordHasher,
                               TokenService tokenService) {
+        this(userRepository, passwordHasher, tokenService, new PrincipalCache(10_000, Duration.ofMinutes(5)));
+    }
+
+    public DefaultUserService(UserRepository userRepository,
+                              PasswordHasher passwordHasher,
+                              TokenService tokenService,
+                              PrincipalCache principalCache) {
         this.userRepository = Objects.requireNonNull(userRepository, "userRepository must not be null");
         this.passwordHasher = Objects.requireNonNull(passwordHasher, "passwordHasher must not be null");
         this.tokenService = Objects.requireNonNull(tokenService, "tokenService must not be null");
+        this.principalCache = Objects.requireNonNull(principalCache, "principalCache must not be null");
     }
 
     @Override
@@ -28,6 +46,7 @@ public class DefaultUserService implements UserService {
         // Minimale Validierung: Es müssen Benutzername und Passwort vorhanden sein.
         if (user == null
                 || user.getUsername() == null || user.getUsername().isBlank()
+                || user.getUsername().length() > MAX_USERNAME_LENGTH
                 || user.getPassword() == null || user.getPassword().isBlank()) {
             return false;
         }
@@ -51,14 +70,52 @@ public class DefaultUserService implements UserService {
 
         User user = userRepository.findByUsername(username);
         if (user == null) {
+            // Auch ohne Benutzer wird ein Hash geprüft, sonst verrät die kürzere Antwortzeit, welche Namen existieren.
+            passwordHasher.matches(password, dummyHash());
             return null;
         }
 
         if (!passwordHasher.matches(password, user.getPassword())) {
             return null;
         }
+        upgradePasswordHash(user, password);
+
+        String token;
+        try {
+            token = tokenService.issueToken(user.getId(), username);
+        } catch (IllegalArgumentException e) {
+            // Ältere Konten können Namen haben, die nicht mehr in ein Token passen; der Login schlägt dann regulär fehl.
+            System.err.println("Login failed: " + e.getMessage());
+            return null;
+        }
+        // Der Benutzer ist gerade geladen worden; so braucht auch der erste Request mit dem Token keine DB-Abfrage.
+        principalCache.put(token, user);
+        return token;
+    }
 
-        return tokenService.issueToken(username);
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = passwordHasher.hash("mrp-unknown-user");
+            dummyHash = hash;
+        }
+        return hash;
+    }
+
+    // Nur nach erfolgreichem Login ist der Klartext bekannt: Altbestand (SHA-256) bzw. zu schwache Hashes werden
+    // dann neu berechnet. Schlägt das fehl (z. B. Hashing ausgelastet), gilt der Login trotzdem; es folgt der nächste Versuch.
+    private void upgradePasswordHash(User user, String password) {
+        if (!passwordHasher.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            String upgraded = passwordHasher.hash(password);
+            if (userRepository.updatePassword(user.getId(), upgraded)) {
+                user.setPassword(upgraded);
+            }
+        } catch (PasswordHashingBusyException e) {
+            System.err.println("Skipping password rehash for user " + user.getId() + ": " + e.getMessage());
+        }
     }
 
     @Override
@@ -68,14 +125,31 @@ public class DefaultUserService implements UserService {
 
     @Override
     public User getUserByToken(String token) {
+        return authenticate(token);
+    }
+
+    // Die Gültigkeit prüft immer der TokenService (ohne DB); nur die Auflösung zum Benutzer wird gecacht.
+    // Ein per invalidate entferntes Token wird dadurch sofort abgewiesen, auch wenn es noch im Cache liegt.
+    @Override
+    public User authenticate(String token) {
         if (token == null || token.isBlank()) {
             return null;
         }
         String username = tokenService.resolveUsername(token);
         if (username == null) {
+            principalCache.invalidate(token);
             return null;
         }
-        return userRepository.findByUsername(username);
+
+        User cached = principalCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        User user = userRepository.findByUsername(username);
+        if (user != null) {
+            principalCache.put(token, user);
+        }
+        return user;
     }
 
     @Override
@@ -0,0 +1,348 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.models.Rating;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Item-zu-Item-Ähnlichkeiten aus gemeinsamen Bewertungen (Collaborative Filtering): Zwei Medien sind sich ähnlich,
+// wenn dieselben Benutzer sie ähnlich bewertet haben (Kosinus über die um NEUTRAL_STARS zentrierten Sternwerte,
+// gedämpft bei wenigen gemeinsamen Bewertern). Gegensätzlich bewertete Paare landen so bei ≤ 0 und fallen weg. Pro Medium wird nur eine Liste der N ähnlichsten Nachbarn vorgehalten; eine Empfehlung kostet damit
+// O(Ratings des Benutzers × N) statt eines Laufs über den ganzen Katalog.
+// Der Index wird beim Start aus allen Ratings aufgebaut und danach über Rating-Ereignisse fortgeschrieben.
+// Pro Benutzer zählen nur seine letzten maxRatingsPerUser Ratings, sonst wüchse die Zahl der Paare quadratisch mit
+// sehr aktiven Benutzern. Ein Rating-Ereignis bucht nur die Paare um und merkt die betroffenen Medien vor; ihre
+// Nachbarlisten berechnet ein Hintergrund-Thread neu, nicht der Request-Thread.
+public class ItemSimilarityIndex implements RatingEventListener {
+
+    // Paare mit wenigen gemeinsamen Bewertern werden mit users / (users + SHRINKAGE) abgeschwächt.
+    private static final double SHRINKAGE = 5.0;
+    // Sternwerte darüber sprechen für ähnliche Medien, darunter dagegen.
+    private static final double NEUTRAL_STARS = 2.5;
+    private static final Neighbor[] NO_NEIGHBORS = new Neighbor[0];
+    private static final int DEFAULT_MAX_RATINGS_PER_USER = 200;
+
+    private final int neighborsPerMedia;
+    private final int maxRatingsPerUser;
+    private final Executor refresher;
+
+    // Schreibzustand, nur unter der Sperre dieses Objekts. Die Ratings je Benutzer in Einfügereihenfolge,
+    // damit bei Überschreiten der Obergrenze das älteste weichen kann.
+    private final Map<Integer, LinkedHashMap<Integer, Integer>> starsByUser = new HashMap<>();
+    private final Map<Integer, Map<Integer, CoRating>> coRatings = new HashMap<>();
+    private final Map<Integer, Long> squaredNorms = new HashMap<>();
+    // Vorgemerkte Neuberechnungen: Medien, deren Liste ganz neu entsteht, und Medien, bei denen sich nur das
+    // Verhältnis zu einzelnen Partnern geändert hat.
+    private final Set<Integer> staleMedia = new LinkedHashSet<>();
+    private final Map<Integer, Set<Integer>> stalePairs = new LinkedHashMap<>();
+    private boolean refreshScheduled;
+
+    // Lesezustand: unveränderliche Arrays, die ohne Sperre gelesen werden.
+    private final Map<Integer, Neighbor[]> neighbors = new ConcurrentHashMap<>();
+
+    public record Neighbor(int mediaId, double similarity) {
+    }
+
+    public ItemSimilarityIndex(int neighborsPerMedia) {
+        this(neighborsPerMedia, DEFAULT_MAX_RATINGS_PER_USER);
+    }
+
+    // Neuberechnungen laufen auf einem eigenen Daemon-Thread, der sich nach einer Ruhepause beendet.
+    public ItemSimilarityIndex(int neighborsPerMedia, int maxRatingsPerUser) {
+        this(neighborsPerMedia, maxRatingsPerUser, newRefresher());
+    }
+
+    // refresher führt die Neuberechnung der Nachbarlisten aus; Runnable::run rechnet sofort im schreibenden Thread.
+    public ItemSimilarityIndex(int neighborsPerMedia, int maxRatingsPerUser, Executor refresher) {
+        if (neighborsPerMedia < 1) {
+            throw new IllegalArgumentException("neighborsPerMedia must be at least 1");
+        }
+        if (maxRatingsPerUser < 2) {
+            throw new IllegalArgumentException("maxRatingsPerUser must be at least 2");
+        }
+        this.neighborsPerMedia = neighborsPerMedia;
+        this.maxRatingsPerUser = maxRatingsPerUser;
+        this.refresher = Objects.requireNonNull(refresher, "refresher must not be null");
+    }
+
+    // Baut den Index vollständig neu auf, z. B. beim Start aus RatingRepository.findAllStarValues().
+    public synchronized void rebuild(List<Rating> ratings) {
+        starsByUser.clear();
+        coRatings.clear();
+        squaredNorms.clear();
+        neighbors.clear();
+        staleMedia.clear();
+        stalePairs.clear();
+        // ratings ist nach Benutzer und Alter sortiert; bei zu vielen Ratings bleiben so die neuesten.
+        for (Rating rating : ratings) {
+            LinkedHashMap<Integer, Integer> userStars = starsByUser.computeIfAbsent(rating.getUserId(),
+                    id -> new LinkedHashMap<>());
+            if (userStars.containsKey(rating.getMediaId())) {
+                continue;
+            }
+            if (userStars.size() >= maxRatingsPerUser) {
+                evictOldest(userStars);
+            }
+            apply(userStars, rating.getMediaId(), rating.getStarValue(), 1);
+            userStars.put(rating.getMediaId(), rating.getStarValue());
+        }
+        staleMedia.clear();
+        stalePairs.clear();
+        for (Integer mediaId : coRatings.keySet()) {
+            recomputeNeighbors(mediaId);
+        }
+    }
+
+    // Ähnlichste Medien, absteigend nach Ähnlichkeit.
+    public List<Neighbor> neighborsOf(int mediaId) {
+        return List.of(neighbors.getOrDefault(mediaId, NO_NEIGHBORS));
+    }
+
+    // Summiert für jedes noch nicht bewertete Nachbarmedium Ähnlichkeit × (Sterne − neutral) über alle Ratings
+    // des Benutzers. Nur positive Summen sind Empfehlungen; ohne passende Nachbarn ist das Ergebnis leer.
+    public Map<Integer, Double> score(List<Rating> userRatings) {
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Rating rating : userRatings) {
+            double weight = rating.getStarValue() - NEUTRAL_STARS;
+            for (Neighbor neighbor : neighbors.getOrDefault(rating.getMediaId(), NO_NEIGHBORS)) {
+                scores.merge(neighbor.mediaId(), neighbor.similarity() * weight, Double::sum);
+            }
+        }
+        for (Rating rating : userRatings) {
+            scores.remove(rating.getMediaId());
+        }
+        scores.values().removeIf(score -> score <= 0);
+        return scores;
+    }
+
+    @Override
+    public synchronized void ratingCreated(Rating rating) {
+        LinkedHashMap<Integer, Integer> userStars = starsByUser.computeIfAbsent(rating.getUserId(),
+                id -> new LinkedHashMap<>());
+        Integer previous = userStars.remove(rating.getMediaId());
+        if (previous != null) {
+            apply(userStars, rating.getMediaId(), previous, -1);
+        } else if (userStars.size() >= maxRatingsPerUser) {
+            evictOldest(userStars);
+        }
+        apply(userStars, rating.getMediaId(), rating.getStarValue(), 1);
+        userStars.put(rating.getMediaId(), rating.getStarValue());
+        scheduleRefresh();
+    }
+
+    @Override
+    public void ratingUpdated(Rating previous, Rating updated) {
+        if (previous.getStarValue() != updated.getStarValue()) {
+            ratingCreated(updated);
+        }
+    }
+
+    // Ratings außerhalb der letzten maxRatingsPerUser eines Benutzers sind nicht im Index und werden übergangen.
+    @Override
+    public synchronized void ratingDeleted(Rating rating) {
+        Map<Integer, Integer> userStars = starsByUser.get(rating.getUserId());
+        if (userStars == null) {
+            return;
+        }
+        Integer previous = userStars.remove(rating.getMediaId());
+        if (previous == null) {
+            return;
+        }
+        apply(userStars, rating.getMediaId(), previous, -1);
+        if (userStars.isEmpty()) {
+            starsByUser.remove(rating.getUserId());
+        }
+        scheduleRefresh();
+    }
+
+    // Gelöschte Medien verlieren ihre Ratings per Fremdschlüssel, ohne dass Rating-Ereignisse ausgelöst werden.
+    // Die Liste des gelöschten Mediums verschwindet sofort, damit es nicht mehr empfohlen wird.
+    public synchronized void mediaRemoved(int mediaId) {
+        Iterator<Map.Entry<Integer, LinkedHashMap<Integer, Integer>>> users = starsByUser.entrySet().iterator();
+        while (users.hasNext()) {
+            Map<Integer, Integer> userStars = users.next().getValue();
+            Integer stars = userStars.remove(mediaId);
+            if (stars != null) {
+                apply(userStars, mediaId, stars, -1);
+                if (userStars.isEmpty()) {
+                    users.remove();
+                }
+            }
+        }
+        squaredNorms.remove(mediaId);
+        staleMedia.remove(mediaId);
+        stalePairs.remove(mediaId);
+        neighbors.remove(mediaId);
+        scheduleRefresh();
+    }
+
+    public synchronized SimilarityIndexMetrics metrics() {
+        long pairs = coRatings.values().stream().mapToLong(Map::size).sum() / 2;
+        return new SimilarityIndexMetrics(neighbors.size(), starsByUser.size(), pairs, neighborsPerMedia,
+                maxRatingsPerUser, staleMedia.size() + stalePairs.size());
+    }
+
+    // Bucht den Beitrag eines Ratings (sign = 1) bzw. nimmt ihn zurück (sign = -1); userStars enthält dabei
+    // die übrigen Ratings desselben Benutzers, nicht das betroffene selbst.
+    // Die betroffenen Nachbarlisten werden nur vorgemerkt.
+    private void apply(Map<Integer, Integer> userStars, int mediaId, int stars, int sign) {
+        long centered = centered(stars);
+        squaredNorms.merge(mediaId, sign * centered * centered, Long::sum);
+        staleMedia.add(mediaId);
+        for (Map.Entry<Integer, Integer> other : userStars.entrySet()) {
+            int otherId = other.getKey();
+            if (otherId == mediaId) {
+                continue;
+            }
+            long dot = sign * centered * centered(other.getValue());
+            adjust(mediaId, otherId, dot, sign);
+            adjust(otherId, mediaId, dot, sign);
+            stalePairs.computeIfAbsent(otherId, id -> new HashSet<>()).add(mediaId);
+        }
+    }
+
+    // Doppelter Abstand zu NEUTRAL_STARS, damit Skalarprodukte und Normen ganzzahlig bleiben; der Faktor kürzt
+    // sich im Kosinus heraus.
+    private static long centered(int stars) {
+        return (long) (2 * (stars - NEUTRAL_STARS));
+    }
+
+    // Nimmt das älteste Rating eines Benutzers aus dem Index, um Platz für ein neues zu schaffen.
+    private void evictOldest(LinkedHashMap<Integer, Integer> userStars) {
+        Iterator<Map.Entry<Integer, Integer>> entries = userStars.entrySet().iterator();
+        Map.Entry<Integer, Integer> oldest = entries.next();
+        entries.remove();
+        apply(userStars, oldest.getKey(), oldest.getValue(), -1);
+    }
+
+    private void adjust(int mediaId, int otherId, long dot, int users) {
+        Map<Integer, CoRating> row = coRatings.computeIfAbsent(mediaId, id -> new HashMap<>());
+        CoRating pair = row.computeIfAbsent(otherId, id -> new CoRating());
+        pair.dot += dot;
+        pair.users += users;
+        if (pair.users <= 0) {
+            row.remove(otherId);
+            if (row.isEmpty()) {
+                coRatings.remove(mediaId);
+            }
+        }
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshScheduled && (!staleMedia.isEmpty() || !stalePairs.isEmpty())) {
+            refreshScheduled = true;
+            refresher.execute(this::refreshStale);
+        }
+    }
+
+    // Arbeitet die Vormerkungen einzeln ab und gibt die Sperre zwischen zwei Medien frei, damit Schreibvorgänge
+    // nie auf die gesamte Neuberechnung warten.
+    private void refreshStale() {
+        while (true) {
+            synchronized (this) {
+                if (!staleMedia.isEmpty()) {
+                    Iterator<Integer> next = staleMedia.iterator();
+                    int mediaId = next.next();
+                    next.remove();
+                    stalePairs.remove(mediaId);
+                    recomputeNeighbors(mediaId);
+                } else if (!stalePairs.isEmpty()) {
+                    Iterator<Map.Entry<Integer, Set<Integer>>> next = stalePairs.entrySet().iterator();
+                    Map.Entry<Integer, Set<Integer>> entry = next.next();
+                    next.remove();
+                    refreshPairs(entry.getKey(), entry.getValue());
+                } else {
+                    refreshScheduled = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    // Die Liste eines Mediums wird nur neu berechnet, wenn einer der geänderten Partner darauf steht oder
+    // jetzt hineinpassen könnte.
+    private void refreshPairs(int mediaId, Set<Integer> partners) {
+        Neighbor[] current = neighbors.getOrDefault(mediaId, NO_NEIGHBORS);
+        for (Integer partnerId : partners) {
+            boolean listed = false;
+            for (Neighbor neighbor : current) {
+                if (neighbor.mediaId() == partnerId) {
+                    listed = true;
+                    break;
+                }
+            }
+            if (listed
+                    || current.length < neighborsPerMedia
+                    || similarity(mediaId, partnerId) > current[current.length - 1].similarity()) {
+                recomputeNeighbors(mediaId);
+                return;
+            }
+        }
+    }
+
+    private static Executor newRefresher() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "similarity-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private void recomputeNeighbors(int mediaId) {
+        Map<Integer, CoRating> row = coRatings.get(mediaId);
+        if (row == null) {
+            neighbors.remove(mediaId);
+            return;
+        }
+        List<Neighbor> candidates = new ArrayList<>(row.size());
+        for (Integer otherId : row.keySet()) {
+            double similarity = similarity(mediaId, otherId);
+            if (similarity > 0) {
+                candidates.add(new Neighbor(otherId, similarity));
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(Neighbor::similarity).reversed()
+                .thenComparingInt(Neighbor::mediaId));
+        if (candidates.isEmpty()) {
+            neighbors.remove(mediaId);
+        } else {
+            neighbors.put(mediaId, candidates.stream().limit(neighborsPerMedia).toArray(Neighbor[]::new));
+        }
+    }
+
+    private double similarity(int mediaId, int otherId) {
+        Map<Integer, CoRating> row = coRatings.get(mediaId);
+        CoRating pair = row != null ? row.get(otherId) : null;
+        if (pair == null || pair.users <= 0) {
+            return 0.0;
+        }
+        double norms = Math.sqrt((double) squaredNorms.getOrDefault(mediaId, 0L) * squaredNorms.getOrDefault(otherId, 0L));
+        if (norms == 0) {
+            return 0.0;
+        }
+        return pair.dot / norms * pair.users / (pair.users + SHRINKAGE);
+    }
+
+    // Skalarprodukt der zentrierten Sternwerte und Anzahl der Benutzer, die beide Medien bewertet haben.
+    private static final class CoRating {
+        private long dot;
+        private int users;
+    }
+}
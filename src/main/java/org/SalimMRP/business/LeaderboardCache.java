@@ -0,0 +1,84 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.business.dto.LeaderboardEntry;
+import org.SalimMRP.persistence.RatingRepository;
+import org.SalimMRP.persistence.models.LeaderboardRow;
+import org.SalimMRP.persistence.models.Rating;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Hält die zuletzt berechnete Rangliste im Speicher, damit nicht jeder Aufruf ein GROUP BY über alle Ratings auslöst.
+// Neue oder gelöschte Ratings verwerfen den Stand; der nächste Aufruf lädt ihn neu.
+public class LeaderboardCache implements RatingEventListener {
+
+    // So viele Plätze werden mindestens geladen, damit unterschiedliche limit-Werte denselben Stand nutzen.
+    static final int PRELOAD_SIZE = 100;
+    // Größere Anfragen gehen direkt an die Datenbank, damit der Cache beschränkt bleibt.
+    static final int MAX_CACHED_SIZE = 1_000;
+
+    private final RatingRepository ratingRepository;
+    // Version und Stand werden gemeinsam ausgetauscht: Ein Stand wird nur veröffentlicht, wenn seit Beginn des Ladens
+    // nicht invalidiert wurde (compareAndSet auf genau den vorher gelesenen Zustand).
+    private final AtomicReference<State> state = new AtomicReference<>(new State(0, null));
+
+    public LeaderboardCache(RatingRepository ratingRepository) {
+        this.ratingRepository = Objects.requireNonNull(ratingRepository, "ratingRepository must not be null");
+    }
+
+    public List<LeaderboardEntry> top(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        if (limit > MAX_CACHED_SIZE) {
+            return load(limit);
+        }
+
+        State current = state.get();
+        if (current.snapshot() != null && current.snapshot().covers(limit)) {
+            return current.snapshot().head(limit);
+        }
+
+        int size = Math.max(limit, PRELOAD_SIZE);
+        List<LeaderboardEntry> entries = load(size);
+        // Wurde während des Ladens invalidiert, wird das (evtl. veraltete) Ergebnis nur ausgeliefert, nicht gemerkt.
+        state.compareAndSet(current, new State(current.version(), new Snapshot(size, entries)));
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    public void invalidate() {
+        state.updateAndGet(current -> new State(current.version() + 1, null));
+    }
+
+    @Override
+    public void ratingCreated(Rating rating) {
+        invalidate();
+    }
+
+    @Override
+    public void ratingDeleted(Rating rating) {
+        invalidate();
+    }
+
+    private List<LeaderboardEntry> load(int limit) {
+        return ratingRepository.findLeaderboard(limit).stream()
+                .map(row -> new LeaderboardEntry(row.getUsername(), row.getRatingCount()))
+                .toList();
+    }
+
+    private record State(long version, Snapshot snapshot) {
+    }
+
+    // requestedSize merkt sich, wie viele Plätze angefragt wurden: Gibt es weniger Benutzer, ist die Liste trotzdem vollständig.
+    private record Snapshot(int requestedSize, List<LeaderboardEntry> entries) {
+
+        boolean covers(int limit) {
+            return limit <= requestedSize;
+        }
+
+        List<LeaderboardEntry> head(int limit) {
+            return entries.subList(0, Math.min(limit, entries.size()));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.models.Media;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Invertierter Index über die Filterattribute des Katalogs: Genre, Medientyp und Altersfreigabe zeigen jeweils auf eine Bitmap der Media-IDs. Die Werte werden beim Einfügen einmal normalisiert; Filter über
+// mehrere Attribute und "eines der Lieblingsgenres" sind danach nur noch AND/OR auf Bitmaps statt String-Vergleiche
+// pro Medium. Media-IDs sind fortlaufende Serial-Werte, daher genügt ein BitSet als dichte Bitmap.
+// Beim Start wird der Index aus allen Medien aufgebaut; der MediaService hält ihn bei Schreibvorgängen aktuell.
+public class MediaAttributeIndex {
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<String, BitSet> byGenre = new HashMap<>();
+    private final Map<String, BitSet> byType = new HashMap<>();
+    private final Map<String, BitSet> byAgeRestriction = new HashMap<>();
+
+    // Die normalisierten Attribute eines indexierten Mediums.
+    public record Attributes(String mediaType, String ageRestriction, List<String> genres) {
+    }
+
+    private record Entry(Media media, Attributes attributes) {
+    }
+
+    public synchronized void rebuild(Collection<Media> mediaList) {
+        entries.clear();
+        byGenre.clear();
+        byType.clear();
+        byAgeRestriction.clear();
+        for (Media media : mediaList) {
+            add(media);
+        }
+    }
+
+    public synchronized void mediaCreated(Media media) {
+        add(media);
+    }
+
+    // Der bisherige Stand wird über die gespeicherten Attribute entfernt, nicht über das geänderte Objekt.
+    public synchronized void mediaUpdated(Media media) {
+        remove(media.getId());
+        add(media);
+    }
+
+    public synchronized void mediaDeleted(int mediaId) {
+        remove(mediaId);
+    }
+
+    public synchronized Attributes attributes(int mediaId) {
+        Entry entry = entries.get(mediaId);
+        return entry != null ? entry.attributes() : null;
+    }
+
+    public synchronized Media media(int mediaId) {
+        Entry entry = entries.get(mediaId);
+        return entry != null ? entry.media() : null;
+    }
+
+    // Medien mit mindestens einem der Genres (OR); die Werte werden wie beim Einfügen normalisiert.
+    // Alle Bitmaps sind neue Objekte und dürfen vom Aufrufer verändert werden.
+    public synchronized BitSet withAnyGenre(Collection<String> genres) {
+        return union(byGenre, genres);
+    }
+
+    public synchronized BitSet withAnyType(Collection<String> mediaTypes) {
+        return union(byType, mediaTypes);
+    }
+
+    public synchronized BitSet withAnyAgeRestriction(Collection<String> ageRestrictions) {
+        return union(byAgeRestriction, ageRestrictions);
+    }
+
+    // Alle indexierten Media-IDs, also der ganze Katalog.
+    public synchronized BitSet allIds() {
+        BitSet ids = new BitSet();
+        for (int id : entries.keySet()) {
+            ids.set(id);
+        }
+        return ids;
+    }
+
+    // Löst die IDs einer Bitmap in aufsteigender Reihenfolge zu Medien auf.
+    public synchronized List<Media> mediaFor(BitSet ids) {
+        List<Media> result = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                result.add(entry.media());
+            }
+        }
+        return result;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
+    private BitSet union(Map<String, BitSet> index, Collection<String> values) {
+        BitSet ids = new BitSet();
+        for (String value : values) {
+            BitSet matching = index.get(normalize(value));
+            if (matching != null) {
+                ids.or(matching);
+            }
+        }
+        return ids;
+    }
+
+    private void add(Media media) {
+        int id = media.getId();
+        if (id <= 0) {
+            return;
+        }
+        remove(id);
+        List<String> genres = media.getGenres().stream()
+                .map(MediaAttributeIndex::normalize)
+                .distinct()
+                .toList();
+        Attributes attributes = new Attributes(normalize(media.getMediaType()),
+                media.getAgeRestriction() != null ? normalize(media.getAgeRestriction()) : null,
+                genres);
+        entries.put(id, new Entry(media, attributes));
+        for (String genre : genres) {
+            byGenre.computeIfAbsent(genre, key -> new BitSet()).set(id);
+        }
+        byType.computeIfAbsent(attributes.mediaType(), key -> new BitSet()).set(id);
+        if (attributes.ageRestriction() != null) {
+            byAgeRestriction.computeIfAbsent(attributes.ageRestriction(), key -> new BitSet()).set(id);
+        }
+    }
+
+    private void remove(int mediaId) {
+        Entry entry = entries.remove(mediaId);
+        if (entry == null) {
+            return;
+        }
+        Attributes attributes = entry.attributes();
+        for (String genre : attributes.genres()) {
+            clear(byGenre, genre, mediaId);
+        }
+        clear(byType, attributes.mediaType(), mediaId);
+        if (attributes.ageRestriction() != null) {
+            clear(byAgeRestriction, attributes.ageRestriction(), mediaId);
+        }
+    }
+
+    private static void clear(Map<String, BitSet> index, String key, int mediaId) {
+        BitSet ids = index.get(key);
+        if (ids != null) {
+            ids.clear(mediaId);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
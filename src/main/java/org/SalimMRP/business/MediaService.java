@@ -1,9 +1,11 @@
 package org.SalimMRP.business;
 
 import org.SalimMRP.business.dto.MediaDetails;
-import org.SalimMRP.business.dto.MediaSearchCriteria;
+import org.SalimMRP.persistence.MediaSearchCriteria;
+import org.SalimMRP.persistence.PageRequest;
 import org.SalimMRP.persistence.models.Media;
 
+import java.util.Collection;
 import java.util.List;
 
 // Beschreibt die Fähigkeiten, die ein Media-Service bereitstellen muss (CRUD über Media-Objekte).
@@ -15,12 +17,16 @@ public interface MediaService {
 
     Media getMediaById(int id);
 
+    List<Media> getMediaByIds(Collection<Integer> ids);
+
     boolean updateMedia(Media media);
 
     boolean deleteMedia(int id);
 
     List<MediaDetails> searchMedia(MediaSearchCriteria criteria, int requestingUserId);
 
+    List<MediaDetails> searchMedia(MediaSearchCriteria criteria, int requestingUserId, PageRequest page);
+
     MediaDetails getDetailedMedia(int id, int requestingUserId);
 
     boolean addFavorite(int mediaId, int userId);
@@ -30,4 +36,13 @@ public interface MediaService {
     List<MediaDetails> listFavorites(int userId);
 
     List<MediaDetails> recommendMedia(int userId);
+
+    // Typeahead: bis zu limit Medien, deren Titel query enthält, Titelanfänge und beliebte Medien zuerst.
+    List<Media> suggestMedia(String query, int limit);
+
+    // Ändert sich bei jedem Schreibvorgang, der die Detailansicht des Mediums beeinflusst.
+    String mediaVersion(int mediaId);
+
+    // Ändert sich bei jedem Schreibvorgang, der Suchergebnisse beeinflussen kann.
+    String catalogVersion();
 }
@@ -0,0 +1,110 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.MediaRepository;
+import org.SalimMRP.persistence.RatingRepository;
+import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.RatingSummary;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Caches und Indizes des DefaultMediaService; der Service verlangt alle Bausteine. Medien-Änderungen schreibt der
+// Service selbst fort, Rating-Änderungen kommen nur über die ratingListeners, die deshalb beim RatingService
+// registriert werden müssen. Die Indizes werden einmal per rebuildIndexes aus den Repositories aufgebaut.
+public class MediaServiceComponents {
+    private MediaVersions mediaVersions;
+    private SearchResultCache searchCache;
+    private ItemSimilarityIndex similarityIndex;
+    private MediaAttributeIndex attributeIndex;
+    private ParallelScorer scorer;
+    private TitleSuggestionIndex titleIndex;
+
+    // Alle Bausteine mit Standardgrößen; der Suchcache nutzt den attributeIndex dieser Bausteine.
+    public static MediaServiceComponents withDefaults() {
+        MediaServiceComponents components = new MediaServiceComponents();
+        MediaAttributeIndex attributeIndex = new MediaAttributeIndex();
+        components.setMediaVersions(new MediaVersions());
+        components.setAttributeIndex(attributeIndex);
+        components.setSearchCache(new SearchResultCache(500, Duration.ofSeconds(30), attributeIndex));
+        components.setSimilarityIndex(new ItemSimilarityIndex(20));
+        components.setScorer(ParallelScorer.sequential());
+        components.setTitleIndex(new TitleSuggestionIndex(Duration.ofMillis(20)));
+        return components;
+    }
+
+    // Baut Attribut-, Titel- und Ähnlichkeitsindex vollständig aus den Repositories auf, z. B. beim Start.
+    public void rebuildIndexes(MediaRepository mediaRepository, RatingRepository ratingRepository) {
+        List<Media> catalog = mediaRepository.findAll();
+        require(attributeIndex, "attributeIndex").rebuild(catalog);
+        List<Integer> ids = catalog.stream().map(Media::getId).toList();
+        require(titleIndex, "titleIndex").rebuild(catalog, ids.isEmpty() ? Map.of()
+                : ratingRepository.summarizeByMediaIds(ids).stream()
+                        .collect(Collectors.toMap(RatingSummary::getMediaId, RatingSummary::getRatingCount)));
+        require(similarityIndex, "similarityIndex").rebuild(ratingRepository.findAllStarValues());
+    }
+
+    // Bausteine, die Rating-Ereignisse brauchen; ohne sie veralten ETags, Suchcache, Ähnlichkeiten und Popularität.
+    public List<RatingEventListener> ratingListeners() {
+        return List.of(require(mediaVersions, "mediaVersions"),
+                require(searchCache, "searchCache"),
+                require(similarityIndex, "similarityIndex"),
+                require(titleIndex, "titleIndex"));
+    }
+
+    static <T> T require(T component, String name) {
+        return Objects.requireNonNull(component, name + " must be set");
+    }
+
+    public MediaVersions getMediaVersions() {
+        return mediaVersions;
+    }
+
+    // Wird mit dem RatingService geteilt, damit auch Rating-Änderungen die ETag-Versionen weiterzählen.
+    public void setMediaVersions(MediaVersions mediaVersions) {
+        this.mediaVersions = Objects.requireNonNull(mediaVersions, "mediaVersions must not be null");
+    }
+
+    public SearchResultCache getSearchCache() {
+        return searchCache;
+    }
+
+    public void setSearchCache(SearchResultCache searchCache) {
+        this.searchCache = Objects.requireNonNull(searchCache, "searchCache must not be null");
+    }
+
+    public ItemSimilarityIndex getSimilarityIndex() {
+        return similarityIndex;
+    }
+
+    public void setSimilarityIndex(ItemSimilarityIndex similarityIndex) {
+        this.similarityIndex = Objects.requireNonNull(similarityIndex, "similarityIndex must not be null");
+    }
+
+    public MediaAttributeIndex getAttributeIndex() {
+        return attributeIndex;
+    }
+
+    public void setAttributeIndex(MediaAttributeIndex attributeIndex) {
+        this.attributeIndex = Objects.requireNonNull(attributeIndex, "attributeIndex must not be null");
+    }
+
+    public ParallelScorer getScorer() {
+        return scorer;
+    }
+
+    // Bewertet Empfehlungskandidaten, ab einer Kataloggröße parallel auf einem eigenen Pool.
+    public void setScorer(ParallelScorer scorer) {
+        this.scorer = Objects.requireNonNull(scorer, "scorer must not be null");
+    }
+
+    public TitleSuggestionIndex getTitleIndex() {
+        return titleIndex;
+    }
+
+    public void setTitleIndex(TitleSuggestionIndex titleIndex) {
+        this.titleIndex = Objects.requireNonNull(titleIndex, "titleIndex must not be null");
+    }
+}
@@ -0,0 +1,65 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.models.Rating;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Änderungszähler je Medium und für den gesamten Katalog. Jeder Schreibvorgang, der Detail- oder Suchantworten
+// verändert (Medium, Ratings, Likes, Favoriten), erhöht den Zähler; daraus entstehen die ETags der Media-Endpunkte.
+// Die Zähler liegen im Speicher: Eine Epoche pro Prozess sorgt dafür, dass nach einem Neustart alte ETags nicht mehr passen.
+public class MediaVersions implements RatingEventListener {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final Map<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    // Versionskennung eines Mediums; muss vor dem Laden der Daten gelesen werden, damit ein ETag nie neuer ist als sein Inhalt.
+    public String mediaVersion(int mediaId) {
+        AtomicLong version = versions.get(mediaId);
+        return epoch + "-" + (version != null ? version.get() : 0L);
+    }
+
+    // Versionskennung des gesamten Katalogs (für Suchergebnisse).
+    public String catalogVersion() {
+        return epoch + "-" + catalogVersion.get();
+    }
+
+    // Gelöschte Medien behalten ihren Zähler, sonst könnte eine alte Version wieder gültig werden.
+    public void mediaChanged(int mediaId) {
+        versions.computeIfAbsent(mediaId, id -> new AtomicLong()).incrementAndGet();
+        catalogVersion.incrementAndGet();
+    }
+
+    // Neue Medien haben noch keine Detail-Clients, verändern aber Suchergebnisse.
+    public void catalogChanged() {
+        catalogVersion.incrementAndGet();
+    }
+
+    @Override
+    public void ratingCreated(Rating rating) {
+        mediaChanged(rating.getMediaId());
+    }
+
+    @Override
+    public void ratingUpdated(Rating previous, Rating updated) {
+        mediaChanged(updated.getMediaId());
+    }
+
+    @Override
+    public void ratingDeleted(Rating rating) {
+        mediaChanged(rating.getMediaId());
+    }
+
+    @Override
+    public void ratingLikesChanged(Rating rating) {
+        mediaChanged(rating.getMediaId());
+    }
+
+    @Override
+    public void commentConfirmed(Rating rating) {
+        mediaChanged(rating.getMediaId());
+    }
+}
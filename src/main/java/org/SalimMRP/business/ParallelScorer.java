@@ -0,0 +1,149 @@
+package org.SalimMRP.business;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Bewertet Kandidatenlisten und liefert die k besten. Ab einer Mindestgröße wird die Liste in Abschnitte geteilt,
+// die auf einem eigenen Fork/Join-Pool parallel bewertet werden; jeder Abschnitt hält nur seine lokalen Top-k,
+// die am Ende zusammengeführt werden. Der eigene Pool (nicht der Common Pool) begrenzt die CPU, die viele
+// gleichzeitige Empfehlungen den Request-Threads wegnehmen können.
+public class ParallelScorer implements AutoCloseable {
+
+    // Kleinere Abschnitte lohnen den Aufwand für Aufteilen und Zusammenführen nicht.
+    private static final int MIN_PARTITION_SIZE = 1_024;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final LongAdder parallelRuns = new LongAdder();
+    private final LongAdder sequentialRuns = new LongAdder();
+
+    // Bewertet immer auf dem aufrufenden Thread.
+    public static ParallelScorer sequential() {
+        return new ParallelScorer(null, Integer.MAX_VALUE);
+    }
+
+    // Listen ab parallelThreshold Einträgen werden auf threads Worker-Threads verteilt.
+    public ParallelScorer(int threads, int parallelThreshold) {
+        this(newPool(threads), parallelThreshold);
+    }
+
+    private ParallelScorer(ForkJoinPool pool, int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("parallelThreshold must be at least 1");
+        }
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    // scorer liefert für übersprungene Einträge null; order sortiert die besten Ergebnisse nach vorne.
+    // Der scorer muss threadsicher sein, da er im parallelen Modus gleichzeitig aufgerufen wird.
+    public <M, T> List<T> topK(List<M> items,
+                               Function<? super M, ? extends T> scorer,
+                               int k,
+                               Comparator<? super T> order) {
+        Objects.requireNonNull(items, "items must not be null");
+        Objects.requireNonNull(scorer, "scorer must not be null");
+        Objects.requireNonNull(order, "order must not be null");
+        if (pool == null || items.size() < parallelThreshold) {
+            sequentialRuns.increment();
+            return ParallelScorer.<M, T>score(items, 0, items.size(), scorer, k, order).toList();
+        }
+        parallelRuns.increment();
+        int partitionSize = Math.max(MIN_PARTITION_SIZE, items.size() / (pool.getParallelism() * 4));
+        return pool.invoke(new Partition<M, T>(items, 0, items.size(), partitionSize, scorer, k, order)).toList();
+    }
+
+    public ParallelScoringMetrics metrics() {
+        return new ParallelScoringMetrics(pool != null ? pool.getParallelism() : 0,
+                parallelThreshold,
+                pool != null ? pool.getActiveThreadCount() : 0,
+                parallelRuns.sum(),
+                sequentialRuns.sum());
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static <M, T> TopK<T> score(List<M> items,
+                                        int from,
+                                        int to,
+                                        Function<? super M, ? extends T> scorer,
+                                        int k,
+                                        Comparator<? super T> order) {
+        TopK<T> best = new TopK<>(k, order);
+        for (int i = from; i < to; i++) {
+            T scored = scorer.apply(items.get(i));
+            if (scored != null) {
+                best.offer(scored);
+            }
+        }
+        return best;
+    }
+
+    private static ForkJoinPool newPool(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("recommendation-scorer-" + counter.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    // Teilt den Bereich [from, to), bis er höchstens partitionSize Einträge hat, und führt die lokalen Top-k zusammen.
+    // ForkJoinTask ist Serializable, eine Partition wird aber nie serialisiert; Liste, scorer und order sind daher transient.
+    private static final class Partition<M, T> extends RecursiveTask<TopK<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<M> items;
+        private final int from;
+        private final int to;
+        private final int partitionSize;
+        private final transient Function<? super M, ? extends T> scorer;
+        private final int k;
+        private final transient Comparator<? super T> order;
+
+        private Partition(List<M> items,
+                          int from,
+                          int to,
+                          int partitionSize,
+                          Function<? super M, ? extends T> scorer,
+                          int k,
+                          Comparator<? super T> order) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.partitionSize = partitionSize;
+            this.scorer = scorer;
+            this.k = k;
+            this.order = order;
+        }
+
+        @Override
+        protected TopK<T> compute() {
+            if (to - from <= partitionSize) {
+                return ParallelScorer.<M, T>score(items, from, to, scorer, k, order);
+            }
+            int middle = (from + to) >>> 1;
+            Partition<M, T> left = new Partition<>(items, from, middle, partitionSize, scorer, k, order);
+            Partition<M, T> right = new Partition<>(items, middle, to, partitionSize, scorer, k, order);
+            left.fork();
+            TopK<T> best = right.compute();
+            best.merge(left.join());
+            return best;
+        }
+    }
+}
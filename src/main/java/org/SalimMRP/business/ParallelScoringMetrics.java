@@ -0,0 +1,10 @@
+package org.SalimMRP.business;
+
+// Kennzahlen der Kandidatenbewertung: Worker-Threads (0 = nur sequenziell), Schwelle für den parallelen Modus,
+// gerade aktive Worker sowie bisherige parallele und sequenzielle Läufe.
+public record ParallelScoringMetrics(int parallelism,
+                                     int parallelThreshold,
+                                     int activeThreads,
+                                     long parallelRuns,
+                                     long sequentialRuns) {
+}
@@ -3,7 +3,8 @@ package org.SalimMRP.business;
 import org.SalimMRP.business.dto.LeaderboardEntry;
 import org.SalimMRP.business.dto.MediaDetails;
 import org.SalimMRP.business.dto.UserProfile;
-import org.SalimMRP.persistence.models.Rating;
+import org.SalimMRP.persistence.RatingCursor;
+import org.SalimMRP.persistence.RatingPage;
 
 import java.util.List;
 
@@ -12,7 +13,8 @@ public interface ProfileService {
 
     UserProfile buildProfile(int userId);
 
-    List<Rating> ratingHistory(int userId);
+    // Rating-Historie seitenweise, neueste zuerst; after = null liefert die erste Seite.
+    RatingPage ratingHistory(int userId, RatingCursor after, int limit);
 
     List<MediaDetails> favoriteMedia(int userId);
 
@@ -0,0 +1,25 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.models.Rating;
+
+// Wird vom DefaultRatingService nach erfolgreichen Schreibvorgängen benachrichtigt,
+// damit Caches und abgeleitete Daten aktuell bleiben. Alle Methoden sind optional.
+public interface RatingEventListener {
+
+    default void ratingCreated(Rating rating) {
+    }
+
+    // previous enthält den Stand vor der Änderung, updated den gespeicherten neuen Stand.
+    default void ratingUpdated(Rating previous, Rating updated) {
+    }
+
+    default void ratingDeleted(Rating rating) {
+    }
+
+    // Ein Like wurde gesetzt oder entfernt; rating ist der Stand vor der Änderung.
+    default void ratingLikesChanged(Rating rating) {
+    }
+
+    default void commentConfirmed(Rating rating) {
+    }
+}
@@ -1,21 +1,22 @@
 package org.SalimMRP.business;
 
+import org.SalimMRP.persistence.RatingCursor;
+import org.SalimMRP.persistence.RatingPage;
 import org.SalimMRP.persistence.models.Rating;
 
-import java.util.List;
-
 // Service-Schnittstelle für die Bewertung von Medien inklusive Moderation und Likes.
 public interface RatingService {
 
     Rating createRating(Rating rating);
 
-    List<Rating> getRatingsForMedia(int mediaId);
+    // Ratings eines Mediums seitenweise, neueste zuerst; after = null liefert die erste Seite.
+    RatingPage getRatingsForMedia(int mediaId, RatingCursor after, int limit);
 
     Rating getRatingById(int id);
 
     Rating getUserRatingForMedia(int mediaId, int userId);
 
-    List<Rating> getRatingsByUser(int userId);
+    RatingPage getRatingsByUser(int userId, RatingCursor after, int limit);
 
     boolean updateRating(Rating rating, int userId);
 
@@ -0,0 +1,9 @@
+package org.SalimMRP.business;
+
+// Kennzahlen des Suchergebnis-Caches: Einträge, Obergrenze, Treffer, Fehlschläge und verworfene Einträge.
+public record SearchCacheMetrics(int entries,
+                                 int maxEntries,
+                                 long hits,
+                                 long misses,
+                                 long invalidations) {
+}
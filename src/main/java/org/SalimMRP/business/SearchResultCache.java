@@ -0,0 +1,208 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.MediaSearchCriteria;
+import org.SalimMRP.persistence.PageRequest;
+import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.Rating;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+
+// Merkt sich Suchergebnisse je normalisierter Suchanfrage (Filter, Sortierung, Seite), begrenzt nach Anzahl (LRU)
+// und Alter. Gespeichert werden nur die für alle Benutzer gleichen Teile; die Favoriten-Markierung setzt der
+// MediaService nach dem Nachschlagen. Schreibvorgänge verwerfen nur die Einträge, deren Ergebnis sich ändern kann.
+public class SearchResultCache implements RatingEventListener {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final MediaAttributeIndex attributeIndex;
+    private final Map<Key, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private long generation;
+
+    // Über attributeIndex wird bei Rating-Ereignissen nachgeschlagen, welche Filter das bewertete Medium erfüllt.
+    public SearchResultCache(int maxEntries, Duration ttl, MediaAttributeIndex attributeIndex) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        Objects.requireNonNull(ttl, "ttl must not be null");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.attributeIndex = Objects.requireNonNull(attributeIndex, "attributeIndex must not be null");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > SearchResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    // Liefert die gemerkten Treffer oder null. Die Liste ist unveränderlich und wird zwischen Benutzern geteilt.
+    public synchronized List<CachedMedia> get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null || System.nanoTime() - entry.cachedAt > ttlNanos) {
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.results;
+    }
+
+    // Stand der Invalidierungen; vor der Datenbankabfrage lesen und an put übergeben.
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // Wurde seit generation etwas invalidiert, kann das Ergebnis schon veraltet sein und wird nicht gespeichert.
+    public synchronized void put(Key key, List<CachedMedia> results, long generation) {
+        if (generation != this.generation) {
+            return;
+        }
+        List<CachedMedia> copy = List.copyOf(results);
+        Set<Integer> ids = copy.stream()
+                .map(cached -> cached.media().getId())
+                .collect(Collectors.toUnmodifiableSet());
+        entries.put(Objects.requireNonNull(key, "key must not be null"), new Entry(copy, ids, System.nanoTime()));
+    }
+
+    // Ein neues Medium kann jede Suche verändern, deren Filter es erfüllt (auch auf späteren Seiten).
+    public synchronized void mediaCreated(Media media) {
+        invalidateIf((key, entry) -> key.matchesFilters(media));
+    }
+
+    // previous ist der Stand vor der Änderung (null, wenn unbekannt); betroffen sind Suchen, die das Medium enthielten
+    // oder deren Filter der alte bzw. neue Stand erfüllt.
+    public synchronized void mediaUpdated(Media previous, Media updated) {
+        invalidateIf((key, entry) -> entry.mediaIds.contains(updated.getId())
+                || key.matchesFilters(updated)
+                || previous == null
+                || key.matchesFilters(previous));
+    }
+
+    // Betroffen sind alle Suchen, deren Filter das Medium erfüllt: Enthaltene Einträge fehlen danach,
+    // auf späteren Seiten rücken andere nach.
+    public synchronized void mediaDeleted(Media media) {
+        invalidateIf((key, entry) -> entry.mediaIds.contains(media.getId()) || key.matchesFilters(media));
+    }
+
+    // Nur die Favoritenanzahl der enthaltenen Einträge ändert sich, nicht die Trefferliste.
+    public synchronized void favoritesChanged(int mediaId) {
+        invalidateIf((key, entry) -> entry.mediaIds.contains(mediaId));
+    }
+
+    // Ratings ändern Durchschnitt und Anzahl der enthaltenen Einträge; bei Suchen mit Mindestbewertung oder
+    // Sortierung nach Score kann sich zusätzlich die Trefferliste verschieben, aber nur, wenn das Medium die übrigen
+    // Filter erfüllt. Ist das Medium nicht (mehr) im Index, werden vorsichtshalber alle solchen Suchen verworfen.
+    public void ratingsChanged(int mediaId) {
+        Media media = attributeIndex.media(mediaId);
+        synchronized (this) {
+            invalidateIf((key, entry) -> entry.mediaIds.contains(mediaId)
+                    || key.dependsOnRatings() && (media == null || key.matchesFilters(media)));
+        }
+    }
+
+    @Override
+    public void ratingCreated(Rating rating) {
+        ratingsChanged(rating.getMediaId());
+    }
+
+    @Override
+    public void ratingUpdated(Rating previous, Rating updated) {
+        ratingsChanged(updated.getMediaId());
+    }
+
+    @Override
+    public void ratingDeleted(Rating rating) {
+        ratingsChanged(rating.getMediaId());
+    }
+
+    public synchronized SearchCacheMetrics metrics() {
+        return new SearchCacheMetrics(entries.size(), maxEntries, hits.sum(), misses.sum(), invalidations.sum());
+    }
+
+    private void invalidateIf(BiPredicate<Key, Entry> affected) {
+        generation++;
+        entries.entrySet().removeIf(entry -> {
+            boolean remove = affected.test(entry.getKey(), entry.getValue());
+            if (remove) {
+                invalidations.increment();
+            }
+            return remove;
+        });
+    }
+
+    // Ein Treffer ohne benutzerbezogene Angaben.
+    public record CachedMedia(Media media, double averageRating, int ratingCount, int favoritesCount) {
+    }
+
+    // Normalisierte Suchanfrage: Schreibweisen, die die Datenbank gleich behandelt, ergeben denselben Schlüssel.
+    public record Key(String titleQuery,
+                      String mediaType,
+                      String genre,
+                      Integer releaseYear,
+                      String ageRestriction,
+                      Double minimumRating,
+                      MediaSearchCriteria.SortField sortField,
+                      MediaSearchCriteria.SortDirection sortDirection,
+                      int offset,
+                      int limit) {
+
+        public static Key of(MediaSearchCriteria criteria, PageRequest page) {
+            return new Key(
+                    criteria.getTitleQuery() == null ? null : criteria.getTitleQuery().toLowerCase(),
+                    normalize(criteria.getMediaType()),
+                    normalize(criteria.getGenre()),
+                    criteria.getReleaseYear(),
+                    normalize(criteria.getAgeRestriction()),
+                    criteria.getMinimumRating(),
+                    criteria.getSortField(),
+                    criteria.getSortDirection(),
+                    page.offset(),
+                    page.limit());
+        }
+
+        boolean dependsOnRatings() {
+            return minimumRating != null || sortField == MediaSearchCriteria.SortField.SCORE;
+        }
+
+        // Prüft die Filter wie die SQL-Abfrage, ohne die Mindestbewertung (die ändert sich nur über Ratings).
+        boolean matchesFilters(Media media) {
+            if (titleQuery != null
+                    && (media.getTitle() == null || !media.getTitle().toLowerCase().contains(titleQuery))) {
+                return false;
+            }
+            if (mediaType != null && !mediaType.equals(normalize(media.getMediaType()))) {
+                return false;
+            }
+            if (genre != null && media.getGenres().stream().map(Key::normalize).noneMatch(genre::equals)) {
+                return false;
+            }
+            if (releaseYear != null && !releaseYear.equals(media.getReleaseYear())) {
+                return false;
+            }
+            return ageRestriction == null || ageRestriction.equals(normalize(media.getAgeRestriction()));
+        }
+
+        private static String normalize(String value) {
+            return value == null ? null : value.trim().toLowerCase();
+        }
+    }
+
+    private record Entry(List<CachedMedia> results, Set<Integer> mediaIds, long cachedAt) {
+    }
+}
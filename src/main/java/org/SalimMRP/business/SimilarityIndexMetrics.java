@@ -0,0 +1,11 @@
+package org.SalimMRP.business;
+
+// Kennzahlen des Ähnlichkeitsindex: Medien mit Nachbarliste, erfasste Benutzer, gemeinsam bewertete Paare,
+// die Länge der Nachbarlisten, die berücksichtigten Ratings je Benutzer und noch ausstehende Neuberechnungen.
+public record SimilarityIndexMetrics(int mediaWithNeighbors,
+                                     int users,
+                                     long coRatedPairs,
+                                     int neighborsPerMedia,
+                                     int maxRatingsPerUser,
+                                     int pendingRefreshes) {
+}
@@ -0,0 +1,10 @@
+package org.SalimMRP.business;
+
+// Kennzahlen des Titelindex: indexierte Titel, N-Gramme, noch aufzufüllende Bestenlisten, bisherige Abfragen und
+// Abfragen mit überschrittenem Zeitbudget.
+public record TitleIndexMetrics(int titles,
+                                int grams,
+                                int pendingRefills,
+                                long queries,
+                                long budgetExceeded) {
+}
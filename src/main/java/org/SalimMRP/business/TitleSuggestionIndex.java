@@ -0,0 +1,483 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.Rating;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// N-Gramm-Index über die Medientitel für Typeahead-Vorschläge. Jeder normalisierte Titel wird in alle Teilstrings
+// der Länge 1 bis 3 zerlegt; jedes N-Gramm zeigt auf eine sortierte Liste von Media-IDs. Suchbegriffe bis drei Zeichen
+// sind damit ein einziger Nachschlag, längere werden über die Schnittmenge ihrer Trigramme gefunden und nur für diese
+// Kandidaten per contains bestätigt, statt jeden Titel zu durchsuchen.
+// Gereiht wird nach Titelanfang vor Wortanfang vor sonstigem Treffer, danach nach Popularität (Anzahl Ratings).
+// Für kurze Suchbegriffe (ein N-Gramm) wird je N-Gramm die fertig gereihte Bestenliste vorgehalten und bei Medien-
+// und Rating-Ereignissen fortgeschrieben; die Abfrage liest nur deren Anfang, statt die ganze Liste zu bewerten.
+// Die Liste hält eine Reserve über die abgefragte Länge hinaus. Ein Schreibvorgang sortiert nur innerhalb der Liste
+// um; fällt ein Eintrag aus ihr heraus, schrumpft sie. Erst wenn sie kürzer als TOP_PER_GRAM wird, füllt ein
+// Hintergrund-Thread sie aus der Postings-Liste auf; bis dahin bewertet die Abfrage die Postings-Liste selbst.
+// Jede Abfrage hat ein festes Zeitbudget; ist es aufgebraucht, werden die bis dahin besten Treffer geliefert.
+public class TitleSuggestionIndex implements RatingEventListener {
+
+    private static final int MAX_GRAM = 3;
+    private static final int MAX_QUERY_LENGTH = 100;
+    // Die Uhr wird nur alle paar Kandidaten gelesen; System.nanoTime ist dafür zu teuer.
+    private static final int BUDGET_CHECK_INTERVAL = 64;
+    // Länge der vorgehaltenen Bestenliste je N-Gramm; größere limit-Werte bewerten die ganze Liste.
+    private static final int TOP_PER_GRAM = 20;
+    // Mit Reserve vorgehaltene Länge, damit nicht jedes herausfallende Medium ein Auffüllen auslöst.
+    private static final int KEPT_PER_GRAM = 2 * TOP_PER_GRAM;
+    private static final Match[] NO_MATCHES = new Match[0];
+    // Bester Treffer zuerst: Position (Titel-, Wortanfang, sonst), Popularität, Titel, ID.
+    private static final Comparator<Match> MATCH_ORDER = Comparator
+            .comparingInt(Match::position)
+            .thenComparing(Comparator.comparingInt(Match::popularity).reversed())
+            .thenComparing(Match::title)
+            .thenComparingInt(match -> match.media().getId());
+
+    private final long budgetNanos;
+    private final Executor refiller;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, Integer> popularity = new HashMap<>();
+    // Bestenliste je N-Gramm in MATCH_ORDER: immer genau die besten Einträge der Postings-Liste, aber
+    // eventuell kürzer als KEPT_PER_GRAM, wenn Einträge herausgefallen sind.
+    private final Map<String, Match[]> topMatches = new HashMap<>();
+    // N-Gramme mit zu kurzer Bestenliste, die der refiller auffüllt; alles nur unter der Schreibsperre.
+    private final Set<String> staleGrams = new LinkedHashSet<>();
+    private boolean refillScheduled;
+    private String refilling;
+    private boolean refillInvalidated;
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder budgetExceeded = new LongAdder();
+
+    private record Entry(Media media, String title) {
+    }
+
+    private record Match(Media media, String title, int position, int popularity) {
+    }
+
+    // Aufgefüllt wird auf einem eigenen Daemon-Thread, der sich nach einer Ruhepause beendet.
+    public TitleSuggestionIndex(Duration budget) {
+        this(budget, newRefiller());
+    }
+
+    // refiller füllt zu kurze Bestenlisten auf; Runnable::run füllt sofort im schreibenden Thread auf.
+    public TitleSuggestionIndex(Duration budget, Executor refiller) {
+        Objects.requireNonNull(budget, "budget must not be null");
+        if (budget.isNegative() || budget.isZero()) {
+            throw new IllegalArgumentException("budget must be positive");
+        }
+        this.budgetNanos = budget.toNanos();
+        this.refiller = Objects.requireNonNull(refiller, "refiller must not be null");
+    }
+
+    // ratingCounts: Anzahl Ratings je Media-ID als Startwert der Popularität.
+    public void rebuild(Collection<Media> mediaList, Map<Integer, Integer> ratingCounts) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            postings.clear();
+            popularity.clear();
+            topMatches.clear();
+            staleGrams.clear();
+            refillInvalidated = true;
+            popularity.putAll(ratingCounts);
+            // Nach ID sortiert hängt jedes Einfügen nur hinten an die Listen an, statt das Array zu verschieben.
+            List<Media> sorted = new ArrayList<>(mediaList);
+            sorted.sort(Comparator.comparingInt(Media::getId));
+            for (Media media : sorted) {
+                index(media);
+            }
+            for (String gram : postings.keySet()) {
+                topMatches.put(gram, computeTop(gram));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void mediaCreated(Media media) {
+        lock.writeLock().lock();
+        try {
+            add(media);
+            scheduleRefill();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void mediaUpdated(Media media) {
+        lock.writeLock().lock();
+        try {
+            remove(media.getId());
+            add(media);
+            scheduleRefill();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void mediaDeleted(int mediaId) {
+        lock.writeLock().lock();
+        try {
+            remove(mediaId);
+            popularity.remove(mediaId);
+            scheduleRefill();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void ratingCreated(Rating rating) {
+        changePopularity(rating.getMediaId(), 1);
+    }
+
+    @Override
+    public void ratingDeleted(Rating rating) {
+        changePopularity(rating.getMediaId(), -1);
+    }
+
+    // Die besten limit Medien, deren Titel den Suchbegriff enthält (Groß-/Kleinschreibung egal).
+    public List<Media> suggest(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || normalized.length() > MAX_QUERY_LENGTH || limit < 1) {
+            return List.of();
+        }
+        queries.increment();
+        long deadline = System.nanoTime() + budgetNanos;
+        TopK<Match> best = new TopK<>(limit, MATCH_ORDER);
+
+        lock.readLock().lock();
+        try {
+            // Ein einzelnes N-Gramm: die vorgehaltene Bestenliste ist bereits richtig gereiht, sofern sie lang
+            // genug ist oder die ganze Postings-Liste enthält.
+            if (normalized.length() <= MAX_GRAM && limit <= TOP_PER_GRAM) {
+                Match[] top = topMatches.getOrDefault(normalized, NO_MATCHES);
+                Postings list = postings.get(normalized);
+                if (top.length >= limit || list == null || top.length == list.size) {
+                    return Arrays.stream(top, 0, Math.min(limit, top.length))
+                            .map(Match::media)
+                            .toList();
+                }
+            }
+            List<Postings> lists = postingsFor(normalized);
+            if (lists.isEmpty()) {
+                return List.of();
+            }
+            // Die kürzeste Liste wird durchlaufen, die übrigen nur per binärer Suche geprüft.
+            Postings shortest = lists.get(0);
+            boolean verify = normalized.length() > MAX_GRAM;
+            for (int i = 0; i < shortest.size; i++) {
+                if (i % BUDGET_CHECK_INTERVAL == BUDGET_CHECK_INTERVAL - 1 && System.nanoTime() > deadline) {
+                    budgetExceeded.increment();
+                    break;
+                }
+                int id = shortest.ids[i];
+                if (!containedInAll(lists, id)) {
+                    continue;
+                }
+                Entry entry = entries.get(id);
+                int position = entry.title().indexOf(normalized);
+                if (verify && position < 0) {
+                    continue;
+                }
+                best.offer(new Match(entry.media(), entry.title(), rank(entry.title(), normalized, position),
+                        popularity.getOrDefault(id, 0)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return best.toList().stream()
+                .map(Match::media)
+                .toList();
+    }
+
+    public TitleIndexMetrics metrics() {
+        lock.readLock().lock();
+        try {
+            return new TitleIndexMetrics(entries.size(), postings.size(), staleGrams.size(), queries.sum(),
+                    budgetExceeded.sum());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Berechnet die Bestenliste eines N-Gramms aus seiner ganzen Postings-Liste; null, wenn es das N-Gramm nicht gibt.
+    private Match[] computeTop(String gram) {
+        Postings list = postings.get(gram);
+        if (list == null) {
+            return null;
+        }
+        TopK<Match> best = new TopK<>(KEPT_PER_GRAM, MATCH_ORDER);
+        for (int i = 0; i < list.size; i++) {
+            best.offer(matchFor(list.ids[i], gram));
+        }
+        return best.toList().toArray(Match[]::new);
+    }
+
+    private Match matchFor(int mediaId, String gram) {
+        Entry entry = entries.get(mediaId);
+        return new Match(entry.media(), entry.title(), rank(entry.title(), gram, entry.title().indexOf(gram)),
+                popularity.getOrDefault(mediaId, 0));
+    }
+
+    // Schreibt die Bestenlisten aller N-Gramme eines Titels fort, ohne die Postings-Listen zu durchlaufen. Die
+    // übrigen Einträge einer Liste bleiben die besten der übrigen Medien; das geänderte Medium wird nur wieder
+    // einsortiert, wenn es vor dem letzten von ihnen liegt oder kein Medium außerhalb der Liste steht. Sonst
+    // schrumpft die Liste, und ist sie zu kurz, wird das N-Gramm zum Auffüllen vorgemerkt.
+    private void updateTopMatches(String title, int mediaId) {
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (String gram : gramsOf(title, length)) {
+                if (gram.equals(refilling)) {
+                    refillInvalidated = true;
+                }
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    topMatches.remove(gram);
+                    staleGrams.remove(gram);
+                    continue;
+                }
+                List<Match> others = new ArrayList<>(KEPT_PER_GRAM + 1);
+                for (Match match : topMatches.getOrDefault(gram, NO_MATCHES)) {
+                    if (match.media().getId() != mediaId) {
+                        others.add(match);
+                    }
+                }
+                boolean indexed = entries.containsKey(mediaId) && list.contains(mediaId);
+                int unlisted = list.size - others.size() - (indexed ? 1 : 0);
+                if (indexed) {
+                    Match current = matchFor(mediaId, gram);
+                    if (unlisted == 0
+                            || !others.isEmpty() && MATCH_ORDER.compare(current, others.get(others.size() - 1)) < 0) {
+                        int at = 0;
+                        while (at < others.size() && MATCH_ORDER.compare(others.get(at), current) < 0) {
+                            at++;
+                        }
+                        others.add(at, current);
+                    }
+                }
+                Match[] top = others.stream().limit(KEPT_PER_GRAM).toArray(Match[]::new);
+                topMatches.put(gram, top);
+                if (top.length < TOP_PER_GRAM && top.length < list.size) {
+                    staleGrams.add(gram);
+                }
+            }
+        }
+    }
+
+    private void scheduleRefill() {
+        if (!refillScheduled && !staleGrams.isEmpty()) {
+            refillScheduled = true;
+            refiller.execute(this::refillStale);
+        }
+    }
+
+    // Füllt die vorgemerkten Listen einzeln auf. Gerechnet wird unter der Lesesperre, damit Abfragen weiterlaufen;
+    // hat ein Schreibvorgang das N-Gramm inzwischen berührt, wird das Ergebnis verworfen und neu gerechnet.
+    private void refillStale() {
+        while (true) {
+            String gram;
+            lock.writeLock().lock();
+            try {
+                if (staleGrams.isEmpty()) {
+                    refillScheduled = false;
+                    return;
+                }
+                gram = staleGrams.iterator().next();
+                refilling = gram;
+                refillInvalidated = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Match[] top;
+            lock.readLock().lock();
+            try {
+                top = computeTop(gram);
+            } finally {
+                lock.readLock().unlock();
+            }
+            lock.writeLock().lock();
+            try {
+                if (!refillInvalidated) {
+                    staleGrams.remove(gram);
+                    if (top != null) {
+                        topMatches.put(gram, top);
+                    } else {
+                        topMatches.remove(gram);
+                    }
+                }
+                refilling = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static Executor newRefiller() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "title-index-refill");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Listen für den Suchbegriff, kürzeste zuerst; leer, wenn ein N-Gramm in keinem Titel vorkommt.
+    private List<Postings> postingsFor(String normalized) {
+        Set<String> needed = normalized.length() <= MAX_GRAM ? Set.of(normalized) : gramsOf(normalized, MAX_GRAM);
+        List<Postings> lists = new ArrayList<>(needed.size());
+        for (String gram : needed) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        return lists;
+    }
+
+    private static boolean containedInAll(List<Postings> lists, int id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 0 = Titelanfang, 1 = ein Treffer beginnt ein Wort, 2 = nur Treffer mitten im Wort.
+    private static int rank(String title, String query, int position) {
+        if (position == 0) {
+            return 0;
+        }
+        for (int at = position; at >= 0; at = title.indexOf(query, at + 1)) {
+            if (!Character.isLetterOrDigit(title.charAt(at - 1))) {
+                return 1;
+            }
+        }
+        return 2;
+    }
+
+    private void changePopularity(int mediaId, int delta) {
+        lock.writeLock().lock();
+        try {
+            int count = Math.max(0, popularity.getOrDefault(mediaId, 0) + delta);
+            popularity.put(mediaId, count);
+            Entry entry = entries.get(mediaId);
+            if (entry != null) {
+                updateTopMatches(entry.title(), mediaId);
+            }
+            scheduleRefill();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Media media) {
+        remove(media.getId());
+        String title = index(media);
+        if (title != null) {
+            updateTopMatches(title, media.getId());
+        }
+    }
+
+    // Nimmt den Titel in die Postings-Listen auf, ohne die Bestenlisten anzufassen; liefert den normalisierten Titel.
+    private String index(Media media) {
+        if (media.getId() <= 0 || media.getTitle() == null) {
+            return null;
+        }
+        String title = normalize(media.getTitle());
+        entries.put(media.getId(), new Entry(media, title));
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (String gram : gramsOf(title, length)) {
+                postings.computeIfAbsent(gram, key -> new Postings()).add(media.getId());
+            }
+        }
+        return title;
+    }
+
+    private void remove(int mediaId) {
+        Entry entry = entries.remove(mediaId);
+        if (entry == null) {
+            return;
+        }
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (String gram : gramsOf(entry.title(), length)) {
+                Postings list = postings.get(gram);
+                if (list != null && list.remove(mediaId) && list.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        updateTopMatches(entry.title(), mediaId);
+    }
+
+    private static Set<String> gramsOf(String text, int length) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + length <= text.length(); i++) {
+            grams.add(text.substring(i, i + length));
+        }
+        return grams;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
+    // Aufsteigend sortierte Media-IDs eines N-Gramms. Einfügen und Entfernen verschieben das Array (seltene
+    // Schreibvorgänge; beim Neuaufbau wird nach ID sortiert angehängt), die Prüfung beim Lesen ist eine binäre Suche.
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.SalimMRP.business;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+// Behält beim Durchlaufen nur die k besten Elemente in einem begrenzten Heap: O(n log k) statt eines
+// vollständigen Sortierens in O(n log n). order sortiert die besten Elemente nach vorne.
+// Nicht threadsicher; parallele Läufe füllen je eine eigene Instanz und führen sie mit merge zusammen.
+final class TopK<T> {
+
+    private final int k;
+    private final Comparator<? super T> order;
+    // Das schlechteste behaltene Element liegt oben und wird als Erstes verdrängt.
+    private final PriorityQueue<T> heap;
+
+    TopK(int k, Comparator<? super T> order) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        this.k = k;
+        this.order = Objects.requireNonNull(order, "order must not be null");
+        this.heap = new PriorityQueue<>(Math.min(k, 1_024) + 1, order.reversed());
+    }
+
+    void offer(T item) {
+        if (heap.size() < k) {
+            heap.add(item);
+        } else if (order.compare(item, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    void merge(TopK<? extends T> other) {
+        for (T item : other.heap) {
+            offer(item);
+        }
+    }
+
+    // Die behaltenen Elemente, bestes zuerst.
+    List<T> toList() {
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}
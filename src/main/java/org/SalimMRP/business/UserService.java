@@ -13,6 +13,9 @@ public interface UserService {
 
     User getUserByToken(String token);
 
+    // Prüft das Token und liefert den zugehörigen Benutzer oder null; gedacht für jeden geschützten Request.
+    User authenticate(String token);
+
     User findByUsername(String username);
 
     User findById(int id);
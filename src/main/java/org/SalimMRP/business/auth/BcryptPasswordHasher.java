@@ -0,0 +1,88 @@
+package org.SalimMRP.business.auth;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import at.favre.lib.crypto.bcrypt.LongPasswordStrategies;
+
+import java.time.Duration;
+import java.util.Objects;
+
+// Passwort-Hashing mit bcrypt (Salt pro Hash, einstellbarer Kostenfaktor).
+// Hashes eines Altverfahrens (bisher SHA-256) werden weiterhin geprüft und über needsRehash zum Ersetzen gemeldet.
+public class BcryptPasswordHasher implements PasswordHasher {
+
+    static final int MIN_COST = 10;
+    static final int MAX_COST = 16;
+
+    // bcrypt wertet höchstens 72 Bytes aus; längere Passwörter werden wie bei anderen bcrypt-Implementierungen abgeschnitten.
+    private static final BCrypt.Hasher HASHER = BCrypt.with(LongPasswordStrategies.truncate(BCrypt.Version.VERSION_2A));
+    private static final BCrypt.Verifyer VERIFYER =
+            BCrypt.verifyer(BCrypt.Version.VERSION_2A, LongPasswordStrategies.truncate(BCrypt.Version.VERSION_2A));
+
+    private final int cost;
+    private final PasswordHasher legacy;
+
+    public BcryptPasswordHasher(int cost, PasswordHasher legacy) {
+        if (cost < 4 || cost > 31) {
+            throw new IllegalArgumentException("cost must be between 4 and 31");
+        }
+        this.cost = cost;
+        this.legacy = Objects.requireNonNull(legacy, "legacy must not be null");
+    }
+
+    // Misst einen Hash mit MIN_COST und wählt den höchsten Kostenfaktor, der die Zielzeit nicht überschreitet.
+    // Jede Stufe verdoppelt den Aufwand; das Ergebnis liegt zwischen MIN_COST und MAX_COST.
+    public static int calibrateCost(Duration targetLatency) {
+        Objects.requireNonNull(targetLatency, "targetLatency must not be null");
+        char[] sample = "calibration-sample".toCharArray();
+        // Der erste Lauf wärmt JIT und Klassen auf und wird nicht gewertet.
+        HASHER.hashToString(MIN_COST, sample);
+        long start = System.nanoTime();
+        HASHER.hashToString(MIN_COST, sample);
+        long measured = Math.max(1, System.nanoTime() - start);
+
+        int calibrated = MIN_COST;
+        while (calibrated < MAX_COST && measured * 2 <= targetLatency.toNanos()) {
+            measured *= 2;
+            calibrated++;
+        }
+        return calibrated;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String hash(String plainText) {
+        return HASHER.hashToString(cost, plainText.toCharArray());
+    }
+
+    @Override
+    public boolean matches(String plainText, String hash) {
+        if (plainText == null || hash == null) {
+            return false;
+        }
+        if (!isBcrypt(hash)) {
+            return legacy.matches(plainText, hash);
+        }
+        return VERIFYER.verify(plainText.toCharArray(), hash).verified;
+    }
+
+    @Override
+    public boolean needsRehash(String hash) {
+        return hash == null || !isBcrypt(hash) || costOf(hash) < cost;
+    }
+
+    // bcrypt-Hashes haben die Form $2a$12$<salt+hash>.
+    private static boolean isBcrypt(String hash) {
+        return hash.length() == 60 && hash.startsWith("$2") && hash.charAt(3) == '$' && hash.charAt(6) == '$';
+    }
+
+    private static int costOf(String hash) {
+        try {
+            return Integer.parseInt(hash, 4, 6, 10);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
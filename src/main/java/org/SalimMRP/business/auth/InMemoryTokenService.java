@@ -2,15 +2,54 @@ package org.SalimMRP.business.auth;
 
 import com.github.f4b6a3.uuid.UuidCreator;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 // Einfache Token-Verwaltung: Tokens werden im Speicher abgelegt und lassen sich direkt nachschlagen.
-// Für Lernzwecke ausreichend, für den Produktivbetrieb wäre ein dauerhaftes Backend sinnvoll.
+// Tokens laufen nach einer Lebensdauer ab, die sich bei jeder Nutzung verlängert (Sliding Expiration).
+// Zum Aufräumen liegen die Tokens zusätzlich in Zeit-Buckets nach Ablaufzeit; fällig werden nur die ältesten
+// Buckets geprüft, nie die ganze Map. Eine Obergrenze verhindert, dass viele Logins den Speicher füllen.
 public class InMemoryTokenService implements TokenService {
 
-    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+    private static final Duration DEFAULT_TTL = Duration.ofHours(12);
+    private static final int DEFAULT_MAX_TOKENS = 100_000;
+
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    // Bucket-Start (ms) -> Tokens, deren Ablaufzeit beim Einsortieren in diesen Bucket fiel. Zugriff nur synchronisiert.
+    private final TreeMap<Long, List<String>> buckets = new TreeMap<>();
+    private final long ttlMillis;
+    private final long bucketMillis;
+    private final int maxTokens;
+    private final Clock clock;
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private volatile long nextSweepAt;
+
+    public InMemoryTokenService() {
+        this(DEFAULT_TTL, DEFAULT_MAX_TOKENS, Clock.systemUTC());
+    }
+
+    public InMemoryTokenService(Duration ttl, int maxTokens, Clock clock) {
+        Objects.requireNonNull(ttl, "ttl must not be null");
+        if (ttl.toMillis() < 1) {
+            throw new IllegalArgumentException("ttl must be at least 1 ms");
+        }
+        if (maxTokens < 1) {
+            throw new IllegalArgumentException("maxTokens must be at least 1");
+        }
+        this.ttlMillis = ttl.toMillis();
+        // Rund 64 Buckets pro Lebensdauer: Tokens verfallen damit höchstens ~1,5 % der TTL zu spät.
+        this.bucketMillis = Math.max(1, ttlMillis / 64);
+        this.maxTokens = maxTokens;
+        this.clock = Objects.requireNonNull(clock, "clock must not be null");
+    }
 
     @Override
     public String issueToken(String username) {
@@ -18,18 +57,50 @@ public class InMemoryTokenService implements TokenService {
 
         // Das Token wird aus dem Benutzernamen plus einer zeitlich sortierten UUIDv7 gebildet.
         String token = username + "-mrpToken-" + UuidCreator.getTimeOrdered();
-        tokens.put(token, username);
+        long now = clock.millis();
+        Entry entry = new Entry(username, now + ttlMillis);
+
+        synchronized (this) {
+            sweep(now);
+            while (tokens.size() >= maxTokens && !buckets.isEmpty()) {
+                drain(buckets.firstKey(), now, true);
+            }
+            tokens.put(token, entry);
+            bucketFor(entry.expiresAt).add(token);
+        }
         return token;
     }
 
     @Override
     public boolean isValid(String token) {
-        return token != null && tokens.containsKey(token);
+        return resolveUsername(token) != null;
     }
 
+    // Jede erfolgreiche Auflösung verlängert die Lebensdauer; der Bucket wird erst beim Aufräumen angepasst.
     @Override
     public String resolveUsername(String token) {
-        return token == null ? null : tokens.get(token);
+        if (token == null) {
+            return null;
+        }
+        long now = clock.millis();
+        if (now >= nextSweepAt) {
+            synchronized (this) {
+                sweep(now);
+            }
+        }
+
+        Entry entry = tokens.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= now) {
+            if (tokens.remove(token, entry)) {
+                expired.increment();
+            }
+            return null;
+        }
+        entry.expiresAt = now + ttlMillis;
+        return entry.username;
     }
 
     @Override
@@ -38,4 +109,61 @@ public class InMemoryTokenService implements TokenService {
             tokens.remove(token);
         }
     }
+
+    // Anzahl gültiger Tokens sowie bisher abgelaufene bzw. wegen der Obergrenze verdrängte Tokens.
+    public TokenMetrics metrics() {
+        return new TokenMetrics(tokens.size(), maxTokens, expired.sum(), evicted.sum());
+    }
+
+    // Arbeitet alle Buckets ab, deren Zeitraum vollständig vorbei ist.
+    private void sweep(long now) {
+        while (!buckets.isEmpty() && buckets.firstKey() + bucketMillis <= now) {
+            drain(buckets.firstKey(), now, false);
+        }
+        nextSweepAt = buckets.isEmpty() ? now + bucketMillis : buckets.firstKey() + bucketMillis;
+    }
+
+    // Entfernt den Bucket. Verlängerte Tokens wandern in ihren neuen Bucket; die übrigen verfallen.
+    // Mit force werden auch noch gültige, nicht verlängerte Tokens verdrängt, bis die Obergrenze wieder unterschritten ist.
+    private void drain(long bucketStart, long now, boolean force) {
+        List<String> candidates = buckets.remove(bucketStart);
+        for (String token : candidates) {
+            Entry entry = tokens.get(token);
+            if (entry == null) {
+                continue;
+            }
+            long expiresAt = entry.expiresAt;
+            if (expiresAt <= now) {
+                if (tokens.remove(token, entry)) {
+                    expired.increment();
+                }
+            } else if (bucketStartOf(expiresAt) > bucketStart) {
+                bucketFor(expiresAt).add(token);
+            } else if (force && tokens.size() >= maxTokens) {
+                if (tokens.remove(token, entry)) {
+                    evicted.increment();
+                }
+            } else {
+                bucketFor(expiresAt).add(token);
+            }
+        }
+    }
+
+    private List<String> bucketFor(long expiresAt) {
+        return buckets.computeIfAbsent(bucketStartOf(expiresAt), key -> new ArrayList<>());
+    }
+
+    private long bucketStartOf(long expiresAt) {
+        return expiresAt - Math.floorMod(expiresAt, bucketMillis);
+    }
+
+    private static final class Entry {
+        private final String username;
+        private volatile long expiresAt;
+
+        Entry(String username, long expiresAt) {
+            this.username = username;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
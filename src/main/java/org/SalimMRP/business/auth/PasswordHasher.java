@@ -8,4 +8,9 @@ public interface PasswordHasher {
 
     // Vergleicht, ob der Klartext zum gespeicherten Hash passt.
     boolean matches(String plainText, String hash);
+
+    // Gibt an, ob ein passender Hash beim nächsten Login neu berechnet werden sollte (Altverfahren oder zu geringe Kosten).
+    default boolean needsRehash(String hash) {
+        return false;
+    }
 }
@@ -0,0 +1,11 @@
+package org.SalimMRP.business.auth;
+
+// Signalisiert, dass der Hashing-Pool ausgelastet ist und die Anfrage nicht angenommen wurde.
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package org.SalimMRP.business.auth;
+
+// Kennzahlen des Hashing-Pools: Threads, laufende und wartende Aufgaben, erledigte und abgewiesene.
+public record PasswordHashingMetrics(int threads,
+                                     int active,
+                                     int queued,
+                                     int queueCapacity,
+                                     long completed,
+                                     long rejected) {
+}
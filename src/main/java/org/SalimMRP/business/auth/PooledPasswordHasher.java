@@ -0,0 +1,91 @@
+package org.SalimMRP.business.auth;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Führt das (absichtlich teure) Hashing auf einem eigenen, begrenzten Thread-Pool aus.
+// Request-Threads warten nur auf das Ergebnis; bei vielen gleichzeitigen Logins bleibt die CPU-Last
+// auf wenige Threads begrenzt, und eine volle Warteschlange wird sofort mit PasswordHashingBusyException abgewiesen.
+public class PooledPasswordHasher implements PasswordHasher, AutoCloseable {
+
+    private final PasswordHasher delegate;
+    private final ThreadPoolExecutor pool;
+    private final int queueCapacity;
+    private final LongAdder rejected = new LongAdder();
+
+    public PooledPasswordHasher(PasswordHasher delegate, int threads, int queueCapacity) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be at least 1");
+        }
+        this.queueCapacity = queueCapacity;
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String hash(String plainText) {
+        return submit(() -> delegate.hash(plainText));
+    }
+
+    @Override
+    public boolean matches(String plainText, String hash) {
+        return submit(() -> delegate.matches(plainText, hash));
+    }
+
+    // Liest nur den Hash-Kopf und bleibt daher auf dem aufrufenden Thread.
+    @Override
+    public boolean needsRehash(String hash) {
+        return delegate.needsRehash(hash);
+    }
+
+    public PasswordHashingMetrics metrics() {
+        return new PasswordHashingMetrics(pool.getMaximumPoolSize(), pool.getActiveCount(), pool.getQueue().size(),
+                queueCapacity, pool.getCompletedTaskCount(), rejected.sum());
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = pool.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Password hashing queue is full");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.SalimMRP.business.auth;
+
+import org.SalimMRP.persistence.models.User;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Merkt sich zu jedem Token den bereits aufgelösten Benutzer, damit nicht jeder Request die users-Tabelle abfragt.
+// Größe (LRU) und Lebensdauer der Einträge sind begrenzt; die Token-Gültigkeit selbst prüft weiterhin der TokenService.
+public class PrincipalCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    public PrincipalCache(int maxEntries, Duration ttl) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        Objects.requireNonNull(ttl, "ttl must not be null");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > PrincipalCache.this.maxEntries;
+            }
+        };
+    }
+
+    // Liefert den gemerkten Benutzer oder null, wenn keiner (mehr) vorliegt. Der Benutzer darf nicht verändert werden.
+    public synchronized User get(String token) {
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.cachedAt > ttlNanos) {
+            entries.remove(token);
+            return null;
+        }
+        return entry.user;
+    }
+
+    public synchronized void put(String token, User user) {
+        entries.put(Objects.requireNonNull(token, "token must not be null"),
+                new Entry(Objects.requireNonNull(user, "user must not be null"), System.nanoTime()));
+    }
+
+    public synchronized void invalidate(String token) {
+        if (token != null) {
+            entries.remove(token);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(User user, long cachedAt) {
+    }
+}
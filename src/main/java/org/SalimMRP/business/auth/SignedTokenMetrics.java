@@ -0,0 +1,9 @@
+package org.SalimMRP.business.auth;
+
+// Kennzahlen der signierten Tokens: Einträge der Sperrliste, deren Obergrenze, wegen voller Liste abgelehnte Sperren
+// und abgewiesene Tokens.
+public record SignedTokenMetrics(int revokedTokens,
+                                 int maxRevokedTokens,
+                                 long refusedRevocations,
+                                 long rejectedTokens) {
+}
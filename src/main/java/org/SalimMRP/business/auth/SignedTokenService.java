@@ -0,0 +1,254 @@
+package org.SalimMRP.business.auth;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// Zustandslose Tokens: Benutzer-ID, Ablaufzeit und Benutzername stehen im Token selbst und sind per HMAC-SHA256 signiert.
+// Jede Instanz mit demselben Schlüssel kann sie prüfen, ohne gemeinsamen Speicher (kein Sticky Routing nötig).
+// Format: <userId>.<ablauf in epoch-Sekunden>.<benutzername base64url>.<signatur base64url>
+// Die Prüfung arbeitet direkt auf den Zeichen des Tokens mit wiederverwendeten Puffern; neue Objekte entstehen
+// nur für den zurückgegebenen Benutzernamen.
+public class SignedTokenService implements TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final int SIGNATURE_BYTES = 32;
+    // Länge der Signatur als base64url ohne Padding.
+    private static final int SIGNATURE_CHARS = 43;
+    private static final int MAX_TOKEN_LENGTH = 512;
+    private static final Duration DEFAULT_TTL = Duration.ofHours(12);
+    // Reicht für knapp 14 Logouts pro Minute über die volle Gültigkeitsdauer (12 h); mehr gleichzeitig gesperrte
+    // Tokens werden abgelehnt statt ältere Sperren zu verdrängen.
+    private static final int DEFAULT_MAX_REVOKED = 10_000;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    private final int maxRevoked;
+    private final Clock clock;
+    // Per invalidate zurückgezogene Tokens bis zu ihrem Ablauf (Token -> Ablauf in epoch-Sekunden).
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // Dieselben Einträge nach Ablauf geordnet, damit abgelaufene Sperren ohne Durchlauf der ganzen Liste wegfallen.
+    // Nur unter dem Lock auf revoked verwenden.
+    private final PriorityQueue<Revocation> expiries = new PriorityQueue<>();
+    private final LongAdder refusedRevocations = new LongAdder();
+    // Mac-Instanzen sind nicht threadsicher; statt ThreadLocal (bei virtuellen Threads pro Request neu) ein kleiner Pool.
+    private final Queue<Signer> signers = new ConcurrentLinkedQueue<>();
+    private final LongAdder rejected = new LongAdder();
+
+    public SignedTokenService(byte[] secret) {
+        this(secret, DEFAULT_TTL, DEFAULT_MAX_REVOKED, Clock.systemUTC());
+    }
+
+    // maxRevoked = 0 schaltet die Sperrliste ab; invalidate hat dann keine Wirkung und Tokens gelten bis zum Ablauf.
+    public SignedTokenService(byte[] secret, Duration ttl, int maxRevoked, Clock clock) {
+        Objects.requireNonNull(secret, "secret must not be null");
+        if (secret.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("secret must have at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        Objects.requireNonNull(ttl, "ttl must not be null");
+        if (ttl.getSeconds() < 1) {
+            throw new IllegalArgumentException("ttl must be at least 1 second");
+        }
+        if (maxRevoked < 0) {
+            throw new IllegalArgumentException("maxRevoked must not be negative");
+        }
+        this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.ttlSeconds = ttl.getSeconds();
+        this.maxRevoked = maxRevoked;
+        this.clock = Objects.requireNonNull(clock, "clock must not be null");
+        // Schlägt hier fehl, wenn die JVM kein HmacSHA256 kennt, statt erst beim ersten Login.
+        signers.offer(newSigner());
+    }
+
+    // Ohne bekannte Benutzer-ID wird 0 eingetragen.
+    @Override
+    public String issueToken(String username) {
+        return issueToken(0, username);
+    }
+
+    @Override
+    public String issueToken(int userId, String username) {
+        Objects.requireNonNull(username, "username must not be null");
+
+        long expiresAt = clock.millis() / 1000 + ttlSeconds;
+        String payload = userId + "." + expiresAt + "."
+                + ENCODER.encodeToString(username.getBytes(StandardCharsets.UTF_8));
+        if (payload.length() + 1 + SIGNATURE_CHARS > MAX_TOKEN_LENGTH) {
+            throw new IllegalArgumentException("username is too long for a token");
+        }
+        Signer signer = acquire();
+        try {
+            int length = signer.sign(payload, payload.length());
+            return payload + "." + new String(signer.encoded, 0, length, StandardCharsets.US_ASCII);
+        } finally {
+            signers.offer(signer);
+        }
+    }
+
+    @Override
+    public boolean isValid(String token) {
+        return verify(token) > 0;
+    }
+
+    @Override
+    public String resolveUsername(String token) {
+        int end = verify(token);
+        if (end < 0) {
+            return null;
+        }
+        int start = token.indexOf('.', token.indexOf('.') + 1) + 1;
+        return new String(DECODER.decode(token.substring(start, end)), StandardCharsets.UTF_8);
+    }
+
+    // Die Signatur bleibt gültig; das Token wird bis zu seinem Ablauf auf die Sperrliste gesetzt.
+    // Ist die Liste auch nach dem Entfernen abgelaufener Einträge voll, wird die Sperre abgelehnt und protokolliert;
+    // eine bestehende Sperre wird nie verdrängt, sonst würde ein ausgeloggtes Token wieder gültig.
+    @Override
+    public void invalidate(String token) {
+        if (maxRevoked == 0 || verify(token) < 0) {
+            return;
+        }
+        long expiresAt = expiresAt(token);
+        synchronized (revoked) {
+            long now = clock.millis() / 1000;
+            while (!expiries.isEmpty() && expiries.peek().expiresAt() <= now) {
+                revoked.remove(expiries.poll().token());
+            }
+            if (revoked.size() >= maxRevoked) {
+                refusedRevocations.increment();
+                System.err.println("Token revocation refused: revocation list is full (" + maxRevoked + " entries)");
+                return;
+            }
+            revoked.put(token, expiresAt);
+            expiries.add(new Revocation(expiresAt, token));
+        }
+    }
+
+    // Größe der Sperrliste, abgelehnte Sperren und Anzahl abgewiesener (ungültiger, abgelaufener oder gesperrter) Tokens.
+    public SignedTokenMetrics metrics() {
+        return new SignedTokenMetrics(revoked.size(), maxRevoked, refusedRevocations.sum(), rejected.sum());
+    }
+
+    // Liefert die Position des Punkts vor der Signatur, wenn das Token gültig ist, sonst -1.
+    private int verify(String token) {
+        int signatureDot = structure(token);
+        if (signatureDot < 0 || isExpired(token) || !signatureMatches(token, signatureDot)
+                || (!revoked.isEmpty() && revoked.containsKey(token))) {
+            rejected.increment();
+            return -1;
+        }
+        return signatureDot;
+    }
+
+    // Prüft den Aufbau (vier Teile, nur ASCII) und liefert die Position des letzten Punkts.
+    private static int structure(String token) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            return -1;
+        }
+        int first = token.indexOf('.');
+        int second = first < 1 ? -1 : token.indexOf('.', first + 1);
+        int last = token.lastIndexOf('.');
+        if (second <= first + 1 || last <= second + 1 || token.length() - last - 1 != SIGNATURE_CHARS) {
+            return -1;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) > 127) {
+                return -1;
+            }
+        }
+        return last;
+    }
+
+    private boolean isExpired(String token) {
+        try {
+            return expiresAt(token) <= clock.millis() / 1000;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static long expiresAt(String token) {
+        int first = token.indexOf('.');
+        return Long.parseLong(token, first + 1, token.indexOf('.', first + 1), 10);
+    }
+
+    // Vergleicht in konstanter Zeit, damit sich die Signatur nicht zeichenweise erraten lässt.
+    private boolean signatureMatches(String token, int signatureDot) {
+        Signer signer = acquire();
+        try {
+            signer.sign(token, signatureDot);
+            int difference = 0;
+            for (int i = 0; i < SIGNATURE_CHARS; i++) {
+                difference |= signer.encoded[i] ^ token.charAt(signatureDot + 1 + i);
+            }
+            return difference == 0;
+        } finally {
+            signers.offer(signer);
+        }
+    }
+
+    private Signer acquire() {
+        Signer signer = signers.poll();
+        return signer != null ? signer : newSigner();
+    }
+
+    private Signer newSigner() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return new Signer(mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private record Revocation(long expiresAt, String token) implements Comparable<Revocation> {
+
+        @Override
+        public int compareTo(Revocation other) {
+            return Long.compare(expiresAt, other.expiresAt);
+        }
+    }
+
+    // Ein Mac samt Puffern für Eingabe, Digest und kodierte Signatur.
+    private static final class Signer {
+        private final Mac mac;
+        private final byte[] input = new byte[MAX_TOKEN_LENGTH];
+        private final byte[] digest = new byte[SIGNATURE_BYTES];
+        private final byte[] encoded = new byte[SIGNATURE_CHARS];
+
+        private Signer(Mac mac) {
+            this.mac = mac;
+        }
+
+        // Signiert die ersten length Zeichen (ASCII) und legt die base64url-Signatur in encoded ab.
+        int sign(String text, int length) {
+            for (int i = 0; i < length; i++) {
+                input[i] = (byte) text.charAt(i);
+            }
+            try {
+                mac.update(input, 0, length);
+                mac.doFinal(digest, 0);
+            } catch (GeneralSecurityException e) {
+                mac.reset();
+                throw new IllegalStateException("Could not sign token", e);
+            }
+            return ENCODER.encode(digest, encoded);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.SalimMRP.business.auth;
+
+// Kennzahlen der Token-Verwaltung: aktuell gespeicherte Tokens, Obergrenze sowie abgelaufene und verdrängte Tokens.
+public record TokenMetrics(int activeTokens,
+                           int maxTokens,
+                           long expiredTokens,
+                           long evictedTokens) {
+}
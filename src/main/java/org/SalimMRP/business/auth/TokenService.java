@@ -6,6 +6,11 @@ public interface TokenService {
     // Erstellt ein neues Token für den angegebenen Benutzer.
     String issueToken(String username);
 
+    // Wie issueToken(username), zusätzlich mit Benutzer-ID für Implementierungen, die sie ins Token schreiben.
+    default String issueToken(int userId, String username) {
+        return issueToken(username);
+    }
+
     // Prüft, ob das Token aktuell bekannt und gültig ist.
     boolean isValid(String token);
 
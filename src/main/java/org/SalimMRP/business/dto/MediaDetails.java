@@ -0,0 +1,83 @@
+package org.SalimMRP.business.dto;
+
+import org.SalimMRP.persistence.RatingCursor;
+import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.Rating;
+
+import java.util.List;
+
+// Fasst ein Medium mit seinen Kennzahlen, der Favoriten-Markierung und den eingebetteten Ratings zusammen.
+// ratingsNextCursor zeigt hinter das letzte eingebettete Rating, wenn weitere folgen, sonst ist er null.
+public class MediaDetails {
+    private final Media media;
+    private final double averageRating;
+    private final int ratingCount;
+    private final int favoritesCount;
+    private final boolean favoriteForUser;
+    private final List<Rating> ratings;
+    private final RatingCursor ratingsNextCursor;
+
+    private MediaDetails(Media media,
+                         double averageRating,
+                         int ratingCount,
+                         int favoritesCount,
+                         boolean favoriteForUser,
+                         List<Rating> ratings,
+                         RatingCursor ratingsNextCursor) {
+        this.media = media;
+        this.averageRating = averageRating;
+        this.ratingCount = ratingCount;
+        this.favoritesCount = favoritesCount;
+        this.favoriteForUser = favoriteForUser;
+        this.ratings = ratings != null ? List.copyOf(ratings) : List.of();
+        this.ratingsNextCursor = ratingsNextCursor;
+    }
+
+    public static MediaDetails of(Media media,
+                                  double averageRating,
+                                  int ratingCount,
+                                  int favoritesCount,
+                                  boolean favoriteForUser,
+                                  List<Rating> ratings) {
+        return of(media, averageRating, ratingCount, favoritesCount, favoriteForUser, ratings, null);
+    }
+
+    public static MediaDetails of(Media media,
+                                  double averageRating,
+                                  int ratingCount,
+                                  int favoritesCount,
+                                  boolean favoriteForUser,
+                                  List<Rating> ratings,
+                                  RatingCursor ratingsNextCursor) {
+        return new MediaDetails(media, averageRating, ratingCount, favoritesCount, favoriteForUser, ratings,
+                ratingsNextCursor);
+    }
+
+    public Media getMedia() {
+        return media;
+    }
+
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public int getFavoritesCount() {
+        return favoritesCount;
+    }
+
+    public boolean isFavoriteForUser() {
+        return favoriteForUser;
+    }
+
+    public List<Rating> getRatings() {
+        return ratings;
+    }
+
+    public RatingCursor getRatingsNextCursor() {
+        return ratingsNextCursor;
+    }
+}
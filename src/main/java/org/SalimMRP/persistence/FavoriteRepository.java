@@ -1,5 +1,7 @@
 package org.SalimMRP.persistence;
 
+import org.SalimMRP.persistence.models.FavoriteSummary;
+
 import java.util.List;
 
 // Verwaltet Favoriten-Verknüpfungen zwischen Benutzern und Medien.
@@ -14,4 +16,8 @@ public interface FavoriteRepository {
     List<Integer> findMediaIdsByUser(int userId);
 
     int countFavoritesForMedia(int mediaId);
+
+    // Liefert Favoritenanzahl und Markierung des Benutzers für mehrere Medien in einer Abfrage.
+    // Medien ohne Favoriten fehlen im Ergebnis.
+    List<FavoriteSummary> summarizeByMediaIds(List<Integer> mediaIds, int userId);
 }
@@ -0,0 +1,105 @@
+package org.SalimMRP.persistence;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// ConnectionProvider auf Basis eines HikariCP-Pools. Verbindungen werden wiederverwendet,
+// statt für jede Repository-Methode einen neuen TCP- und Auth-Handshake mit PostgreSQL aufzubauen.
+public class HikariConnectionProvider implements ConnectionProvider, AutoCloseable {
+
+    private static final String POOL_NAME = "mrp-pool";
+
+    private final HikariDataSource dataSource;
+    private final int maximumPoolSize;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Long::max, 0L);
+
+    public HikariConnectionProvider(String url, String user, String password, PoolSettings settings) {
+        Objects.requireNonNull(url, "url must not be null");
+        Objects.requireNonNull(user, "user must not be null");
+        Objects.requireNonNull(password, "password must not be null");
+        Objects.requireNonNull(settings, "settings must not be null");
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(POOL_NAME);
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setMaximumPoolSize(settings.getMaximumPoolSize());
+        config.setMinimumIdle(Math.min(settings.getMinimumIdle(), settings.getMaximumPoolSize()));
+        config.setConnectionTimeout(settings.getConnectionTimeoutMillis());
+        config.setIdleTimeout(settings.getIdleTimeoutMillis());
+        config.setMaxLifetime(settings.getMaxLifetimeMillis());
+        config.setLeakDetectionThreshold(settings.getLeakDetectionThresholdMillis());
+        // Hikari meldet jede Ausleihe an den Tracker, daraus entstehen die Wartezeit-Kennzahlen.
+        config.setMetricsTrackerFactory(new WaitTimeTrackerFactory());
+
+        this.maximumPoolSize = settings.getMaximumPoolSize();
+        this.dataSource = new HikariDataSource(config);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    // Liefert die aktuellen Poolwerte (aktiv, frei, wartend) plus kumulierte Wartezeiten.
+    public PoolMetrics metrics() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        long count = acquisitions.sum();
+        double averageWaitMillis = count == 0 ? 0.0 : totalWaitNanos.sum() / (double) count / 1_000_000.0;
+        return new PoolMetrics(
+                pool != null ? pool.getActiveConnections() : 0,
+                pool != null ? pool.getIdleConnections() : 0,
+                pool != null ? pool.getTotalConnections() : 0,
+                pool != null ? pool.getThreadsAwaitingConnection() : 0,
+                maximumPoolSize,
+                count,
+                timeouts.sum(),
+                averageWaitMillis,
+                maxWaitNanos.get() / 1_000_000.0
+        );
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+
+    // Fabrikmethode mit denselben Zugangsdaten wie Database.fromDefaults().
+    public static HikariConnectionProvider fromDefaults() {
+        return new HikariConnectionProvider("jdbc:postgresql://localhost:5433/mrp_db", "postgres", "postgres", new PoolSettings());
+    }
+
+    private class WaitTimeTrackerFactory implements MetricsTrackerFactory {
+        @Override
+        public IMetricsTracker create(String poolName, PoolStats poolStats) {
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    acquisitions.increment();
+                    totalWaitNanos.add(elapsedAcquiredNanos);
+                    maxWaitNanos.accumulate(elapsedAcquiredNanos);
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    timeouts.increment();
+                }
+            };
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.SalimMRP.persistence;
 
+import org.SalimMRP.persistence.models.FavoriteSummary;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -105,4 +107,43 @@ public class JdbcFavoriteRepository implements FavoriteRepository {
         }
         return 0;
     }
+
+    @Override
+    public List<FavoriteSummary> summarizeByMediaIds(List<Integer> mediaIds, int userId) {
+        if (mediaIds == null || mediaIds.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = """
+                SELECT media_id, COUNT(*) AS favorites_count, BOOL_OR(user_id = ?) AS favorite_for_user
+                  FROM favorites
+                 WHERE media_id = ANY(?)
+                 GROUP BY media_id
+                """;
+
+        List<FavoriteSummary> summaries = new ArrayList<>();
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            var idsArray = conn.createArrayOf("int4", mediaIds.toArray(Integer[]::new));
+            stmt.setArray(2, idsArray);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(new FavoriteSummary(
+                            rs.getInt("media_id"),
+                            rs.getInt("favorites_count"),
+                            rs.getBoolean("favorite_for_user")
+                    ));
+                }
+            }
+            idsArray.free();
+
+        } catch (SQLException e) {
+            System.err.println("Error summarizing favorites: " + e.getMessage());
+        }
+        return summaries;
+    }
 }
@@ -7,7 +7,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 // JDBC-Variante des MediaRepository mit den SQL-Statements für CRUD-Operationen.
 public class JdbcMediaRepository implements MediaRepository {
@@ -80,6 +82,78 @@ public class JdbcMediaRepository implements MediaRepository {
         return list;
     }
 
+    @Override
+    public List<Media> search(MediaSearchCriteria criteria, PageRequest page) {
+        boolean needsRatings = criteria.getMinimumRating() != null
+                || criteria.getSortField() == MediaSearchCriteria.SortField.SCORE;
+
+        // Filter, Sortierung und Paging werden komplett in SQL übersetzt, damit nur die angefragte Seite übertragen wird.
+        StringBuilder sql = new StringBuilder("SELECT m.* FROM media m");
+        if (needsRatings) {
+            sql.append(" LEFT JOIN (SELECT media_id, rating_sum::FLOAT8 / rating_count AS avg_score"
+                    + " FROM media_rating_stats WHERE rating_count > 0) s ON s.media_id = m.id");
+        }
+        sql.append(" WHERE TRUE");
+
+        List<Object> params = new ArrayList<>();
+        if (criteria.getTitleQuery() != null) {
+            sql.append(" AND lower(m.title) LIKE ? ESCAPE '\\'");
+            params.add("%" + escapeLike(criteria.getTitleQuery().toLowerCase()) + "%");
+        }
+        if (criteria.getMediaType() != null) {
+            sql.append(" AND lower(trim(m.media_type)) = ?");
+            params.add(normalize(criteria.getMediaType()));
+        }
+        if (criteria.getGenre() != null) {
+            // mrp_normalized_genres stammt aus Migration V3 und ist GIN-indiziert.
+            sql.append(" AND mrp_normalized_genres(m.genres) @> ARRAY[?]::TEXT[]");
+            params.add(normalize(criteria.getGenre()));
+        }
+        if (criteria.getReleaseYear() != null) {
+            sql.append(" AND m.release_year = ?");
+            params.add(criteria.getReleaseYear());
+        }
+        if (criteria.getAgeRestriction() != null) {
+            sql.append(" AND lower(trim(m.age_restriction)) = ?");
+            params.add(normalize(criteria.getAgeRestriction()));
+        }
+        if (criteria.getMinimumRating() != null) {
+            sql.append(" AND s.avg_score >= ?");
+            params.add(criteria.getMinimumRating());
+        }
+
+        boolean descending = criteria.getSortDirection() == MediaSearchCriteria.SortDirection.DESC;
+        String direction = descending ? "DESC" : "ASC";
+        sql.append(" ORDER BY ");
+        switch (criteria.getSortField()) {
+            case YEAR -> sql.append("m.release_year ").append(direction).append(descending ? " NULLS LAST" : " NULLS FIRST");
+            case SCORE -> sql.append("COALESCE(s.avg_score, 0) ").append(direction);
+            default -> sql.append("lower(m.title) ").append(direction);
+        }
+        sql.append(", lower(m.title) ASC, m.id ASC LIMIT ? OFFSET ?");
+        params.add(page.limit());
+        params.add(page.offset());
+
+        List<Media> list = new ArrayList<>();
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error searching media: " + e.getMessage());
+            return null;
+        }
+        return list;
+    }
+
     @Override
     public Media findById(int id) {
         String sql = "SELECT * FROM media WHERE id = ?";
@@ -97,6 +171,33 @@ public class JdbcMediaRepository implements MediaRepository {
         return null;
     }
 
+    @Override
+    public List<Media> findByIds(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = "SELECT * FROM media WHERE id = ANY(?)";
+        List<Media> list = new ArrayList<>();
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            var idsArray = conn.createArrayOf("int4", ids.toArray(Integer[]::new));
+            stmt.setArray(1, idsArray);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+            idsArray.free();
+
+        } catch (SQLException e) {
+            System.err.println("Error fetching media by ids: " + e.getMessage());
+        }
+        return list;
+    }
+
     @Override
     public boolean update(Media media) {
         String sql = """
@@ -154,6 +255,15 @@ public class JdbcMediaRepository implements MediaRepository {
         }
     }
 
+    private String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Maskiert LIKE-Platzhalter, damit Suchbegriffe wie "100%" wörtlich verglichen werden.
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     private Media mapRow(ResultSet rs) throws SQLException {
         Media media = new Media();
         media.setId(rs.getInt("id"));
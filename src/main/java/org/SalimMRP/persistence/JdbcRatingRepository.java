@@ -1,8 +1,8 @@
 package org.SalimMRP.persistence;
 
+import org.SalimMRP.persistence.models.LeaderboardRow;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.RatingSummary;
-import org.SalimMRP.persistence.models.UserRatingCount;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -12,8 +12,11 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 // JDBC-gestützte Umsetzung des RatingRepository inklusive Like- und Moderationsoperationen.
@@ -29,30 +32,41 @@ public class JdbcRatingRepository implements RatingRepository {
     public Rating save(Rating rating) {
         String sql = """
                 INSERT INTO ratings (media_id, user_id, star_value, comment, comment_confirmed, created_at)
-                VALUES (?, ?, ?, ?, ?, ?)
+                VALUES (?, ?, ?, ?, ?, COALESCE(?, now()))
                 """;
 
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            stmt.setInt(1, rating.getMediaId());
-            stmt.setInt(2, rating.getUserId());
-            stmt.setInt(3, rating.getStarValue());
-            stmt.setString(4, rating.getComment());
-            stmt.setBoolean(5, rating.isCommentConfirmed());
-            if (rating.getCreatedAt() == null) {
-                stmt.setTimestamp(6, null);
-            } else {
-                stmt.setTimestamp(6, Timestamp.from(rating.getCreatedAt()));
-            }
-            stmt.executeUpdate();
+        try (Connection conn = connectionProvider.getConnection()) {
+            // Rating und media_rating_stats werden gemeinsam geschrieben, damit die Kennzahlen nie abweichen.
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+                stmt.setInt(1, rating.getMediaId());
+                stmt.setInt(2, rating.getUserId());
+                stmt.setInt(3, rating.getStarValue());
+                stmt.setString(4, rating.getComment());
+                stmt.setBoolean(5, rating.isCommentConfirmed());
+                if (rating.getCreatedAt() == null) {
+                    stmt.setTimestamp(6, null);
+                } else {
+                    stmt.setTimestamp(6, Timestamp.from(rating.getCreatedAt()));
+                }
+                stmt.executeUpdate();
 
-            try (ResultSet keys = stmt.getGeneratedKeys()) {
-                if (keys.next()) {
-                    rating.setId(keys.getInt(1));
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        rating.setId(keys.getInt(1));
+                    }
                 }
+                adjustStats(conn, rating.getMediaId(), 0, rating.getStarValue());
+                conn.commit();
+                return rating;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            return rating;
 
         } catch (SQLException e) {
             System.err.println("Error saving rating: " + e.getMessage());
@@ -62,24 +76,53 @@ public class JdbcRatingRepository implements RatingRepository {
 
     @Override
     public boolean update(Rating rating) {
+        String lockSql = "SELECT media_id, star_value FROM ratings WHERE id = ? FOR UPDATE";
         String sql = """
                 UPDATE ratings
-                   SET star_value = ?, comment = ?, comment_confirmed = ?, created_at = ?
+                   SET star_value = ?, comment = ?, comment_confirmed = ?, created_at = COALESCE(?, created_at)
                  WHERE id = ?
                 """;
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement lock = conn.prepareStatement(lockSql);
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                // Der alte Sternwert wird gesperrt gelesen, damit die Statistik korrekt umgebucht werden kann.
+                lock.setInt(1, rating.getId());
+                int mediaId;
+                int previousStars;
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    mediaId = rs.getInt("media_id");
+                    previousStars = rs.getInt("star_value");
+                }
+
+                stmt.setInt(1, rating.getStarValue());
+                stmt.setString(2, rating.getComment());
+                stmt.setBoolean(3, rating.isCommentConfirmed());
+                if (rating.getCreatedAt() == null) {
+                    stmt.setTimestamp(4, null);
+                } else {
+                    stmt.setTimestamp(4, Timestamp.from(rating.getCreatedAt()));
+                }
+                stmt.setInt(5, rating.getId());
+                boolean updated = stmt.executeUpdate() > 0;
 
-            stmt.setInt(1, rating.getStarValue());
-            stmt.setString(2, rating.getComment());
-            stmt.setBoolean(3, rating.isCommentConfirmed());
-            if (rating.getCreatedAt() == null) {
-                stmt.setTimestamp(4, null);
-            } else {
-                stmt.setTimestamp(4, Timestamp.from(rating.getCreatedAt()));
+                if (updated && previousStars != rating.getStarValue()) {
+                    adjustStats(conn, mediaId, previousStars, rating.getStarValue());
+                }
+                conn.commit();
+                return updated;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            stmt.setInt(5, rating.getId());
-            return stmt.executeUpdate() > 0;
 
         } catch (SQLException e) {
             System.err.println("Error updating rating: " + e.getMessage());
@@ -89,12 +132,28 @@ public class JdbcRatingRepository implements RatingRepository {
 
     @Override
     public boolean delete(int id) {
-        String sql = "DELETE FROM ratings WHERE id = ?";
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+        String sql = "DELETE FROM ratings WHERE id = ? RETURNING media_id, star_value";
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setInt(1, id);
+                boolean deleted = false;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        adjustStats(conn, rs.getInt("media_id"), rs.getInt("star_value"), 0);
+                        deleted = true;
+                    }
+                }
+                conn.commit();
+                return deleted;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
             System.err.println("Error deleting rating: " + e.getMessage());
@@ -116,7 +175,7 @@ public class JdbcRatingRepository implements RatingRepository {
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     Rating rating = mapRow(rs);
-                    rating.setLikedByUserIds(findLikes(id));
+                    attachLikes(conn, List.of(rating));
                     return rating;
                 }
             }
@@ -142,7 +201,7 @@ public class JdbcRatingRepository implements RatingRepository {
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     Rating rating = mapRow(rs);
-                    rating.setLikedByUserIds(findLikes(rating.getId()));
+                    attachLikes(conn, List.of(rating));
                     return rating;
                 }
             }
@@ -154,11 +213,16 @@ public class JdbcRatingRepository implements RatingRepository {
     }
 
     @Override
-    public List<Rating> findByMediaId(int mediaId) {
+    public RatingPage findByMediaId(int mediaId, RatingCursor after, int limit) {
+        return findPage("media_id", mediaId, after, limit);
+    }
+
+    @Override
+    public List<Rating> findByUserId(int userId) {
         String sql = """
                 SELECT id, media_id, user_id, star_value, comment, comment_confirmed, created_at
                   FROM ratings
-                 WHERE media_id = ?
+                 WHERE user_id = ?
                  ORDER BY created_at DESC
                 """;
         List<Rating> ratings = new ArrayList<>();
@@ -166,47 +230,101 @@ public class JdbcRatingRepository implements RatingRepository {
         try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, mediaId);
+            stmt.setInt(1, userId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Rating rating = mapRow(rs);
-                    rating.setLikedByUserIds(findLikes(rating.getId()));
-                    ratings.add(rating);
+                    ratings.add(mapRow(rs));
                 }
             }
+            attachLikes(conn, ratings);
 
         } catch (SQLException e) {
-            System.err.println("Error fetching ratings: " + e.getMessage());
+            System.err.println("Error fetching ratings by user: " + e.getMessage());
         }
         return ratings;
     }
 
+    // Nur die Spalten, die der Ähnlichkeitsindex braucht; ohne Kommentare und Likes.
     @Override
-    public List<Rating> findByUserId(int userId) {
-        String sql = """
-                SELECT id, media_id, user_id, star_value, comment, comment_confirmed, created_at
-                  FROM ratings
-                 WHERE user_id = ?
-                 ORDER BY created_at DESC
-                """;
+    public List<Rating> findAllStarValues() {
+        String sql = "SELECT id, media_id, user_id, star_value FROM ratings ORDER BY user_id, id";
+        List<Rating> ratings = new ArrayList<>();
+
+        try (Connection conn = connectionProvider.getConnection()) {
+            // Der PostgreSQL-Treiber liest nur innerhalb einer Transaktion blockweise per Cursor; mit Autocommit
+            // würde die Fetch-Size ignoriert und die ganze Tabelle auf einmal gepuffert.
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setFetchSize(1_000);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Rating rating = new Rating();
+                        rating.setId(rs.getInt("id"));
+                        rating.setMediaId(rs.getInt("media_id"));
+                        rating.setUserId(rs.getInt("user_id"));
+                        rating.setStarValue(rs.getInt("star_value"));
+                        ratings.add(rating);
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error fetching star values: " + e.getMessage());
+        }
+        return ratings;
+    }
+
+    @Override
+    public RatingPage findByUserId(int userId, RatingCursor after, int limit) {
+        return findPage("user_id", userId, after, limit);
+    }
+
+    // Eine Zeile mehr als angefragt zeigt an, ob eine weitere Seite folgt. Der Vergleich (created_at, id) < (?, ?)
+    // setzt direkt hinter dem Cursor auf und nutzt die Indizes aus Migration V6, statt Zeilen per OFFSET zu überspringen.
+    private RatingPage findPage(String ownerColumn, int ownerId, RatingCursor after, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        String sql = "SELECT id, media_id, user_id, star_value, comment, comment_confirmed, created_at"
+                + " FROM ratings WHERE " + ownerColumn + " = ?"
+                + (after != null ? " AND (created_at, id) < (?, ?)" : "")
+                + " ORDER BY created_at DESC, id DESC LIMIT ?";
         List<Rating> ratings = new ArrayList<>();
 
         try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, userId);
+            int index = 1;
+            stmt.setInt(index++, ownerId);
+            if (after != null) {
+                stmt.setTimestamp(index++, Timestamp.from(after.createdAt()));
+                stmt.setInt(index++, after.ratingId());
+            }
+            stmt.setInt(index, limit + 1);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Rating rating = mapRow(rs);
-                    rating.setLikedByUserIds(findLikes(rating.getId()));
-                    ratings.add(rating);
+                    ratings.add(mapRow(rs));
                 }
             }
 
+            RatingCursor next = null;
+            if (ratings.size() > limit) {
+                ratings.remove(limit);
+                next = RatingCursor.after(ratings.get(limit - 1));
+            }
+            attachLikes(conn, ratings);
+            return new RatingPage(ratings, next);
+
         } catch (SQLException e) {
-            System.err.println("Error fetching ratings by user: " + e.getMessage());
+            System.err.println("Error fetching rating page: " + e.getMessage());
         }
-        return ratings;
+        return RatingPage.empty();
     }
 
     @Override
@@ -216,10 +334,9 @@ public class JdbcRatingRepository implements RatingRepository {
         }
 
         String sql = """
-                SELECT media_id, AVG(star_value) AS avg_score, COUNT(*) AS rating_count
-                  FROM ratings
-                 WHERE media_id = ANY(?)
-                 GROUP BY media_id
+                SELECT media_id, rating_sum::FLOAT8 / rating_count AS avg_score, rating_count
+                  FROM media_rating_stats
+                 WHERE media_id = ANY(?) AND rating_count > 0
                 """;
 
         List<RatingSummary> summaries = new ArrayList<>();
@@ -248,16 +365,20 @@ public class JdbcRatingRepository implements RatingRepository {
     }
 
     @Override
-    public List<UserRatingCount> findRatingCountsPerUser(int limit) {
+    public List<LeaderboardRow> findLeaderboard(int limit) {
+        // Erst wird auf die Top-N-Benutzer reduziert, danach nur noch für diese der Name nachgeladen.
         String sql = """
-                SELECT user_id, COUNT(*) AS rating_count
-                  FROM ratings
-                 GROUP BY user_id
-                 ORDER BY rating_count DESC, user_id ASC
-                 LIMIT ?
+                SELECT c.user_id, u.username, c.rating_count
+                  FROM (SELECT user_id, COUNT(*) AS rating_count
+                          FROM ratings
+                         GROUP BY user_id
+                         ORDER BY rating_count DESC, user_id ASC
+                         LIMIT ?) c
+                  JOIN users u ON u.id = c.user_id
+                 ORDER BY c.rating_count DESC, c.user_id ASC
                 """;
 
-        List<UserRatingCount> result = new ArrayList<>();
+        List<LeaderboardRow> result = new ArrayList<>();
 
         try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -267,15 +388,16 @@ public class JdbcRatingRepository implements RatingRepository {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    result.add(new UserRatingCount(
+                    result.add(new LeaderboardRow(
                             rs.getInt("user_id"),
+                            rs.getString("username"),
                             rs.getLong("rating_count")
                     ));
                 }
             }
 
         } catch (SQLException e) {
-            System.err.println("Error fetching rating leaderboard: " + e.getMessage());
+            System.err.println("Error fetching leaderboard: " + e.getMessage());
         }
         return result;
     }
@@ -352,6 +474,74 @@ public class JdbcRatingRepository implements RatingRepository {
         return likes;
     }
 
+    @Override
+    public Map<Integer, Set<Integer>> findLikesByRatingIds(Collection<Integer> ratingIds) {
+        if (ratingIds == null || ratingIds.isEmpty()) {
+            return Map.of();
+        }
+        try (Connection conn = connectionProvider.getConnection()) {
+            return loadLikes(conn, ratingIds);
+        } catch (SQLException e) {
+            System.err.println("Error fetching likes: " + e.getMessage());
+            return Map.of();
+        }
+    }
+
+    // Lädt die Likes aller übergebenen Ratings mit einer einzigen Abfrage über dieselbe Verbindung.
+    private void attachLikes(Connection conn, List<Rating> ratings) throws SQLException {
+        if (ratings.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = ratings.stream().map(Rating::getId).toList();
+        Map<Integer, Set<Integer>> likes = loadLikes(conn, ids);
+        for (Rating rating : ratings) {
+            rating.setLikedByUserIds(likes.get(rating.getId()));
+        }
+    }
+
+    private Map<Integer, Set<Integer>> loadLikes(Connection conn, Collection<Integer> ratingIds) throws SQLException {
+        String sql = "SELECT rating_id, user_id FROM rating_likes WHERE rating_id = ANY(?)";
+        Map<Integer, Set<Integer>> likes = new HashMap<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            var idsArray = conn.createArrayOf("int4", ratingIds.toArray(Integer[]::new));
+            stmt.setArray(1, idsArray);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    likes.computeIfAbsent(rs.getInt("rating_id"), key -> new HashSet<>())
+                            .add(rs.getInt("user_id"));
+                }
+            }
+            idsArray.free();
+        }
+        return likes;
+    }
+
+    // Bucht einen Sternwert in media_rating_stats um: removedStars wird abgezogen, addedStars hinzugefügt (0 = keiner).
+    private void adjustStats(Connection conn, int mediaId, int removedStars, int addedStars) throws SQLException {
+        String sql = """
+                INSERT INTO media_rating_stats (media_id, rating_sum, rating_count, star_1, star_2, star_3, star_4, star_5)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                ON CONFLICT (media_id) DO UPDATE
+                   SET rating_sum = media_rating_stats.rating_sum + EXCLUDED.rating_sum,
+                       rating_count = media_rating_stats.rating_count + EXCLUDED.rating_count,
+                       star_1 = media_rating_stats.star_1 + EXCLUDED.star_1,
+                       star_2 = media_rating_stats.star_2 + EXCLUDED.star_2,
+                       star_3 = media_rating_stats.star_3 + EXCLUDED.star_3,
+                       star_4 = media_rating_stats.star_4 + EXCLUDED.star_4,
+                       star_5 = media_rating_stats.star_5 + EXCLUDED.star_5
+                """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, mediaId);
+            stmt.setLong(2, addedStars - removedStars);
+            stmt.setInt(3, (addedStars > 0 ? 1 : 0) - (removedStars > 0 ? 1 : 0));
+            for (int star = 1; star <= 5; star++) {
+                stmt.setInt(3 + star, (addedStars == star ? 1 : 0) - (removedStars == star ? 1 : 0));
+            }
+            stmt.executeUpdate();
+        }
+    }
+
     private Rating mapRow(ResultSet rs) throws SQLException {
         Rating rating = new Rating();
         rating.setId(rs.getInt("id"));
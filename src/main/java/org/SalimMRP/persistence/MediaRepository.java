@@ -2,6 +2,7 @@ package org.SalimMRP.persistence;
 
 import org.SalimMRP.persistence.models.Media;
 
+import java.util.Collection;
 import java.util.List;
 
 // Abstraktion für alle Datenbankzugriffe rund um Medien.
@@ -11,8 +12,15 @@ public interface MediaRepository {
 
     List<Media> findAll();
 
+    // Filtert, sortiert und begrenzt direkt in der Datenbank gemäß den Suchkriterien.
+    // Liefert null bei einem Datenbankfehler, damit ein leeres Ergebnis nicht mit einem Fehler verwechselt wird.
+    List<Media> search(MediaSearchCriteria criteria, PageRequest page);
+
     Media findById(int id);
 
+    // Lädt mehrere Medien mit einer Abfrage; unbekannte IDs werden ignoriert, die Reihenfolge ist nicht garantiert.
+    List<Media> findByIds(Collection<Integer> ids);
+
     boolean update(Media media);
 
     boolean delete(int id);
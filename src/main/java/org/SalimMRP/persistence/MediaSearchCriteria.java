@@ -1,4 +1,4 @@
-package org.SalimMRP.business.dto;
+package org.SalimMRP.persistence;
 
 // Repräsentiert frei kombinierbare Filter- und Sortieroptionen für die Mediensuche.
 public class MediaSearchCriteria {
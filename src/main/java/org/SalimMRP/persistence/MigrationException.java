@@ -0,0 +1,11 @@
+package org.SalimMRP.persistence;
+
+// Signalisiert, dass das Schema nicht auf den benötigten Stand gebracht werden konnte; der Server startet dann nicht.
+public class MigrationException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public MigrationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,236 @@
+package org.SalimMRP.persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// Spielt versionierte Schemaänderungen aus src/main/resources/db/migration beim Start ein.
+// Bereits angewendete Versionen stehen in schema_migrations und werden übersprungen. Migrationen, die Indizes
+// anlegen, laufen ohne Transaktion mit CREATE INDEX CONCURRENTLY, damit der Start keine Schreibzugriffe blockiert.
+public class MigrationRunner {
+
+    // Neue Migrationen werden hier mit fortlaufender Version ergänzt (Datei: V<version>__<name>.sql).
+    private static final List<Migration> MIGRATIONS = List.of(
+            Migration.concurrent(1, "ratings_user_created_index"),
+            Migration.concurrent(2, "favorites_media_index"),
+            Migration.concurrent(3, "media_genres_gin_index"),
+            Migration.concurrent(4, "media_title_trigram_index").requiring("pg_trgm"),
+            Migration.transactional(5, "media_rating_stats"),
+            Migration.concurrent(6, "ratings_keyset_indexes")
+    );
+
+    // Beliebiger, aber fester Schlüssel, damit parallel startende Instanzen nicht gleichzeitig migrieren.
+    private static final long LOCK_KEY = 47_112_024L;
+
+    private final ConnectionProvider connectionProvider;
+
+    public MigrationRunner(ConnectionProvider connectionProvider) {
+        this.connectionProvider = Objects.requireNonNull(connectionProvider, "connectionProvider must not be null");
+    }
+
+    // Wendet alle noch fehlenden Migrationen in aufsteigender Reihenfolge an und liefert deren Anzahl.
+    // Migrationen, deren Erweiterung fehlt und nicht angelegt werden darf, werden übersprungen und beim nächsten
+    // Start erneut versucht.
+    public int migrate() throws MigrationException {
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(true);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS schema_migrations (
+                            version INT PRIMARY KEY,
+                            description TEXT NOT NULL,
+                            applied_at TIMESTAMP DEFAULT now()
+                        )
+                        """);
+                stmt.execute("SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+            }
+
+            try {
+                Set<Integer> applied = appliedVersions(conn);
+                int count = 0;
+                for (Migration migration : MIGRATIONS) {
+                    if (applied.contains(migration.version()) || !extensionAvailable(conn, migration)) {
+                        continue;
+                    }
+                    if (migration.concurrent()) {
+                        applyConcurrently(conn, migration);
+                    } else {
+                        apply(conn, migration);
+                    }
+                    count++;
+                }
+                return count;
+            } finally {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new MigrationException("Schema migration failed: " + e.getMessage(), e);
+        }
+    }
+
+    private Set<Integer> appliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_migrations")) {
+            while (rs.next()) {
+                versions.add(rs.getInt("version"));
+            }
+        }
+        return versions;
+    }
+
+    // Legt die benötigte Erweiterung bei Bedarf an. CREATE EXTENSION braucht erweiterte Rechte; ohne sie wird die
+    // Migration nur protokolliert statt den Start abzubrechen.
+    private boolean extensionAvailable(Connection conn, Migration migration) throws SQLException {
+        if (migration.extension() == null) {
+            return true;
+        }
+        try (PreparedStatement check = conn.prepareStatement("SELECT 1 FROM pg_extension WHERE extname = ?")) {
+            check.setString(1, migration.extension());
+            try (ResultSet rs = check.executeQuery()) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE EXTENSION IF NOT EXISTS " + migration.extension());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Skipping schema migration " + migration.fileName() + ": extension "
+                    + migration.extension() + " is not installed and could not be created (" + e.getMessage() + ")");
+            return false;
+        }
+    }
+
+    // Jede Migration läuft in einer eigenen Transaktion zusammen mit ihrem Eintrag in schema_migrations.
+    private void apply(Connection conn, Migration migration) throws SQLException, MigrationException {
+        String sql = readScript(migration);
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement();
+             PreparedStatement record = conn.prepareStatement(
+                     "INSERT INTO schema_migrations (version, description) VALUES (?, ?)")) {
+
+            stmt.execute(sql);
+            record.setInt(1, migration.version());
+            record.setString(2, migration.description());
+            record.executeUpdate();
+            conn.commit();
+            System.out.println("Applied schema migration " + migration.fileName());
+
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Migration " + migration.fileName() + " failed: " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    // CREATE INDEX CONCURRENTLY darf in keiner Transaktion laufen, auch nicht in der impliziten eines Skripts mit
+    // mehreren Anweisungen. Daher wird jede Anweisung einzeln im Autocommit ausgeführt; die Skripte sind so
+    // geschrieben (IF [NOT] EXISTS), dass sie nach einem Abbruch erneut laufen können.
+    private void applyConcurrently(Connection conn, Migration migration) throws SQLException, MigrationException {
+        List<String> statements = statements(readScript(migration));
+        try (Statement stmt = conn.createStatement();
+             PreparedStatement record = conn.prepareStatement(
+                     "INSERT INTO schema_migrations (version, description) VALUES (?, ?)")) {
+
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+            record.setInt(1, migration.version());
+            record.setString(2, migration.description());
+            record.executeUpdate();
+            System.out.println("Applied schema migration " + migration.fileName());
+
+        } catch (SQLException e) {
+            // Ein abgebrochener CONCURRENTLY-Aufbau hinterlässt einen ungültigen Index, den IF NOT EXISTS überspringt.
+            throw new SQLException("Migration " + migration.fileName() + " failed: " + e.getMessage()
+                    + " (drop indexes left INVALID by this migration before restarting)", e);
+        }
+    }
+
+    // Zerlegt ein Skript an Semikolons außerhalb von Kommentaren, Strings und $$-Blöcken.
+    static List<String> statements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inString = false;
+        boolean inDollarQuote = false;
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (!inString && !inDollarQuote && script.startsWith("--", i)) {
+                int end = script.indexOf('\n', i);
+                i = end < 0 ? script.length() : end - 1;
+                continue;
+            }
+            if (!inString && script.startsWith("$$", i)) {
+                inDollarQuote = !inDollarQuote;
+                current.append("$$");
+                i++;
+                continue;
+            }
+            if (c == '\'' && !inDollarQuote) {
+                inString = !inString;
+            } else if (c == ';' && !inString && !inDollarQuote) {
+                addStatement(statements, current);
+                continue;
+            }
+            current.append(c);
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String statement = current.toString().strip();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+
+    private String readScript(Migration migration) throws MigrationException {
+        String resource = "/db/migration/" + migration.fileName();
+        try (InputStream in = MigrationRunner.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new MigrationException("Migration script not found: " + resource, null);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new MigrationException("Could not read migration script " + resource, e);
+        }
+    }
+
+    // concurrent: ohne Transaktion, Anweisung für Anweisung; extension: vorher benötigte Erweiterung oder null.
+    private record Migration(int version, String description, boolean concurrent, String extension) {
+
+        static Migration transactional(int version, String description) {
+            return new Migration(version, description, false, null);
+        }
+
+        static Migration concurrent(int version, String description) {
+            return new Migration(version, description, true, null);
+        }
+
+        Migration requiring(String extension) {
+            return new Migration(version, description, concurrent, extension);
+        }
+
+        String fileName() {
+            return "V" + version + "__" + description + ".sql";
+        }
+    }
+}
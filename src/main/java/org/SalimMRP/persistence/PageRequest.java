@@ -0,0 +1,23 @@
+package org.SalimMRP.persistence;
+
+// Beschreibt einen Ausschnitt (Offset und maximale Anzahl) einer sortierten Ergebnisliste.
+public record PageRequest(int offset, int limit) {
+
+    public PageRequest {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+    }
+
+    public static PageRequest of(int offset, int limit) {
+        return new PageRequest(offset, limit);
+    }
+
+    // Für interne Aufrufer, die bewusst alle Treffer benötigen.
+    public static PageRequest unbounded() {
+        return new PageRequest(0, Integer.MAX_VALUE);
+    }
+}
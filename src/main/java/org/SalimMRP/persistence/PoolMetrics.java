@@ -0,0 +1,13 @@
+package org.SalimMRP.persistence;
+
+// Momentaufnahme des Verbindungspools, damit sich die Poolgröße anhand echter Last einstellen lässt.
+public record PoolMetrics(int active,
+                          int idle,
+                          int total,
+                          int pending,
+                          int maximumPoolSize,
+                          long acquisitions,
+                          long timeouts,
+                          double averageWaitMillis,
+                          double maxWaitMillis) {
+}
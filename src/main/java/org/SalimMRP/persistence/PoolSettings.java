@@ -0,0 +1,80 @@
+package org.SalimMRP.persistence;
+
+// Konfigurationswerte für den Verbindungspool: Größe, Timeouts und Leak-Erkennung.
+// Die Defaults passen für die lokale Entwicklungsumgebung und lassen sich per Setter überschreiben.
+public class PoolSettings {
+    private int maximumPoolSize = 10;
+    private int minimumIdle = 2;
+    private long connectionTimeoutMillis = 3_000;
+    private long idleTimeoutMillis = 600_000;
+    private long maxLifetimeMillis = 1_800_000;
+    private long leakDetectionThresholdMillis = 0;
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        if (maximumPoolSize < 1) {
+            throw new IllegalArgumentException("maximumPoolSize must be at least 1");
+        }
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(int minimumIdle) {
+        if (minimumIdle < 0) {
+            throw new IllegalArgumentException("minimumIdle must not be negative");
+        }
+        this.minimumIdle = minimumIdle;
+    }
+
+    public long getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    // Wie lange ein Aufrufer höchstens auf eine freie Verbindung wartet (Hikari-Minimum: 250 ms).
+    public void setConnectionTimeoutMillis(long connectionTimeoutMillis) {
+        if (connectionTimeoutMillis < 250) {
+            throw new IllegalArgumentException("connectionTimeoutMillis must be at least 250");
+        }
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        if (idleTimeoutMillis < 0) {
+            throw new IllegalArgumentException("idleTimeoutMillis must not be negative");
+        }
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        if (maxLifetimeMillis < 0) {
+            throw new IllegalArgumentException("maxLifetimeMillis must not be negative");
+        }
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    // 0 schaltet die Leak-Erkennung aus; sonst wird eine Warnung geloggt, wenn eine Verbindung länger ausgeliehen bleibt.
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        if (leakDetectionThresholdMillis < 0) {
+            throw new IllegalArgumentException("leakDetectionThresholdMillis must not be negative");
+        }
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+}
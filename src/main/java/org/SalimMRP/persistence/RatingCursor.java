@@ -0,0 +1,47 @@
+package org.SalimMRP.persistence;
+
+import org.SalimMRP.persistence.models.Rating;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+
+// Position in einer nach (created_at, id) absteigend sortierten Rating-Liste. Die nächste Seite beginnt direkt
+// hinter diesem Rating, unabhängig davon, wie viele Ratings inzwischen davor eingefügt wurden.
+// Nach außen wird die Position als undurchsichtiger base64url-Text weitergegeben.
+public record RatingCursor(Instant createdAt, int ratingId) {
+
+    public RatingCursor {
+        Objects.requireNonNull(createdAt, "createdAt must not be null");
+    }
+
+    // Ratings ohne gespeicherten Zeitpunkt gelten wie in der Datenbank als 1970-01-01.
+    public static RatingCursor after(Rating rating) {
+        Instant createdAt = rating.getCreatedAt() != null ? rating.getCreatedAt() : Instant.EPOCH;
+        return new RatingCursor(createdAt, rating.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + ratingId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Liefert null, wenn der Text kein gültiger Cursor ist.
+    public static RatingCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                return null;
+            }
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+            return new RatingCursor(createdAt, Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.SalimMRP.persistence;
+
+import org.SalimMRP.persistence.models.Rating;
+
+import java.util.List;
+
+// Eine Seite Ratings (neueste zuerst); nextCursor ist null, wenn keine weiteren folgen.
+public record RatingPage(List<Rating> ratings, RatingCursor nextCursor) {
+
+    public RatingPage {
+        ratings = List.copyOf(ratings);
+    }
+
+    public static RatingPage empty() {
+        return new RatingPage(List.of(), null);
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
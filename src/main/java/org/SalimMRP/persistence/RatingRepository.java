@@ -1,10 +1,12 @@
 package org.SalimMRP.persistence;
 
+import org.SalimMRP.persistence.models.LeaderboardRow;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.RatingSummary;
-import org.SalimMRP.persistence.models.UserRatingCount;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 // Schnittstelle zur Verwaltung von Ratings inklusive Moderation und Like-Informationen.
@@ -20,13 +22,21 @@ public interface RatingRepository {
 
     Rating findByMediaIdAndUserId(int mediaId, int userId);
 
-    List<Rating> findByMediaId(int mediaId);
+    // Keyset-Paging, neueste zuerst (created_at, id absteigend); after = null liefert die erste Seite.
+    RatingPage findByMediaId(int mediaId, RatingCursor after, int limit);
 
+    // Alle Ratings eines Benutzers, z. B. für Statistiken und Empfehlungen.
     List<Rating> findByUserId(int userId);
 
+    RatingPage findByUserId(int userId, RatingCursor after, int limit);
+
+    // Alle Ratings nur mit id, media_id, user_id und star_value, z. B. zum Aufbau des Ähnlichkeitsindex.
+    List<Rating> findAllStarValues();
+
     List<RatingSummary> summarizeByMediaIds(List<Integer> mediaIds);
 
-    List<UserRatingCount> findRatingCountsPerUser(int limit);
+    // Rangliste inklusive Benutzernamen, sortiert und begrenzt in einer einzigen Abfrage.
+    List<LeaderboardRow> findLeaderboard(int limit);
 
     boolean confirmComment(int ratingId);
 
@@ -35,4 +45,7 @@ public interface RatingRepository {
     boolean removeLike(int ratingId, int userId);
 
     Set<Integer> findLikes(int ratingId);
+
+    // Liefert die Likes mehrerer Ratings auf einmal; Ratings ohne Likes fehlen in der Map.
+    Map<Integer, Set<Integer>> findLikesByRatingIds(Collection<Integer> ratingIds);
 }
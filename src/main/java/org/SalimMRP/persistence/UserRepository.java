@@ -10,4 +10,6 @@ public interface UserRepository {
     User findByUsername(String username);
 
     User findById(int id);
+
+    boolean updatePassword(int userId, String passwordHash);
 }
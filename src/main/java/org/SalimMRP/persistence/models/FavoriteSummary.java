@@ -0,0 +1,26 @@
+package org.SalimMRP.persistence.models;
+
+// Aggregierte Favoriten-Informationen eines Mediums: Anzahl insgesamt und ob der anfragende Benutzer es markiert hat.
+public class FavoriteSummary {
+    private final int mediaId;
+    private final int favoritesCount;
+    private final boolean favoriteForUser;
+
+    public FavoriteSummary(int mediaId, int favoritesCount, boolean favoriteForUser) {
+        this.mediaId = mediaId;
+        this.favoritesCount = favoritesCount;
+        this.favoriteForUser = favoriteForUser;
+    }
+
+    public int getMediaId() {
+        return mediaId;
+    }
+
+    public int getFavoritesCount() {
+        return favoritesCount;
+    }
+
+    public boolean isFavoriteForUser() {
+        return favoriteForUser;
+    }
+}
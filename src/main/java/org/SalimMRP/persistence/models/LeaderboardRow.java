@@ -0,0 +1,26 @@
+package org.SalimMRP.persistence.models;
+
+// Eine Zeile der Rangliste: Benutzername samt Anzahl abgegebener Ratings.
+public class LeaderboardRow {
+    private final int userId;
+    private final String username;
+    private final long ratingCount;
+
+    public LeaderboardRow(int userId, String username, long ratingCount) {
+        this.userId = userId;
+        this.username = username;
+        this.ratingCount = ratingCount;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getRatingCount() {
+        return ratingCount;
+    }
+}
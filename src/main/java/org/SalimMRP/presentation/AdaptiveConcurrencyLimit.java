@@ -0,0 +1,92 @@
+package org.SalimMRP.presentation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Nebenläufigkeitslimit einer einzelnen Route, das sich an der gemessenen Latenz ausrichtet.
+// Liegt die aktuelle Latenz deutlich über der langfristigen Basislatenz, staut sich Arbeit (z. B. vor dem DB-Pool)
+// und das Limit sinkt; bleibt sie stabil und ist das Limit ausgeschöpft, wächst es langsam wieder.
+class AdaptiveConcurrencyLimit {
+
+    // Wie stark ein neuer Messwert das Limit bzw. die Basislatenz verschiebt.
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double BASELINE_WEIGHT = 0.05;
+    // Latenzanstieg, der noch ohne Drosselung toleriert wird.
+    private static final double TOLERANCE = 1.5;
+    // Stärker als um diesen Faktor wird das Limit pro Messung nicht reduziert.
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile double limit;
+    private double baselineNanos;
+    private volatile double lastLatencyNanos;
+
+    AdaptiveConcurrencyLimit(int minLimit, int initialLimit, int maxLimit) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    // Reserviert einen Platz, solange das aktuelle Limit nicht erreicht ist.
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    // Gibt den Platz wieder frei und passt das Limit anhand der gemessenen Dauer an.
+    void release(long latencyNanos) {
+        int running = inFlight.getAndDecrement();
+        update(Math.max(1L, latencyNanos), running);
+    }
+
+    private synchronized void update(long latencyNanos, int running) {
+        lastLatencyNanos = latencyNanos;
+        if (baselineNanos == 0) {
+            baselineNanos = latencyNanos;
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * baselineNanos / latencyNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        // Nur wachsen, wenn das Limit tatsächlich genutzt wird; sonst würde es ohne Last beliebig steigen.
+        if (running < limit / 2) {
+            newLimit = Math.min(newLimit, limit);
+        }
+        newLimit = limit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+        baselineNanos = baselineNanos * (1 - BASELINE_WEIGHT) + latencyNanos * BASELINE_WEIGHT;
+    }
+
+    // Empfohlene Wartezeit für abgewiesene Clients: grob eine Bearbeitungsdauer, mindestens eine Sekunde.
+    int retryAfterSeconds() {
+        return (int) Math.max(1, Math.ceil(lastLatencyNanos / 1_000_000_000.0));
+    }
+
+    RouteAdmissionMetrics metrics() {
+        return new RouteAdmissionMetrics(
+                (int) limit,
+                inFlight.get(),
+                accepted.sum(),
+                rejected.sum(),
+                lastLatencyNanos / 1_000_000.0
+        );
+    }
+}
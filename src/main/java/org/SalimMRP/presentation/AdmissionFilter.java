@@ -0,0 +1,110 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Zugangskontrolle vor den Handlern: Jede Route (Methode + registriertes Pfadmuster) hat ein eigenes, latenzabhängiges
+// Nebenläufigkeitslimit. Das Muster liefert der Router des Handlers; Requests, die keine Route treffen, teilen sich
+// ein gemeinsames Limit, damit beliebige Methoden oder Pfade keine neuen Limits anlegen. Ist ein Limit erreicht,
+// wird sofort mit 503 und Retry-After geantwortet, statt den Request auf einen freien Thread oder eine
+// DB-Verbindung warten zu lassen. Teure Routen wie /api/media/recommendations können so günstige Routen nicht
+// verdrängen.
+public class AdmissionFilter extends Filter {
+
+    private static final int DEFAULT_MIN_LIMIT = 2;
+    private static final int DEFAULT_INITIAL_LIMIT = 20;
+    private static final int DEFAULT_MAX_LIMIT = 200;
+
+    // Gemeinsamer Schlüssel aller Requests ohne passende Route.
+    static final String UNMATCHED_ROUTE = "unmatched";
+    // Methoden, die bei Handlern ohne Routentabelle (ein Pfad pro Kontext) ein eigenes Limit bekommen.
+    private static final Set<String> KNOWN_METHODS = Set.of("GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS");
+
+    private final int minLimit;
+    private final int initialLimit;
+    private final int maxLimit;
+    private final Map<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public AdmissionFilter() {
+        this(DEFAULT_MIN_LIMIT, DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    public AdmissionFilter(int minLimit, int initialLimit, int maxLimit) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.initialLimit = initialLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        AdaptiveConcurrencyLimit limit = limits.computeIfAbsent(routeKey(exchange),
+                key -> new AdaptiveConcurrencyLimit(minLimit, initialLimit, maxLimit));
+
+        if (!limit.tryAcquire()) {
+            reject(exchange, limit.retryAfterSeconds());
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            limit.release(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Adaptive per-route concurrency limits";
+    }
+
+    // Liefert die Kennzahlen aller bisher aufgerufenen Routen, sortiert nach Route.
+    public Map<String, RouteAdmissionMetrics> snapshot() {
+        Map<String, RouteAdmissionMetrics> snapshot = new TreeMap<>();
+        limits.forEach((route, limit) -> snapshot.put(route, limit.metrics()));
+        return snapshot;
+    }
+
+    private String routeKey(HttpExchange exchange) {
+        HttpContext context = exchange.getHttpContext();
+        if (context == null) {
+            return UNMATCHED_ROUTE;
+        }
+        String key;
+        if (context.getHandler() instanceof RoutedHandler routed) {
+            key = routed.routeKey(exchange);
+        } else {
+            String method = exchange.getRequestMethod().toUpperCase(Locale.ROOT);
+            key = KNOWN_METHODS.contains(method) ? method + " " + context.getPath() : null;
+        }
+        return key != null ? key : UNMATCHED_ROUTE;
+    }
+
+    private void reject(HttpExchange exchange, int retryAfterSeconds) throws IOException {
+        // Den Request-Body verwerfen, damit die Verbindung weiterverwendet werden kann.
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        byte[] body = "Server busy, please retry later".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+        exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+        exchange.sendResponseHeaders(503, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.SalimMRP.presentation;
+
+// Zähler der Antwortkompression: wie viele JSON-Antworten komprimiert wurden und wie viele Bytes das gespart hat.
+public record CompressionMetrics(long compressedResponses,
+                                 long uncompressedResponses,
+                                 long bytesBeforeCompression,
+                                 long bytesAfterCompression,
+                                 long bytesSaved) {
+}
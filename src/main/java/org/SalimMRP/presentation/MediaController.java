@@ -1,29 +1,43 @@
 package org.SalimMRP.presentation;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 import org.SalimMRP.business.MediaService;
 import org.SalimMRP.business.UserService;
+import org.SalimMRP.persistence.models.User;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Objects;
 
 // Einstiegspunkt für alle Media-Endpunkte mit Referenzen auf Services und JSON-Mapper.
 public class MediaController {
 
     private final ObjectMapper mapper;
+    private final ResponseWriter responseWriter;
+    private final RequestAuthenticator authenticator;
     private final MediaService mediaService;
     private final UserService userService;
 
-    public MediaController(MediaService mediaService, UserService userService, ObjectMapper mapper) {
+    public MediaController(MediaService mediaService, UserService userService, ObjectMapper mapper, ResponseWriter responseWriter) {
         this.mediaService = Objects.requireNonNull(mediaService, "mediaService must not be null");
         this.userService = Objects.requireNonNull(userService, "userService must not be null");
         this.mapper = Objects.requireNonNull(mapper, "mapper must not be null");
+        this.responseWriter = Objects.requireNonNull(responseWriter, "responseWriter must not be null");
+        this.authenticator = new RequestAuthenticator(userService, responseWriter);
     }
 
     public ObjectMapper getMapper() {
         return mapper;
     }
 
+    public ResponseWriter getResponseWriter() {
+        return responseWriter;
+    }
+
     public MediaService getMediaService() {
         return mediaService;
     }
@@ -32,8 +46,15 @@ public class MediaController {
         return userService;
     }
 
-    public void registerRoutes(HttpServer server) {
-        server.createContext("/api/media", new MediaHandler(this));
+    // Liefert den angemeldeten Benutzer; bei fehlendem oder ungültigem Token wird direkt 401 gesendet.
+    public User authenticate(HttpExchange exchange) throws IOException {
+        return authenticator.authenticate(exchange);
+    }
+
+    // Die Filter (z. B. Zugangskontrolle) laufen vor dem Handler; der RouteListener erhält die Dauer jeder Route.
+    public void registerRoutes(HttpServer server, List<Filter> filters, RouteListener routeListener) {
+        HttpContext context = server.createContext("/api/media", new MediaHandler(this, routeListener));
+        context.getFilters().addAll(filters);
     }
 
 }
@@ -1,110 +1,116 @@
 package org.SalimMRP.presentation;
 
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.SalimMRP.business.dto.MediaDetails;
-import org.SalimMRP.business.dto.MediaSearchCriteria;
+import org.SalimMRP.persistence.MediaSearchCriteria;
+import org.SalimMRP.persistence.PageRequest;
 import org.SalimMRP.persistence.models.Media;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.User;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 // Zentrale Handler-Klasse für alle /api/media-Anfragen inklusive Suche, Favoriten und Empfehlungen.
-class MediaHandler implements HttpHandler {
+class MediaHandler implements HttpHandler, RoutedHandler {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+
     private final MediaController mediaController;
+    private final ObjectWriter mediaWriter;
+    private final ObjectWriter mediaListWriter;
+    private final ObjectWriter suggestionListWriter;
+    private final Router<User> router;
 
-    MediaHandler(MediaController mediaController) {
+    MediaHandler(MediaController mediaController, RouteListener routeListener) {
         this.mediaController = mediaController;
+        this.mediaWriter = mediaController.getResponseWriter().writerFor(MediaResponse.class);
+        this.mediaListWriter = mediaController.getResponseWriter().listWriterFor(MediaResponse.class);
+        this.suggestionListWriter = mediaController.getResponseWriter().listWriterFor(SuggestionResponse.class);
+        // /recommendations und /suggest müssen vor /{id} stehen, sonst würden sie als (ungültige) ID behandelt.
+        this.router = new Router<User>(routeListener)
+                .add("GET", "/api/media", this::handleSearch)
+                .add("POST", "/api/media", this::handleCreate)
+                .add("GET", "/api/media/recommendations", this::handleRecommendations)
+                .add("GET", "/api/media/suggest", this::handleSuggest)
+                .add("GET", "/api/media/{id}", this::handleGet)
+                .add("PUT", "/api/media/{id}", this::handleUpdate)
+                .add("DELETE", "/api/media/{id}", this::handleDelete)
+                .add("POST", "/api/media/{id}/favorites", this::handleAddFavorite)
+                .add("DELETE", "/api/media/{id}/favorites", this::handleRemoveFavorite);
+    }
+
+    @Override
+    public String routeKey(HttpExchange exchange) {
+        return router.routeKey(exchange.getRequestMethod(), exchange.getRequestURI().getRawPath());
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        User user = requireUser(exchange);
+        User user = mediaController.authenticate(exchange);
         if (user == null) {
             return;
         }
 
-        List<String> segments = Arrays.stream(exchange.getRequestURI().getPath().split("/"))
-                .filter(segment -> !segment.isBlank())
-                .toList();
-
-        if (segments.size() < 2
-                || !"api".equalsIgnoreCase(segments.get(0))
-                || !"media".equalsIgnoreCase(segments.get(1))) {
-            sendResponse(exchange, 404, "Not found");
-            return;
-        }
-
-        String method = exchange.getRequestMethod().toUpperCase();
-
-        if (segments.size() == 2) {
-            handleRoot(exchange, method, user);
-            return;
-        }
-
-        String third = segments.get(2);
-        if ("recommendations".equalsIgnoreCase(third)) {
-            handleRecommendations(exchange, method, user);
-            return;
-        }
-
-        Integer mediaId = parseId(third);
-        if (mediaId == null) {
-            sendResponse(exchange, 400, "Invalid media id");
-            return;
-        }
-
-        if (segments.size() == 3) {
-            handleSingleMedia(exchange, method, user, mediaId);
-            return;
-        }
-
-        String action = segments.get(3).toLowerCase();
-        if ("favorites".equals(action)) {
-            handleFavorites(exchange, method, user, mediaId);
-            return;
-        }
-
-        sendResponse(exchange, 404, "Not found");
-    }
-
-    private void handleRoot(HttpExchange exchange, String method, User user) throws IOException {
-        switch (method) {
-            case "GET" -> {
-                MediaSearchCriteria criteria = buildCriteria(exchange.getRequestURI().getQuery());
-                List<MediaDetails> details = mediaController.getMediaService().searchMedia(criteria, user.getId());
-                List<MediaResponse> response = details.stream()
-                        .map(detail -> MediaResponse.from(detail, user.getId(), false))
-                        .toList();
-                sendJsonResponse(exchange, 200, response);
+        switch (router.dispatch(exchange, user)) {
+            case NOT_FOUND -> sendResponse(exchange, 404, "Not found");
+            case METHOD_NOT_ALLOWED -> sendResponse(exchange, 405, "Method not allowed");
+            case HANDLED -> {
             }
-            case "POST" -> handleCreate(exchange, user);
-            default -> sendResponse(exchange, 405, "Method not allowed");
         }
     }
 
-    private void handleRecommendations(HttpExchange exchange, String method, User user) throws IOException {
-        if (!"GET".equals(method)) {
-            sendResponse(exchange, 405, "Method not allowed");
+    private void handleSearch(HttpExchange exchange, PathParams path, User user) throws IOException {
+        // Die Suchparameter stecken in der URL; das ETag muss nur Katalogstand und Benutzer unterscheiden.
+        String etag = etag("s", mediaController.getMediaService().catalogVersion(), user);
+        if (mediaController.getResponseWriter().notModified(exchange, etag)) {
             return;
         }
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getQuery());
+        MediaSearchCriteria criteria = buildCriteria(params);
+        List<MediaDetails> details = mediaController.getMediaService()
+                .searchMedia(criteria, user.getId(), buildPage(params));
+        List<MediaResponse> response = details.stream()
+                .map(detail -> MediaResponse.from(detail, user.getId(), false))
+                .toList();
+        mediaController.getResponseWriter().tag(exchange, etag);
+        sendJsonResponse(exchange, 200, mediaListWriter, response);
+    }
+
+    private void handleRecommendations(HttpExchange exchange, PathParams path, User user) throws IOException {
         List<MediaDetails> recommendations = mediaController.getMediaService().recommendMedia(user.getId());
         List<MediaResponse> response = recommendations.stream()
                 .map(detail -> MediaResponse.from(detail, user.getId(), false))
                 .toList();
-        sendJsonResponse(exchange, 200, response);
+        sendJsonResponse(exchange, 200, mediaListWriter, response);
     }
 
-    private void handleCreate(HttpExchange exchange, User user) throws IOException {
+    // Typeahead über den Titelindex: ?q=<Teil des Titels>&limit=<max. Treffer>; ohne q eine leere Liste.
+    private void handleSuggest(HttpExchange exchange, PathParams path, User user) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getQuery());
+        int limit = DEFAULT_SUGGESTIONS;
+        try {
+            if (params.containsKey("limit")) {
+                limit = Math.max(1, Integer.parseInt(params.get("limit")));
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        List<SuggestionResponse> response = mediaController.getMediaService()
+                .suggestMedia(params.getOrDefault("q", ""), limit).stream()
+                .map(SuggestionResponse::from)
+                .toList();
+        sendJsonResponse(exchange, 200, suggestionListWriter, response);
+    }
+
+    private void handleCreate(HttpExchange exchange, PathParams path, User user) throws IOException {
         Media media = mediaController.getMapper().readValue(exchange.getRequestBody(), Media.class);
         media.setCreatedByUserId(user.getId());
 
@@ -114,26 +120,33 @@ class MediaHandler implements HttpHandler {
         }
 
         MediaDetails details = mediaController.getMediaService().getDetailedMedia(media.getId(), user.getId());
-        sendJsonResponse(exchange, 201, MediaResponse.from(details, user.getId(), true));
+        sendJsonResponse(exchange, 201, mediaWriter, MediaResponse.from(details, user.getId(), true));
     }
 
-    private void handleSingleMedia(HttpExchange exchange, String method, User user, int mediaId) throws IOException {
-        switch (method) {
-            case "GET" -> {
-                MediaDetails details = mediaController.getMediaService().getDetailedMedia(mediaId, user.getId());
-                if (details == null) {
-                    sendResponse(exchange, 404, "Media not found");
-                    return;
-                }
-                sendJsonResponse(exchange, 200, MediaResponse.from(details, user.getId(), true));
-            }
-            case "PUT" -> handleUpdate(exchange, user, mediaId);
-            case "DELETE" -> handleDelete(exchange, user, mediaId);
-            default -> sendResponse(exchange, 405, "Method not allowed");
+    private void handleGet(HttpExchange exchange, PathParams path, User user) throws IOException {
+        Integer mediaId = requireMediaId(exchange, path);
+        if (mediaId == null) {
+            return;
+        }
+        // Version vor dem Laden lesen: Ändert sich das Medium währenddessen, ist das ETag höchstens zu alt.
+        String etag = etag("m" + mediaId, mediaController.getMediaService().mediaVersion(mediaId), user);
+        if (mediaController.getResponseWriter().notModified(exchange, etag)) {
+            return;
+        }
+        MediaDetails details = mediaController.getMediaService().getDetailedMedia(mediaId, user.getId());
+        if (details == null) {
+            sendResponse(exchange, 404, "Media not found");
+            return;
         }
+        mediaController.getResponseWriter().tag(exchange, etag);
+        sendJsonResponse(exchange, 200, mediaWriter, MediaResponse.from(details, user.getId(), true));
     }
 
-    private void handleUpdate(HttpExchange exchange, User user, int mediaId) throws IOException {
+    private void handleUpdate(HttpExchange exchange, PathParams path, User user) throws IOException {
+        Integer mediaId = requireMediaId(exchange, path);
+        if (mediaId == null) {
+            return;
+        }
         Media payload = mediaController.getMapper().readValue(exchange.getRequestBody(), Media.class);
         payload.setId(mediaId);
 
@@ -154,10 +167,14 @@ class MediaHandler implements HttpHandler {
         }
 
         MediaDetails updated = mediaController.getMediaService().getDetailedMedia(mediaId, user.getId());
-        sendJsonResponse(exchange, 200, MediaResponse.from(updated, user.getId(), true));
+        sendJsonResponse(exchange, 200, mediaWriter, MediaResponse.from(updated, user.getId(), true));
     }
 
-    private void handleDelete(HttpExchange exchange, User user, int mediaId) throws IOException {
+    private void handleDelete(HttpExchange exchange, PathParams path, User user) throws IOException {
+        Integer mediaId = requireMediaId(exchange, path);
+        if (mediaId == null) {
+            return;
+        }
         Media existing = mediaController.getMediaService().getMediaById(mediaId);
         if (existing == null) {
             sendResponse(exchange, 404, "Media not found");
@@ -175,27 +192,41 @@ class MediaHandler implements HttpHandler {
         sendResponse(exchange, 200, "Media deleted");
     }
 
-    private void handleFavorites(HttpExchange exchange, String method, User user, int mediaId) throws IOException {
-        boolean success;
-        switch (method) {
-            case "POST" -> success = mediaController.getMediaService().addFavorite(mediaId, user.getId());
-            case "DELETE" -> success = mediaController.getMediaService().removeFavorite(mediaId, user.getId());
-            default -> {
-                sendResponse(exchange, 405, "Method not allowed");
-                return;
-            }
+    private void handleAddFavorite(HttpExchange exchange, PathParams path, User user) throws IOException {
+        Integer mediaId = requireMediaId(exchange, path);
+        if (mediaId != null) {
+            respondFavorites(exchange, user, mediaId,
+                    mediaController.getMediaService().addFavorite(mediaId, user.getId()));
         }
+    }
 
+    private void handleRemoveFavorite(HttpExchange exchange, PathParams path, User user) throws IOException {
+        Integer mediaId = requireMediaId(exchange, path);
+        if (mediaId != null) {
+            respondFavorites(exchange, user, mediaId,
+                    mediaController.getMediaService().removeFavorite(mediaId, user.getId()));
+        }
+    }
+
+    private void respondFavorites(HttpExchange exchange, User user, int mediaId, boolean success) throws IOException {
         if (!success) {
             sendResponse(exchange, 400, "Unable to update favorites");
             return;
         }
         MediaDetails details = mediaController.getMediaService().getDetailedMedia(mediaId, user.getId());
-        sendJsonResponse(exchange, 200, MediaResponse.from(details, user.getId(), false));
+        sendJsonResponse(exchange, 200, mediaWriter, MediaResponse.from(details, user.getId(), false));
+    }
+
+    // Liest {id} aus dem Pfad; bei ungültiger ID wird direkt 400 gesendet.
+    private Integer requireMediaId(HttpExchange exchange, PathParams path) throws IOException {
+        Integer mediaId = path.getPositiveInt("id");
+        if (mediaId == null) {
+            sendResponse(exchange, 400, "Invalid media id");
+        }
+        return mediaId;
     }
 
-    private MediaSearchCriteria buildCriteria(String query) {
-        Map<String, String> params = parseQuery(query);
+    private MediaSearchCriteria buildCriteria(Map<String, String> params) {
         MediaSearchCriteria criteria = new MediaSearchCriteria();
 
         if (params.containsKey("title")) {
@@ -237,6 +268,25 @@ class MediaHandler implements HttpHandler {
         return criteria;
     }
 
+    // Ohne Angaben liefert die Suche die erste Seite mit DEFAULT_PAGE_SIZE Treffern; limit wird auf MAX_PAGE_SIZE gekappt.
+    private PageRequest buildPage(Map<String, String> params) {
+        int offset = 0;
+        int limit = DEFAULT_PAGE_SIZE;
+        if (params.containsKey("offset")) {
+            try {
+                offset = Math.max(0, Integer.parseInt(params.get("offset")));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        if (params.containsKey("limit")) {
+            try {
+                limit = Math.max(1, Math.min(MAX_PAGE_SIZE, Integer.parseInt(params.get("limit"))));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return PageRequest.of(offset, limit);
+    }
+
     private Map<String, String> parseQuery(String query) {
         Map<String, String> params = new HashMap<>();
         if (query == null || query.isBlank()) {
@@ -259,51 +309,17 @@ class MediaHandler implements HttpHandler {
         return java.net.URLDecoder.decode(value, StandardCharsets.UTF_8);
     }
 
-    private User requireUser(HttpExchange exchange) throws IOException {
-        String authHeader = exchange.getRequestHeaders().getFirst("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            sendResponse(exchange, 401, "Missing or invalid Authorization header");
-            return null;
-        }
-
-        String token = authHeader.substring("Bearer ".length()).trim();
-        if (!mediaController.getUserService().isTokenValid(token)) {
-            sendResponse(exchange, 401, "Invalid or expired token");
-            return null;
-        }
-
-        User user = mediaController.getUserService().getUserByToken(token);
-        if (user == null) {
-            sendResponse(exchange, 401, "Unknown user for token");
-        }
-        return user;
-    }
-
     private void sendResponse(HttpExchange exchange, int statusCode, String message) throws IOException {
-        byte[] body = message.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, body.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(body);
-        }
+        mediaController.getResponseWriter().sendText(exchange, statusCode, message);
     }
 
-    private void sendJsonResponse(HttpExchange exchange, int statusCode, Object response) throws IOException {
-        String json = mediaController.getMapper().writeValueAsString(response);
-        byte[] body = json.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, body.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(body);
-        }
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, ObjectWriter writer, Object response) throws IOException {
+        mediaController.getResponseWriter().sendJson(exchange, statusCode, writer, response);
     }
 
-    private Integer parseId(String rawId) {
-        try {
-            return Integer.parseInt(rawId);
-        } catch (NumberFormatException ex) {
-            return null;
-        }
+    // Schwaches ETag, da dieselbe Version je nach Accept-Encoding unterschiedlich kodiert ausgeliefert wird.
+    private String etag(String resource, String version, User user) {
+        return "W/\"" + resource + "-" + version + "-u" + user.getId() + "\"";
     }
 
     private static class MediaResponse {
@@ -320,6 +336,8 @@ class MediaHandler implements HttpHandler {
         public int favoritesCount;
         public boolean favoriteForUser;
         public List<RatingView> ratings;
+        // Nur gesetzt, wenn die eingebetteten Ratings nicht alle sind: Fortsetzung über /api/ratings/media/{id}?cursor=...
+        public String ratingsNextCursor;
 
         static MediaResponse from(MediaDetails details, int currentUserId, boolean includeRatings) {
             Media media = details.getMedia();
@@ -338,9 +356,13 @@ class MediaHandler implements HttpHandler {
             response.favoriteForUser = details.isFavoriteForUser();
 
             if (includeRatings) {
-                response.ratings = details.getRatings().stream()
+                List<Rating> ratings = details.getRatings();
+                response.ratings = ratings.stream()
                         .map(rating -> RatingView.from(rating, currentUserId))
                         .toList();
+                if (details.getRatingsNextCursor() != null) {
+                    response.ratingsNextCursor = details.getRatingsNextCursor().encode();
+                }
             } else {
                 response.ratings = List.of();
             }
@@ -348,6 +370,23 @@ class MediaHandler implements HttpHandler {
         }
     }
 
+    // Schlanke Antwort für Typeahead-Listen, ohne Ratings und Favoriten.
+    private static class SuggestionResponse {
+        public int id;
+        public String title;
+        public String mediaType;
+        public Integer releaseYear;
+
+        static SuggestionResponse from(Media media) {
+            SuggestionResponse response = new SuggestionResponse();
+            response.id = media.getId();
+            response.title = media.getTitle();
+            response.mediaType = media.getMediaType();
+            response.releaseYear = media.getReleaseYear();
+            return response;
+        }
+    }
+
     private static class RatingView {
         public int id;
         public int mediaId;
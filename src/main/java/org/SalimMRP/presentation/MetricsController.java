@@ -0,0 +1,50 @@
+package org.SalimMRP.presentation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.SalimMRP.business.UserService;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+// Sammelt benannte Kennzahlenquellen (Pool, Server, ...) und stellt sie unter /api/metrics bereit.
+public class MetricsController {
+
+    private final UserService userService;
+    private final ObjectMapper mapper;
+    private final Map<String, Supplier<?>> sources = new LinkedHashMap<>();
+
+    public MetricsController(UserService userService, ObjectMapper mapper) {
+        this.userService = Objects.requireNonNull(userService, "userService must not be null");
+        this.mapper = Objects.requireNonNull(mapper, "mapper must not be null");
+    }
+
+    public UserService getUserService() {
+        return userService;
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    // Registriert eine Quelle, die bei jeder Abfrage frisch ausgewertet wird.
+    public synchronized void register(String name, Supplier<?> source) {
+        sources.put(Objects.requireNonNull(name, "name must not be null"),
+                Objects.requireNonNull(source, "source must not be null"));
+    }
+
+    // Wertet alle Quellen aus und liefert eine Momentaufnahme in Registrierungsreihenfolge.
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<?>> entry : sources.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().get());
+        }
+        return snapshot;
+    }
+
+    public void registerRoutes(HttpServer server) {
+        server.createContext("/api/metrics", new MetricsHandler(this));
+    }
+}
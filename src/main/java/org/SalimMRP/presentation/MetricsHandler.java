@@ -0,0 +1,52 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// Liefert die registrierten Betriebskennzahlen als JSON (nur mit gültigem Token).
+class MetricsHandler implements HttpHandler {
+
+    private final MetricsController metricsController;
+
+    MetricsHandler(MetricsController metricsController) {
+        this.metricsController = metricsController;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String token = RequestAuthenticator.bearerToken(exchange);
+        if (token == null) {
+            sendResponse(exchange, 401, "Missing or invalid Authorization header");
+            return;
+        }
+        if (metricsController.getUserService().authenticate(token) == null) {
+            sendResponse(exchange, 401, "Invalid or expired token");
+            return;
+        }
+
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "Method not allowed");
+            return;
+        }
+
+        byte[] body = metricsController.getMapper().writeValueAsBytes(metricsController.snapshot());
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private void sendResponse(HttpExchange exchange, int statusCode, String message) throws IOException {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.SalimMRP.presentation;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+// Pfadparameter einer gefundenen Route. Gespeichert werden nur Start- und Endposition im Pfad;
+// Strings bzw. Zahlen entstehen erst, wenn ein Handler den Wert abfragt.
+class PathParams {
+
+    // Für Routen ohne Platzhalter; wird von allen Requests geteilt.
+    static final PathParams NONE = new PathParams("", new String[0]);
+
+    private final String path;
+    private final String[] names;
+    private final int[] bounds;
+
+    PathParams(String path, String[] names) {
+        this.path = path;
+        this.names = names;
+        this.bounds = new int[names.length * 2];
+    }
+
+    void set(int index, int start, int end) {
+        bounds[index * 2] = start;
+        bounds[index * 2 + 1] = end;
+    }
+
+    // Prozent-dekodierter Wert des Parameters, z. B. ein Benutzername; null bei einer ungültigen Kodierung.
+    // Anders als in Formularen steht "+" im Pfad für sich selbst, nicht für ein Leerzeichen.
+    String get(String name) {
+        int index = indexOf(name);
+        return decode(path, bounds[index * 2], bounds[index * 2 + 1]);
+    }
+
+    // Liefert den Parameter als positive Zahl oder null, wenn er keine ist.
+    Integer getPositiveInt(String name) {
+        int index = indexOf(name);
+        try {
+            int value = Integer.parseInt(path, bounds[index * 2], bounds[index * 2 + 1], 10);
+            return value > 0 ? value : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String decode(String path, int start, int end) {
+        int percent = path.indexOf('%', start);
+        if (percent < 0 || percent >= end) {
+            return path.substring(start, end);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(end - start);
+        int pos = start;
+        while (percent >= 0 && percent < end) {
+            bytes.writeBytes(path.substring(pos, percent).getBytes(StandardCharsets.UTF_8));
+            int high = percent + 2 < end ? Character.digit(path.charAt(percent + 1), 16) : -1;
+            int low = high >= 0 ? Character.digit(path.charAt(percent + 2), 16) : -1;
+            if (low < 0) {
+                return null;
+            }
+            bytes.write(high * 16 + low);
+            pos = percent + 3;
+            percent = path.indexOf('%', pos);
+        }
+        bytes.writeBytes(path.substring(pos, end).getBytes(StandardCharsets.UTF_8));
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown path parameter: " + name);
+    }
+}
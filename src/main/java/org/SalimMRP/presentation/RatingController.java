@@ -1,10 +1,16 @@
 package org.SalimMRP.presentation;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 import org.SalimMRP.business.RatingService;
 import org.SalimMRP.business.UserService;
+import org.SalimMRP.persistence.models.User;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Objects;
 
 // Einstiegspunkt für Rating-bezogene Endpunkte.
@@ -13,11 +19,15 @@ public class RatingController {
     private final RatingService ratingService;
     private final UserService userService;
     private final ObjectMapper mapper;
+    private final ResponseWriter responseWriter;
+    private final RequestAuthenticator authenticator;
 
-    public RatingController(RatingService ratingService, UserService userService, ObjectMapper mapper) {
+    public RatingController(RatingService ratingService, UserService userService, ObjectMapper mapper, ResponseWriter responseWriter) {
         this.ratingService = Objects.requireNonNull(ratingService, "ratingService must not be null");
         this.userService = Objects.requireNonNull(userService, "userService must not be null");
         this.mapper = Objects.requireNonNull(mapper, "mapper must not be null");
+        this.responseWriter = Objects.requireNonNull(responseWriter, "responseWriter must not be null");
+        this.authenticator = new RequestAuthenticator(userService, responseWriter);
     }
 
     public RatingService getRatingService() {
@@ -28,11 +38,22 @@ public class RatingController {
         return userService;
     }
 
+    // Liefert den angemeldeten Benutzer; bei fehlendem oder ungültigem Token wird direkt 401 gesendet.
+    public User authenticate(HttpExchange exchange) throws IOException {
+        return authenticator.authenticate(exchange);
+    }
+
     public ObjectMapper getMapper() {
         return mapper;
     }
 
-    public void registerRoutes(HttpServer server) {
-        server.createContext("/api/ratings", new RatingHandler(this));
+    public ResponseWriter getResponseWriter() {
+        return responseWriter;
+    }
+
+    // Die Filter (z. B. Zugangskontrolle) laufen vor dem Handler; der RouteListener erhält die Dauer jeder Route.
+    public void registerRoutes(HttpServer server, List<Filter> filters, RouteListener routeListener) {
+        HttpContext context = server.createContext("/api/ratings", new RatingHandler(this, routeListener));
+        context.getFilters().addAll(filters);
     }
 }
@@ -1,110 +1,83 @@
 package org.SalimMRP.presentation;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import org.SalimMRP.persistence.RatingPage;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.User;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
-import java.util.Objects;
 
 // Verarbeitet alle Anfragen zu /api/ratings, inklusive Likes und Moderation.
-class RatingHandler implements HttpHandler {
+class RatingHandler implements HttpHandler, RoutedHandler {
 
     private final RatingController ratingController;
+    private final ObjectWriter ratingWriter;
+    private final ObjectWriter ratingListWriter;
+    private final Router<User> router;
 
-    RatingHandler(RatingController ratingController) {
+    RatingHandler(RatingController ratingController, RouteListener routeListener) {
         this.ratingController = ratingController;
+        this.ratingWriter = ratingController.getResponseWriter().writerFor(RatingResponse.class);
+        this.ratingListWriter = ratingController.getResponseWriter().listWriterFor(RatingResponse.class);
+        this.router = new Router<User>(routeListener)
+                .add("GET", "/api/ratings/media/{mediaId}", withId("mediaId", "Invalid media id", this::handleListRatings))
+                .add("POST", "/api/ratings/media/{mediaId}", withId("mediaId", "Invalid media id", this::handleCreateRating))
+                .add("PUT", "/api/ratings/{ratingId}", withId("ratingId", "Invalid rating id", this::handleUpdateRating))
+                .add("DELETE", "/api/ratings/{ratingId}", withId("ratingId", "Invalid rating id", this::handleDeleteRating))
+                .add("POST", "/api/ratings/{ratingId}/confirm", withId("ratingId", "Invalid rating id", this::handleConfirmComment))
+                .add("POST", "/api/ratings/{ratingId}/likes", withId("ratingId", "Invalid rating id", this::handleLike))
+                .add("DELETE", "/api/ratings/{ratingId}/likes", withId("ratingId", "Invalid rating id", this::handleUnlike));
     }
 
     @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        User user = requireUser(exchange);
-        if (user == null) {
-            return;
-        }
-
-        String method = exchange.getRequestMethod().toUpperCase();
-        String path = exchange.getRequestURI().getPath();
-        String[] parts = path.split("/");
-
-        if (parts.length >= 4 && Objects.equals(parts[3], "media")) {
-            handleMediaScoped(exchange, method, parts, user);
-            return;
-        }
-
-        handleRatingScoped(exchange, method, parts, user);
-    }
-
-    private void handleMediaScoped(HttpExchange exchange, String method, String[] parts, User user) throws IOException {
-        if (parts.length < 5) {
-            sendResponse(exchange, 404, "Not found");
-            return;
-        }
-        Integer mediaId = parsePositiveInt(parts[4]);
-        if (mediaId == null) {
-            sendResponse(exchange, 400, "Invalid media id");
-            return;
-        }
-
-        switch (method) {
-            case "GET" -> handleListRatings(exchange, mediaId, user);
-            case "POST" -> handleCreateRating(exchange, mediaId, user);
-            default -> sendResponse(exchange, 405, "Method not allowed");
-        }
+    public String routeKey(HttpExchange exchange) {
+        return router.routeKey(exchange.getRequestMethod(), exchange.getRequestURI().getRawPath());
     }
 
-    private void handleRatingScoped(HttpExchange exchange, String method, String[] parts, User user) throws IOException {
-        if (parts.length < 4) {
-            sendResponse(exchange, 404, "Not found");
-            return;
-        }
-
-        Integer ratingId = parsePositiveInt(parts[3]);
-        if (ratingId == null) {
-            sendResponse(exchange, 400, "Invalid rating id");
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        User user = ratingController.authenticate(exchange);
+        if (user == null) {
             return;
         }
 
-        if (parts.length == 4) {
-            switch (method) {
-                case "PUT" -> handleUpdateRating(exchange, ratingId, user);
-                case "DELETE" -> handleDeleteRating(exchange, ratingId, user);
-                default -> sendResponse(exchange, 405, "Method not allowed");
+        switch (router.dispatch(exchange, user)) {
+            case NOT_FOUND -> sendResponse(exchange, 404, "Not found");
+            case METHOD_NOT_ALLOWED -> sendResponse(exchange, 405, "Method not allowed");
+            case HANDLED -> {
             }
-            return;
-        }
-
-        if (parts.length == 5 && Objects.equals(parts[4], "confirm") && "POST".equals(method)) {
-            handleConfirmComment(exchange, ratingId, user);
-            return;
         }
+    }
 
-        if (parts.length == 5 && Objects.equals(parts[4], "likes")) {
-            if ("POST".equals(method)) {
-                handleLike(exchange, ratingId, user);
-                return;
-            }
-            if ("DELETE".equals(method)) {
-                handleUnlike(exchange, ratingId, user);
+    // Wandelt den Pfadparameter in eine positive ID um; ungültige IDs werden mit 400 beantwortet.
+    private Router.Action<User> withId(String param, String invalidMessage, IdAction action) {
+        return (exchange, path, user) -> {
+            Integer id = path.getPositiveInt(param);
+            if (id == null) {
+                sendResponse(exchange, 400, invalidMessage);
                 return;
             }
-        }
-
-        sendResponse(exchange, 404, "Not found");
+            action.handle(exchange, id, user);
+        };
     }
 
     private void handleListRatings(HttpExchange exchange, int mediaId, User user) throws IOException {
-        List<Rating> ratings = ratingController.getRatingService().getRatingsForMedia(mediaId);
-        List<RatingResponse> response = ratings.stream()
+        RatingPaging.Request paging = RatingPaging.parse(exchange.getRequestURI().getRawQuery());
+        if (paging == null) {
+            sendResponse(exchange, 400, "Invalid cursor");
+            return;
+        }
+        RatingPage page = ratingController.getRatingService()
+                .getRatingsForMedia(mediaId, paging.after(), paging.limit());
+        List<RatingResponse> response = page.ratings().stream()
                 .map(r -> RatingResponse.from(r, user.getId()))
                 .toList();
-        sendJsonResponse(exchange, 200, response);
+        RatingPaging.tagNextCursor(exchange, page);
+        sendJsonResponse(exchange, 200, ratingListWriter, response);
     }
 
     private void handleCreateRating(HttpExchange exchange, int mediaId, User user) throws IOException {
@@ -127,7 +100,7 @@ class RatingHandler implements HttpHandler {
             sendResponse(exchange, 400, "Unable to create rating");
             return;
         }
-        sendJsonResponse(exchange, 201, RatingResponse.from(created, user.getId()));
+        sendJsonResponse(exchange, 201, ratingWriter, RatingResponse.from(created, user.getId()));
     }
 
     private void handleUpdateRating(HttpExchange exchange, int ratingId, User user) throws IOException {
@@ -149,7 +122,7 @@ class RatingHandler implements HttpHandler {
         }
 
         Rating refreshed = ratingController.getRatingService().getRatingById(ratingId);
-        sendJsonResponse(exchange, 200, RatingResponse.from(refreshed, user.getId()));
+        sendJsonResponse(exchange, 200, ratingWriter, RatingResponse.from(refreshed, user.getId()));
     }
 
     private void handleDeleteRating(HttpExchange exchange, int ratingId, User user) throws IOException {
@@ -168,7 +141,7 @@ class RatingHandler implements HttpHandler {
             return;
         }
         Rating refreshed = ratingController.getRatingService().getRatingById(ratingId);
-        sendJsonResponse(exchange, 200, RatingResponse.from(refreshed, user.getId()));
+        sendJsonResponse(exchange, 200, ratingWriter, RatingResponse.from(refreshed, user.getId()));
     }
 
     private void handleLike(HttpExchange exchange, int ratingId, User user) throws IOException {
@@ -178,7 +151,7 @@ class RatingHandler implements HttpHandler {
             return;
         }
         Rating refreshed = ratingController.getRatingService().getRatingById(ratingId);
-        sendJsonResponse(exchange, 200, RatingResponse.from(refreshed, user.getId()));
+        sendJsonResponse(exchange, 200, ratingWriter, RatingResponse.from(refreshed, user.getId()));
     }
 
     private void handleUnlike(HttpExchange exchange, int ratingId, User user) throws IOException {
@@ -188,7 +161,7 @@ class RatingHandler implements HttpHandler {
             return;
         }
         Rating refreshed = ratingController.getRatingService().getRatingById(ratingId);
-        sendJsonResponse(exchange, 200, RatingResponse.from(refreshed, user.getId()));
+        sendJsonResponse(exchange, 200, ratingWriter, RatingResponse.from(refreshed, user.getId()));
     }
 
     private <T> T readRequest(HttpExchange exchange, Class<T> type) {
@@ -200,55 +173,16 @@ class RatingHandler implements HttpHandler {
     }
 
     private void sendResponse(HttpExchange exchange, int statusCode, String message) throws IOException {
-        byte[] body = message.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, body.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(body);
-        }
-    }
-
-    private void sendJsonResponse(HttpExchange exchange, int statusCode, Object payload) throws IOException {
-        byte[] body = toJson(payload);
-        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, body.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(body);
-        }
+        ratingController.getResponseWriter().sendText(exchange, statusCode, message);
     }
 
-    private byte[] toJson(Object payload) throws JsonProcessingException {
-        String json = ratingController.getMapper().writeValueAsString(payload);
-        return json.getBytes(StandardCharsets.UTF_8);
+    private void sendJsonResponse(HttpExchange exchange, int statusCode, ObjectWriter writer, Object payload) throws IOException {
+        ratingController.getResponseWriter().sendJson(exchange, statusCode, writer, payload);
     }
 
-    private User requireUser(HttpExchange exchange) throws IOException {
-        String authHeader = exchange.getRequestHeaders().getFirst("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            sendResponse(exchange, 401, "Missing or invalid Authorization header");
-            return null;
-        }
-
-        String token = authHeader.substring("Bearer ".length()).trim();
-        if (!ratingController.getUserService().isTokenValid(token)) {
-            sendResponse(exchange, 401, "Invalid or expired token");
-            return null;
-        }
-
-        User user = ratingController.getUserService().getUserByToken(token);
-        if (user == null) {
-            sendResponse(exchange, 401, "Unknown user for token");
-        }
-        return user;
-    }
-
-    private Integer parsePositiveInt(String value) {
-        try {
-            int parsed = Integer.parseInt(value);
-            return parsed > 0 ? parsed : null;
-        } catch (NumberFormatException ex) {
-            return null;
-        }
+    @FunctionalInterface
+    private interface IdAction {
+        void handle(HttpExchange exchange, int id, User user) throws IOException;
     }
 
     private static class RatingRequest {
@@ -0,0 +1,65 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.SalimMRP.persistence.RatingCursor;
+import org.SalimMRP.persistence.RatingPage;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+// Gemeinsames Paging der Rating-Listen: ?limit=..&cursor=.. in der Query, der Cursor der nächsten Seite kommt
+// im Header X-Next-Cursor zurück (fehlt auf der letzten Seite). Der Body bleibt ein JSON-Array.
+final class RatingPaging {
+
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 100;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    record Request(RatingCursor after, int limit) {
+    }
+
+    private RatingPaging() {
+    }
+
+    // Liefert null, wenn ein Cursor angegeben, aber ungültig ist oder die Query falsch kodiert ist;
+    // limit wird auf 1..MAX_LIMIT begrenzt.
+    static Request parse(String query) {
+        RatingCursor after = null;
+        int limit = DEFAULT_LIMIT;
+        if (query == null || query.isBlank()) {
+            return new Request(null, limit);
+        }
+        for (String pair : query.split("&")) {
+            int idx = pair.indexOf('=');
+            if (idx <= 0) {
+                continue;
+            }
+            String key = pair.substring(0, idx).toLowerCase();
+            String value;
+            try {
+                value = URLDecoder.decode(pair.substring(idx + 1), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                // Kaputte Escapes wie %zz sind ein Fehler des Clients und werden wie ein ungültiger Cursor behandelt.
+                return null;
+            }
+            if (key.equals("cursor") && !value.isEmpty()) {
+                after = RatingCursor.decode(value);
+                if (after == null) {
+                    return null;
+                }
+            } else if (key.equals("limit")) {
+                try {
+                    limit = Math.max(1, Math.min(MAX_LIMIT, Integer.parseInt(value)));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return new Request(after, limit);
+    }
+
+    static void tagNextCursor(HttpExchange exchange, RatingPage page) {
+        if (page.hasMore()) {
+            exchange.getResponseHeaders().set(NEXT_CURSOR_HEADER, page.nextCursor().encode());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.SalimMRP.presentation;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import org.SalimMRP.business.auth.PasswordHashingBusyException;
 import org.SalimMRP.persistence.models.User;
 
 import java.io.IOException;
@@ -23,7 +24,13 @@ class RegisterHandler implements HttpHandler {
 
         // Der Body wird als JSON gelesen und direkt in ein User-Objekt gemappt.
         User user = userController.getMapper().readValue(exchange.getRequestBody(), User.class);
-        boolean success = userController.getUserService().register(user);
+        boolean success;
+        try {
+            success = userController.getUserService().register(user);
+        } catch (PasswordHashingBusyException e) {
+            userController.sendBusyResponse(exchange);
+            return;
+        }
 
         if (success) {
             userController.sendResponse(exchange, 201, "User registered successfully.");
@@ -0,0 +1,43 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.SalimMRP.business.UserService;
+import org.SalimMRP.persistence.models.User;
+
+import java.io.IOException;
+import java.util.Objects;
+
+// Gemeinsame Bearer-Authentifizierung der geschützten Handler: ein authenticate-Aufruf pro Request,
+// der den Benutzer in der Regel ohne Datenbankzugriff liefert. Bei Fehlern wird direkt 401 gesendet.
+class RequestAuthenticator {
+
+    private final UserService userService;
+    private final ResponseWriter responses;
+
+    RequestAuthenticator(UserService userService, ResponseWriter responses) {
+        this.userService = Objects.requireNonNull(userService, "userService must not be null");
+        this.responses = Objects.requireNonNull(responses, "responses must not be null");
+    }
+
+    User authenticate(HttpExchange exchange) throws IOException {
+        String token = bearerToken(exchange);
+        if (token == null) {
+            responses.sendText(exchange, 401, "Missing or invalid Authorization header");
+            return null;
+        }
+
+        User user = userService.authenticate(token);
+        if (user == null) {
+            responses.sendText(exchange, 401, "Invalid or expired token");
+        }
+        return user;
+    }
+
+    static String bearerToken(HttpExchange exchange) {
+        String authHeader = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        return authHeader.substring("Bearer ".length()).trim();
+    }
+}
@@ -0,0 +1,344 @@
+package org.SalimMRP.presentation;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Gemeinsamer Antwortpfad der Handler. JSON wird direkt in den Response-Body serialisiert (Chunked Transfer),
+// statt erst einen String und daraus ein Byte-Array aufzubauen. Die ObjectWriter werden pro Typ einmal erzeugt.
+// Akzeptiert der Client gzip oder deflate, werden JSON-Antworten ab einer Mindestgröße komprimiert gestreamt.
+public class ResponseWriter {
+
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    private final ObjectMapper mapper;
+    private final int compressionThreshold;
+    private final Map<JavaType, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder uncompressedResponses = new LongAdder();
+    private final LongAdder bytesBeforeCompression = new LongAdder();
+    private final LongAdder bytesAfterCompression = new LongAdder();
+
+    public ResponseWriter(ObjectMapper mapper) {
+        this(mapper, DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    // Antworten unterhalb von compressionThreshold Bytes werden unkomprimiert und mit fester Länge gesendet.
+    public ResponseWriter(ObjectMapper mapper, int compressionThreshold) {
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("compressionThreshold must not be negative");
+        }
+        this.mapper = Objects.requireNonNull(mapper, "mapper must not be null");
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    // Liefert einen wiederverwendbaren Writer für den angegebenen Antworttyp.
+    ObjectWriter writerFor(Class<?> type) {
+        return writerFor(mapper.getTypeFactory().constructType(type));
+    }
+
+    // Writer für List<elementType>; der Elementtyp ist damit bereits aufgelöst und muss nicht pro Eintrag ermittelt werden.
+    ObjectWriter listWriterFor(Class<?> elementType) {
+        return writerFor(mapper.getTypeFactory().constructCollectionType(List.class, elementType));
+    }
+
+    private ObjectWriter writerFor(JavaType type) {
+        return writers.computeIfAbsent(type, mapper::writerFor);
+    }
+
+    // Für Antworten ohne festen Typ (z. B. Maps) wird der Writer anhand der Laufzeitklasse gewählt.
+    void sendJson(HttpExchange exchange, int statusCode, Object payload) throws IOException {
+        ObjectWriter writer = payload == null ? mapper.writer() : writerFor(payload.getClass());
+        sendJson(exchange, statusCode, writer, payload);
+    }
+
+    // Die Länge ist vorab unbekannt, daher Chunked Transfer. Erst wenn die Antwort die Schwelle überschreitet,
+    // werden die Header gesendet; kleinere Antworten gehen mit fester Länge raus. Scheitert die Serialisierung
+    // danach, ist der Status bereits gesendet; die Antwort wird dann abgebrochen statt unvollständig beendet.
+    void sendJson(HttpExchange exchange, int statusCode, ObjectWriter writer, Object payload) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        DeferredBody body = new DeferredBody(exchange, statusCode, negotiate(exchange));
+        try {
+            writer.writeValue(body, payload);
+        } catch (IOException | RuntimeException e) {
+            body.abort();
+            throw e;
+        }
+        body.finish();
+    }
+
+    // Kurze Textantworten haben eine bekannte Länge; ein leerer Body wird ganz ohne Body gesendet (z. B. 204).
+    void sendText(HttpExchange exchange, int statusCode, String message) throws IOException {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, body.length == 0 ? -1 : body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    // Beantwortet If-None-Match mit 304, wenn der Client die Version bereits hat (schwacher Vergleich).
+    boolean notModified(HttpExchange exchange, String etag) throws IOException {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null || !matchesAny(ifNoneMatch, etag)) {
+            return false;
+        }
+        tag(exchange, etag);
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return true;
+    }
+
+    // Die Antworten enthalten benutzerbezogene Felder, daher nur privat cachen und immer revalidieren.
+    void tag(HttpExchange exchange, String etag) {
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", "private, no-cache");
+    }
+
+    private boolean matchesAny(String ifNoneMatch, String etag) {
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || stripWeak(trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    public CompressionMetrics metrics() {
+        long before = bytesBeforeCompression.sum();
+        long after = bytesAfterCompression.sum();
+        return new CompressionMetrics(
+                compressedResponses.sum(),
+                uncompressedResponses.sum(),
+                before,
+                after,
+                before - after
+        );
+    }
+
+    // Wählt anhand von Accept-Encoding gzip vor deflate; Einträge mit q=0 gelten als abgelehnt.
+    // "*" gilt nur für Kodierungen, die nicht ausdrücklich genannt sind; "gzip;q=0, *" schließt gzip also aus.
+    private Encoding negotiate(HttpExchange exchange) {
+        List<String> headers = exchange.getRequestHeaders().get("Accept-Encoding");
+        if (headers == null) {
+            return Encoding.IDENTITY;
+        }
+        Boolean gzip = null;
+        Boolean deflate = null;
+        boolean wildcard = false;
+        for (String header : headers) {
+            for (String entry : header.split(",")) {
+                String[] parts = entry.trim().split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+                boolean accepted = !isRejected(parts);
+                switch (coding) {
+                    case "gzip", "x-gzip" -> gzip = accepted && (gzip == null || gzip);
+                    case "deflate" -> deflate = accepted && (deflate == null || deflate);
+                    case "*" -> wildcard = accepted;
+                    default -> {
+                    }
+                }
+            }
+        }
+        if (gzip != null ? gzip : wildcard) {
+            return Encoding.GZIP;
+        }
+        return (deflate != null ? deflate : wildcard) ? Encoding.DEFLATE : Encoding.IDENTITY;
+    }
+
+    private boolean isRejected(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) <= 0.0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private enum Encoding {
+        IDENTITY(null),
+        GZIP("gzip"),
+        DEFLATE("deflate");
+
+        private final String headerValue;
+
+        Encoding(String headerValue) {
+            this.headerValue = headerValue;
+        }
+    }
+
+    // Puffert den Anfang der Antwort, bis feststeht, ob sich Kompression lohnt, und streamt danach direkt.
+    private class DeferredBody extends OutputStream {
+        private final HttpExchange exchange;
+        private final int statusCode;
+        private final Encoding encoding;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private CountingOutputStream wire;
+        private OutputStream target;
+        // Hält nativen zlib-Speicher; wird in finish() und abort() freigegeben, nicht erst vom GC.
+        private Deflater deflater;
+        private long written;
+        private boolean finished;
+
+        DeferredBody(HttpExchange exchange, int statusCode, Encoding encoding) {
+            this.exchange = exchange;
+            this.statusCode = statusCode;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            written += len;
+            if (target == null) {
+                if (buffer.size() + len < compressionThreshold) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                startStreaming();
+            }
+            target.write(b, off, len);
+        }
+
+        // Vor der Entscheidung wird nicht geflusht, sonst wären die Header zu früh festgelegt.
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        private void startStreaming() throws IOException {
+            if (encoding != Encoding.IDENTITY) {
+                exchange.getResponseHeaders().set("Content-Encoding", encoding.headerValue);
+            }
+            exchange.sendResponseHeaders(statusCode, 0);
+            wire = new CountingOutputStream(exchange.getResponseBody());
+            target = switch (encoding) {
+                case GZIP -> {
+                    GzipStream gzip = new GzipStream(wire);
+                    deflater = gzip.deflater();
+                    yield gzip;
+                }
+                case DEFLATE -> {
+                    deflater = new Deflater();
+                    yield new DeflaterOutputStream(wire, deflater, 8192);
+                }
+                case IDENTITY -> wire;
+            };
+            buffer.writeTo(target);
+            buffer.reset();
+        }
+
+        // Jackson schließt den Ziel-Stream nach dem Schreiben; abgeschlossen wird erst über finish() bzw. abort().
+        @Override
+        public void close() {
+        }
+
+        // Der Stream bleibt offen; die weitergereichte Exception lässt den HttpServer die Verbindung schließen,
+        // sodass der Client keine scheinbar vollständige, aber abgeschnittene Antwort erhält.
+        void abort() {
+            finished = true;
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+
+            if (target == null) {
+                // Komplett unter der Schwelle geblieben: unkomprimiert mit bekannter Länge senden.
+                exchange.sendResponseHeaders(statusCode, buffer.size() == 0 ? -1 : buffer.size());
+                try (OutputStream os = exchange.getResponseBody()) {
+                    buffer.writeTo(os);
+                }
+                uncompressedResponses.increment();
+                return;
+            }
+
+            try {
+                target.close();
+            } finally {
+                // Ein übergebener Deflater wird von DeflaterOutputStream.close() nicht beendet; end() ist idempotent.
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+            if (encoding == Encoding.IDENTITY) {
+                uncompressedResponses.increment();
+            } else {
+                compressedResponses.increment();
+                bytesBeforeCompression.add(written);
+                bytesAfterCompression.add(wire.count);
+            }
+        }
+    }
+
+    // GZIPOutputStream nimmt keinen eigenen Deflater entgegen; so bleibt der intern erzeugte erreichbar.
+    private static final class GzipStream extends GZIPOutputStream {
+
+        GzipStream(OutputStream out) throws IOException {
+            super(out, 8192);
+        }
+
+        Deflater deflater() {
+            return def;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
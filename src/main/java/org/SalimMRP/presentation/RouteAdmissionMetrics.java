@@ -0,0 +1,9 @@
+package org.SalimMRP.presentation;
+
+// Momentaufnahme der Zugangskontrolle einer Route: aktuelles Limit, laufende sowie angenommene und abgewiesene Requests.
+public record RouteAdmissionMetrics(int limit,
+                                    int inFlight,
+                                    long accepted,
+                                    long rejected,
+                                    double lastLatencyMillis) {
+}
@@ -0,0 +1,9 @@
+package org.SalimMRP.presentation;
+
+// Wird nach jeder vom Router ausgeführten Route mit deren Dauer aufgerufen (z. B. für Kennzahlen oder Logging).
+@FunctionalInterface
+public interface RouteListener {
+
+    // template ist das registrierte Muster (z. B. /api/media/{id}), nicht der konkrete Pfad.
+    void routeCompleted(String method, String template, long durationNanos);
+}
@@ -0,0 +1,7 @@
+package org.SalimMRP.presentation;
+
+// Laufzeitstatistik einer Route seit dem Serverstart.
+public record RouteTiming(long count,
+                          double averageMillis,
+                          double maxMillis) {
+}
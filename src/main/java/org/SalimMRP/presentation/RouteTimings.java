@@ -0,0 +1,37 @@
+package org.SalimMRP.presentation;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sammelt Anzahl sowie durchschnittliche und maximale Dauer je Route ("GET /api/media/{id}").
+public class RouteTimings implements RouteListener {
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    @Override
+    public void routeCompleted(String method, String template, long durationNanos) {
+        Stats route = stats.computeIfAbsent(method + " " + template, key -> new Stats());
+        route.count.increment();
+        route.totalNanos.add(durationNanos);
+        route.maxNanos.accumulate(durationNanos);
+    }
+
+    public Map<String, RouteTiming> snapshot() {
+        Map<String, RouteTiming> snapshot = new TreeMap<>();
+        stats.forEach((route, values) -> {
+            long count = values.count.sum();
+            double average = count == 0 ? 0.0 : values.totalNanos.sum() / (double) count / 1_000_000.0;
+            snapshot.put(route, new RouteTiming(count, average, values.maxNanos.get() / 1_000_000.0));
+        });
+        return snapshot;
+    }
+
+    private static final class Stats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+    }
+}
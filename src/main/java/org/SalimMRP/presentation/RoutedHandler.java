@@ -0,0 +1,11 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.HttpExchange;
+
+// Handler mit eigener Routentabelle. Filter, die vor dem Handler laufen (z. B. die Zugangskontrolle), erfahren darüber,
+// welche registrierte Route ein Request treffen wird.
+interface RoutedHandler {
+
+    // "METHODE /registriertes/{muster}" der passenden Route oder null, wenn keine Route mit dieser Methode passt.
+    String routeKey(HttpExchange exchange);
+}
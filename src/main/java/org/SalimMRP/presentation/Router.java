@@ -0,0 +1,177 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+// Vorab kompilierte Routentabelle für einen Handler. Templates wie /api/media/{id}/favorites werden einmal
+// in Segmente zerlegt; beim Request wird der Pfad direkt Zeichen für Zeichen verglichen, ohne ihn aufzusplitten.
+// Routen werden in Registrierungsreihenfolge geprüft, feste Pfade (z. B. /recommendations) daher vor Parametern eintragen.
+// C ist der Kontext, den der Handler vor dem Routing ermittelt (z. B. der angemeldete Benutzer).
+class Router<C> {
+
+    // Ergebnis eines dispatch-Aufrufs; 404 und 405 formuliert der Handler selbst.
+    enum Outcome {
+        HANDLED,
+        NOT_FOUND,
+        METHOD_NOT_ALLOWED
+    }
+
+    @FunctionalInterface
+    interface Action<C> {
+        void handle(HttpExchange exchange, PathParams params, C context) throws IOException;
+    }
+
+    private final List<Route<C>> routes = new ArrayList<>();
+    private final RouteListener listener;
+
+    Router(RouteListener listener) {
+        this.listener = Objects.requireNonNull(listener, "listener must not be null");
+    }
+
+    Router<C> add(String method, String template, Action<C> action) {
+        Objects.requireNonNull(action, "action must not be null");
+        Route<C> route = routes.stream()
+                .filter(existing -> existing.template.equals(template))
+                .findFirst()
+                .orElseGet(() -> {
+                    Route<C> compiled = Route.compile(template);
+                    routes.add(compiled);
+                    return compiled;
+                });
+        route.put(method.toUpperCase(Locale.ROOT), action);
+        return this;
+    }
+
+    // Sucht die erste passende Route und führt die Aktion zur Methode aus; die Dauer geht an den RouteListener.
+    // Pfadparameter werden erst angelegt, wenn eine Route mit Platzhaltern passt. Verglichen wird der rohe Pfad,
+    // damit kodierte Schrägstriche in Parametern keine Segmente bilden und PathParams genau einmal dekodiert.
+    Outcome dispatch(HttpExchange exchange, C context) throws IOException {
+        String path = exchange.getRequestURI().getRawPath();
+        String requestMethod = exchange.getRequestMethod();
+
+        for (Route<C> route : routes) {
+            if (!route.matches(path, null)) {
+                continue;
+            }
+            int index = route.indexOf(requestMethod);
+            if (index < 0) {
+                return Outcome.METHOD_NOT_ALLOWED;
+            }
+
+            PathParams params = PathParams.NONE;
+            if (route.paramNames.length > 0) {
+                params = new PathParams(path, route.paramNames);
+                route.matches(path, params);
+            }
+            long start = System.nanoTime();
+            try {
+                route.actions.get(index).handle(exchange, params, context);
+            } finally {
+                listener.routeCompleted(route.methods.get(index), route.template, System.nanoTime() - start);
+            }
+            return Outcome.HANDLED;
+        }
+        return Outcome.NOT_FOUND;
+    }
+
+    // Schlüssel "METHODE /muster" der Route, die dispatch ausführen würde; null, wenn keine Route mit der Methode passt.
+    String routeKey(String method, String path) {
+        for (Route<C> route : routes) {
+            if (route.matches(path, null)) {
+                int index = route.indexOf(method);
+                return index < 0 ? null : route.methods.get(index) + " " + route.template;
+            }
+        }
+        return null;
+    }
+
+    private static final class Route<C> {
+        private final String template;
+        // Pro Segment entweder der feste Text oder null für einen Parameter.
+        private final String[] literals;
+        private final String[] paramNames;
+        // Methoden in Großbuchstaben, parallel zu actions; pro Route sind es nur wenige Einträge.
+        private final List<String> methods = new ArrayList<>(2);
+        private final List<Action<C>> actions = new ArrayList<>(2);
+
+        private Route(String template, String[] literals, String[] paramNames) {
+            this.template = template;
+            this.literals = literals;
+            this.paramNames = paramNames;
+        }
+
+        void put(String method, Action<C> action) {
+            int index = methods.indexOf(method);
+            if (index >= 0) {
+                actions.set(index, action);
+            } else {
+                methods.add(method);
+                actions.add(action);
+            }
+        }
+
+        int indexOf(String method) {
+            for (int i = 0; i < methods.size(); i++) {
+                if (methods.get(i).equalsIgnoreCase(method)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        static <C> Route<C> compile(String template) {
+            List<String> literals = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            for (String segment : template.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    literals.add(null);
+                    names.add(segment.substring(1, segment.length() - 1));
+                } else {
+                    literals.add(segment);
+                }
+            }
+            return new Route<>(template, literals.toArray(String[]::new), names.toArray(String[]::new));
+        }
+
+        // Leere Segmente (doppelte oder abschließende Slashes) werden wie bisher ignoriert; Literale ohne Groß-/Kleinschreibung.
+        // Ist params null, wird nur geprüft, ohne Positionen festzuhalten.
+        boolean matches(String path, PathParams params) {
+            int pos = 0;
+            int length = path.length();
+            int param = 0;
+            for (String literal : literals) {
+                while (pos < length && path.charAt(pos) == '/') {
+                    pos++;
+                }
+                if (pos == length) {
+                    return false;
+                }
+                int end = path.indexOf('/', pos);
+                if (end < 0) {
+                    end = length;
+                }
+                if (literal == null) {
+                    if (params != null) {
+                        params.set(param++, pos, end);
+                    }
+                } else if (end - pos != literal.length()
+                        || !path.regionMatches(true, pos, literal, 0, literal.length())) {
+                    return false;
+                }
+                pos = end;
+            }
+            while (pos < length && path.charAt(pos) == '/') {
+                pos++;
+            }
+            return pos == length;
+        }
+    }
+}
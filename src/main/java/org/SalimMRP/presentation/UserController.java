@@ -1,55 +1,97 @@
 package org.SalimMRP.presentation;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
+import org.SalimMRP.business.MediaService;
+import org.SalimMRP.business.ProfileService;
 import org.SalimMRP.business.UserService;
+import org.SalimMRP.persistence.models.User;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Objects;
 
 // Registriert die Benutzer-Endpunkte und stellt Hilfsfunktionen für Antworten bereit.
 public class UserController {
 
     private final ObjectMapper mapper;
+    private final ResponseWriter responseWriter;
+    private final RequestAuthenticator authenticator;
     private final UserService userService;
+    private final ProfileService profileService;
+    private final MediaService mediaService;
 
-    // Service und JSON-Mapper werden über den Konstruktor injiziert.
-    public UserController(UserService userService, ObjectMapper mapper) {
+    // Services und JSON-Mapper werden über den Konstruktor injiziert.
+    public UserController(UserService userService, ProfileService profileService, MediaService mediaService,
+                          ObjectMapper mapper, ResponseWriter responseWriter) {
         this.userService = Objects.requireNonNull(userService, "userService must not be null");
+        this.profileService = Objects.requireNonNull(profileService, "profileService must not be null");
+        this.mediaService = Objects.requireNonNull(mediaService, "mediaService must not be null");
         this.mapper = Objects.requireNonNull(mapper, "mapper must not be null");
+        this.responseWriter = Objects.requireNonNull(responseWriter, "responseWriter must not be null");
+        this.authenticator = new RequestAuthenticator(userService, responseWriter);
     }
 
     public ObjectMapper getMapper() {
         return mapper;
     }
 
+    public ResponseWriter getResponseWriter() {
+        return responseWriter;
+    }
+
     public UserService getUserService() {
         return userService;
     }
 
-    public void registerRoutes(HttpServer server) {
-        server.createContext("/api/users/register", new RegisterHandler(this));
-        server.createContext("/api/users/login", new LoginHandler(this));
+    public ProfileService getProfileService() {
+        return profileService;
+    }
+
+    public MediaService getMediaService() {
+        return mediaService;
+    }
+
+    // Registriert alle Benutzer-Routen; die Filter (z. B. Zugangskontrolle) laufen vor jedem Handler,
+    // der RouteListener erhält die Dauer jeder Route unter /api/users.
+    public void registerRoutes(HttpServer server, List<Filter> filters, RouteListener routeListener) {
+        List<HttpContext> contexts = List.of(
+                server.createContext("/api/users/register", new RegisterHandler(this)),
+                server.createContext("/api/users/login", new LoginHandler(this)),
+                server.createContext("/api/users", new UserHandler(this, routeListener))
+        );
+        for (HttpContext context : contexts) {
+            context.getFilters().addAll(filters);
+        }
+    }
+
+    // Liefert den angemeldeten Benutzer; bei fehlendem oder ungültigem Token wird direkt 401 gesendet.
+    public User authenticate(HttpExchange exchange) throws IOException {
+        return authenticator.authenticate(exchange);
     }
 
     // Sendet eine Text-Antwort mit dem gewünschten Statuscode.
     public void sendResponse(HttpExchange exchange, int statusCode, String message) throws IOException {
-        exchange.sendResponseHeaders(statusCode, message.getBytes(StandardCharsets.UTF_8).length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(message.getBytes(StandardCharsets.UTF_8));
-        }
+        responseWriter.sendText(exchange, statusCode, message);
+    }
+
+    // Das Passwort-Hashing ist ausgelastet: 503, der Client soll es kurz darauf erneut versuchen.
+    void sendBusyResponse(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        sendResponse(exchange, 503, "Server busy, please retry later");
     }
 
-    // Serialisiert ein Objekt nach JSON und setzt den passenden Content-Type.
+    // Serialisiert ein Objekt direkt als JSON in den Response-Body.
     public void sendJsonResponse(HttpExchange exchange, int statusCode, Object response) throws IOException {
-        String json = mapper.writeValueAsString(response);
-        exchange.getResponseHeaders().add("Content-Type", "application/json");
-        exchange.sendResponseHeaders(statusCode, json.getBytes(StandardCharsets.UTF_8).length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(json.getBytes(StandardCharsets.UTF_8));
-        }
+        responseWriter.sendJson(exchange, statusCode, response);
+    }
+
+    // Wie sendJsonResponse, aber mit einem vorab erzeugten Writer für den Antworttyp.
+    public void sendJsonResponse(HttpExchange exchange, int statusCode, ObjectWriter writer, Object response) throws IOException {
+        responseWriter.sendJson(exchange, statusCode, writer, response);
     }
 }
@@ -1,10 +1,12 @@
 package org.SalimMRP.presentation;
 
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.SalimMRP.business.dto.LeaderboardEntry;
 import org.SalimMRP.business.dto.MediaDetails;
 import org.SalimMRP.business.dto.UserProfile;
+import org.SalimMRP.persistence.RatingPage;
 import org.SalimMRP.persistence.models.Media;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.User;
@@ -14,18 +16,38 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 // Behandelt geschützte /api/users-Anfragen (Profile, Favoriten, Leaderboard).
-class UserHandler implements HttpHandler {
+class UserHandler implements HttpHandler, RoutedHandler {
 
     private final UserController userController;
+    private final ObjectWriter profileWriter;
+    private final ObjectWriter historyWriter;
+    private final ObjectWriter favoritesWriter;
+    private final ObjectWriter leaderboardWriter;
+    private final Router<User> router;
 
-    UserHandler(UserController userController) {
+    UserHandler(UserController userController, RouteListener routeListener) {
         this.userController = userController;
+        ResponseWriter responses = userController.getResponseWriter();
+        this.profileWriter = responses.writerFor(UserProfile.class);
+        this.historyWriter = responses.listWriterFor(RatingHistoryResponse.class);
+        this.favoritesWriter = responses.listWriterFor(MediaDetails.class);
+        this.leaderboardWriter = responses.listWriterFor(LeaderboardEntry.class);
+        // /leaderboard muss vor /{username} stehen; ein Benutzer dieses Namens hätte sonst Vorrang.
+        this.router = new Router<User>(routeListener)
+                .add("GET", "/api/users/leaderboard", (exchange, path, user) -> handleLeaderboard(exchange))
+                .add("GET", "/api/users/{username}/profile", ownProfile(this::handleProfile))
+                .add("GET", "/api/users/{username}/ratings", ownProfile(this::handleRatings))
+                .add("GET", "/api/users/{username}/favorites", ownProfile(this::handleFavorites));
+    }
+
+    @Override
+    public String routeKey(HttpExchange exchange) {
+        return router.routeKey(exchange.getRequestMethod(), exchange.getRequestURI().getRawPath());
     }
 
     @Override
@@ -35,87 +57,62 @@ class UserHandler implements HttpHandler {
             return;
         }
 
-        List<String> segments = Arrays.stream(exchange.getRequestURI().getPath().split("/"))
-                .filter(segment -> !segment.isBlank())
-                .toList();
-
-        if (segments.size() < 2 || !"api".equalsIgnoreCase(segments.get(0)) || !"users".equalsIgnoreCase(segments.get(1))) {
-            userController.sendResponse(exchange, 404, "Not found");
-            return;
-        }
-
-        if (segments.size() == 2) {
-            userController.sendResponse(exchange, 404, "Not found");
-            return;
+        switch (router.dispatch(exchange, authUser)) {
+            case NOT_FOUND -> userController.sendResponse(exchange, 404, "Not found");
+            case METHOD_NOT_ALLOWED -> userController.sendResponse(exchange, 405, "Method Not Allowed");
+            case HANDLED -> {
+            }
         }
+    }
 
-        if ("leaderboard".equalsIgnoreCase(segments.get(2))) {
-            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-                userController.sendResponse(exchange, 405, "Method Not Allowed");
+    // Profildaten sind nur für den angemeldeten Benutzer selbst abrufbar.
+    private Router.Action<User> ownProfile(ProfileAction action) {
+        return (exchange, path, authUser) -> {
+            if (!authUser.getUsername().equalsIgnoreCase(path.get("username"))) {
+                userController.sendResponse(exchange, 403, "You can only access your own profile");
                 return;
             }
-            handleLeaderboard(exchange);
-            return;
-        }
-
-        String requestedUser = decode(segments.get(2));
-        if (!requestedUser.equalsIgnoreCase(authUser.getUsername())) {
-            userController.sendResponse(exchange, 403, "You can only access your own profile");
-            return;
-        }
-
-        if (segments.size() == 3) {
-            userController.sendResponse(exchange, 404, "Not found");
-            return;
-        }
-
-        String resource = segments.get(3).toLowerCase();
-        switch (resource) {
-            case "profile" -> handleProfile(exchange, authUser);
-            case "ratings" -> handleRatings(exchange, authUser);
-            case "favorites" -> handleFavorites(exchange, authUser);
-            default -> userController.sendResponse(exchange, 404, "Not found");
-        }
+            action.handle(exchange, authUser);
+        };
     }
 
     private void handleProfile(HttpExchange exchange, User authUser) throws IOException {
-        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-            userController.sendResponse(exchange, 405, "Method Not Allowed");
-            return;
-        }
         UserProfile profile = userController.getProfileService().buildProfile(authUser.getId());
         if (profile == null) {
             userController.sendResponse(exchange, 404, "Profile not found");
             return;
         }
-        userController.sendJsonResponse(exchange, 200, profile);
+        userController.sendJsonResponse(exchange, 200, profileWriter, profile);
     }
 
     private void handleRatings(HttpExchange exchange, User authUser) throws IOException {
-        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-            userController.sendResponse(exchange, 405, "Method Not Allowed");
+        RatingPaging.Request paging = RatingPaging.parse(exchange.getRequestURI().getRawQuery());
+        if (paging == null) {
+            userController.sendResponse(exchange, 400, "Invalid cursor");
             return;
         }
-
-        List<Rating> ratings = userController.getProfileService().ratingHistory(authUser.getId());
-        Map<Integer, Media> mediaCache = new HashMap<>();
+        RatingPage page = userController.getProfileService()
+                .ratingHistory(authUser.getId(), paging.after(), paging.limit());
+        List<Rating> ratings = page.ratings();
+        List<Integer> mediaIds = ratings.stream().map(Rating::getMediaId).toList();
+        Map<Integer, Media> mediaById = new HashMap<>();
+        for (Media media : userController.getMediaService().getMediaByIds(mediaIds)) {
+            mediaById.put(media.getId(), media);
+        }
         List<RatingHistoryResponse> response = new ArrayList<>();
 
         for (Rating rating : ratings) {
-            Media media = mediaCache.computeIfAbsent(rating.getMediaId(), userController.getMediaService()::getMediaById);
+            Media media = mediaById.get(rating.getMediaId());
             String title = media != null ? media.getTitle() : null;
             response.add(RatingHistoryResponse.from(rating, title));
         }
-        userController.sendJsonResponse(exchange, 200, response);
+        RatingPaging.tagNextCursor(exchange, page);
+        userController.sendJsonResponse(exchange, 200, historyWriter, response);
     }
 
     private void handleFavorites(HttpExchange exchange, User authUser) throws IOException {
-        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-            userController.sendResponse(exchange, 405, "Method Not Allowed");
-            return;
-        }
         List<MediaDetails> favorites = userController.getProfileService().favoriteMedia(authUser.getId());
-        userController.sendJsonResponse(exchange, 200, favorites);
+        userController.sendJsonResponse(exchange, 200, favoritesWriter, favorites);
     }
 
     private void handleLeaderboard(HttpExchange exchange) throws IOException {
@@ -128,7 +125,7 @@ class UserHandler implements HttpHandler {
             }
         }
         List<LeaderboardEntry> entries = userController.getProfileService().leaderboard(limit);
-        userController.sendJsonResponse(exchange, 200, entries);
+        userController.sendJsonResponse(exchange, 200, leaderboardWriter, entries);
     }
 
     private Map<String, String> parseQuery(String query) {
@@ -153,6 +150,11 @@ class UserHandler implements HttpHandler {
         return URLDecoder.decode(value, StandardCharsets.UTF_8);
     }
 
+    @FunctionalInterface
+    private interface ProfileAction {
+        void handle(HttpExchange exchange, User authUser) throws IOException;
+    }
+
     private record RatingHistoryResponse(int id,
                                          int mediaId,
                                          String mediaTitle,
@@ -0,0 +1,2 @@
+-- Rating-Historie eines Benutzers: WHERE user_id = ? ORDER BY created_at DESC.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ratings_user_created ON ratings (user_id, created_at DESC);
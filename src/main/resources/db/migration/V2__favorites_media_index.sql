@@ -0,0 +1,3 @@
+-- Favoritenzähler pro Medium: WHERE media_id = ? bzw. media_id = ANY(?).
+-- Der Primärschlüssel (user_id, media_id) hilft hier nicht, weil media_id nicht die erste Spalte ist.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_favorites_media ON favorites (media_id);
@@ -0,0 +1,9 @@
+-- Genre-Filter vergleichen normalisiert (trim + lower). Die Funktion ist IMMUTABLE,
+-- damit ein GIN-Index über ihr Ergebnis angelegt und per @> genutzt werden kann.
+CREATE OR REPLACE FUNCTION mrp_normalized_genres(genres TEXT[]) RETURNS TEXT[]
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS
+$$
+SELECT COALESCE(array_agg(lower(trim(g))), '{}'::TEXT[]) FROM unnest(genres) AS g
+$$;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_media_genres ON media USING GIN (mrp_normalized_genres(genres));
@@ -0,0 +1,4 @@
+-- Titelsuche: lower(title) LIKE '%...%' kann über Trigramme statt per Sequential Scan beantwortet werden.
+-- Die Erweiterung pg_trgm legt der MigrationRunner vorher an; fehlen die Rechte dafür, wird die Migration
+-- übersprungen und die Titelsuche bleibt ohne Index.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_media_title_trgm ON media USING GIN (lower(title) gin_trgm_ops);
@@ -0,0 +1,25 @@
+-- Vorberechnete Rating-Kennzahlen pro Medium (Summe, Anzahl, Verteilung der Sterne).
+-- JdbcRatingRepository pflegt die Werte in derselben Transaktion wie die Ratings selbst.
+CREATE TABLE IF NOT EXISTS media_rating_stats (
+    media_id INT PRIMARY KEY REFERENCES media(id) ON DELETE CASCADE,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    rating_count INT NOT NULL DEFAULT 0,
+    star_1 INT NOT NULL DEFAULT 0,
+    star_2 INT NOT NULL DEFAULT 0,
+    star_3 INT NOT NULL DEFAULT 0,
+    star_4 INT NOT NULL DEFAULT 0,
+    star_5 INT NOT NULL DEFAULT 0
+);
+
+INSERT INTO media_rating_stats (media_id, rating_sum, rating_count, star_1, star_2, star_3, star_4, star_5)
+SELECT media_id,
+       SUM(star_value),
+       COUNT(*),
+       COUNT(*) FILTER (WHERE star_value = 1),
+       COUNT(*) FILTER (WHERE star_value = 2),
+       COUNT(*) FILTER (WHERE star_value = 3),
+       COUNT(*) FILTER (WHERE star_value = 4),
+       COUNT(*) FILTER (WHERE star_value = 5)
+  FROM ratings
+ GROUP BY media_id
+ON CONFLICT (media_id) DO NOTHING;
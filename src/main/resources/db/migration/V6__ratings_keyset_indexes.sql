@@ -0,0 +1,17 @@
+-- Keyset-Paging der Rating-Listen: WHERE media_id/user_id = ? AND (created_at, id) < (?, ?)
+-- ORDER BY created_at DESC, id DESC. Ratings ohne Zeitpunkt werden auf 1970-01-01 gesetzt, damit jede Zeile
+-- eine eindeutige Position hat; neue Ratings ohne Zeitpunkt erhalten now().
+UPDATE ratings SET created_at = TIMESTAMP 'epoch' WHERE created_at IS NULL;
+
+-- SET NOT NULL prüft sonst die ganze Tabelle unter ACCESS EXCLUSIVE. Mit einem vorher validierten CHECK entfällt
+-- diese Prüfung; VALIDATE selbst blockiert keine Schreibzugriffe.
+ALTER TABLE ratings DROP CONSTRAINT IF EXISTS ratings_created_at_not_null;
+ALTER TABLE ratings ADD CONSTRAINT ratings_created_at_not_null CHECK (created_at IS NOT NULL) NOT VALID;
+ALTER TABLE ratings VALIDATE CONSTRAINT ratings_created_at_not_null;
+ALTER TABLE ratings ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE ratings DROP CONSTRAINT ratings_created_at_not_null;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ratings_media_keyset ON ratings (media_id, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ratings_user_keyset ON ratings (user_id, created_at DESC, id DESC);
+-- Vom neuen Benutzer-Index vollständig abgedeckt.
+DROP INDEX CONCURRENTLY IF EXISTS idx_ratings_user_created;
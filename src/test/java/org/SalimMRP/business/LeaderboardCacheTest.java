@@ -0,0 +1,94 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.models.LeaderboardRow;
+import org.SalimMRP.persistence.models.Rating;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Prüft, wann der LeaderboardCache die Datenbank fragt und wann er seinen Stand wiederverwendet.
+class LeaderboardCacheTest {
+
+    private CountingRatingRepository ratingRepository;
+    private LeaderboardCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ratingRepository = new CountingRatingRepository();
+        for (int user = 1; user <= 3; user++) {
+            for (int media = 1; media <= user; media++) {
+                ratingRepository.save(new Rating(media, user, 4, null, Instant.now()));
+            }
+        }
+        cache = new LeaderboardCache(ratingRepository);
+    }
+
+    @Test
+    @DisplayName("Smaller limits reuse the preloaded entries until a rating changes")
+    void coveredLimitsReusePreload() {
+        assertEquals(2, cache.top(2).size());
+        assertEquals(List.of(LeaderboardCache.PRELOAD_SIZE), ratingRepository.requestedLimits);
+
+        assertEquals(3, cache.top(50).size());
+        assertEquals(3, cache.top(LeaderboardCache.PRELOAD_SIZE).size());
+        assertEquals(1, ratingRepository.requestedLimits.size());
+
+        cache.top(LeaderboardCache.PRELOAD_SIZE + 1);
+        assertEquals(List.of(LeaderboardCache.PRELOAD_SIZE, LeaderboardCache.PRELOAD_SIZE + 1),
+                ratingRepository.requestedLimits);
+
+        cache.ratingCreated(new Rating(1, 4, 5, null, Instant.now()));
+        cache.top(2);
+        assertEquals(3, ratingRepository.requestedLimits.size());
+    }
+
+    @Test
+    @DisplayName("An invalidation during a load keeps the loaded snapshot from being cached")
+    void invalidateDuringLoadIsNotPublished() {
+        ratingRepository.duringLoad = () -> {
+            ratingRepository.duringLoad = null;
+            cache.invalidate();
+        };
+
+        assertEquals(3, cache.top(10).size());
+        cache.top(10);
+
+        assertEquals(2, ratingRepository.requestedLimits.size());
+        cache.top(10);
+        assertEquals(2, ratingRepository.requestedLimits.size());
+    }
+
+    @Test
+    @DisplayName("Limits above MAX_CACHED_SIZE always go to the repository")
+    void largeLimitsBypassCache() {
+        int limit = LeaderboardCache.MAX_CACHED_SIZE + 1;
+
+        cache.top(limit);
+        cache.top(limit);
+        cache.top(10);
+
+        assertEquals(List.of(limit, limit, LeaderboardCache.PRELOAD_SIZE), ratingRepository.requestedLimits);
+    }
+
+    // Zählt die Leaderboard-Abfragen und kann während einer Abfrage eingreifen.
+    private static class CountingRatingRepository extends MediaServiceTest.InMemoryRatingRepository {
+        private final List<Integer> requestedLimits = new ArrayList<>();
+        private Runnable duringLoad;
+
+        @Override
+        public List<LeaderboardRow> findLeaderboard(int limit) {
+            requestedLimits.add(limit);
+            List<LeaderboardRow> rows = super.findLeaderboard(limit);
+            if (duringLoad != null) {
+                duringLoad.run();
+            }
+            return rows;
+        }
+    }
+}
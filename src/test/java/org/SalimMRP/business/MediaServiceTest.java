@@ -1,24 +1,32 @@
 package org.SalimMRP.business;
 
 import org.SalimMRP.business.dto.MediaDetails;
-import org.SalimMRP.business.dto.MediaSearchCriteria;
 import org.SalimMRP.persistence.FavoriteRepository;
 import org.SalimMRP.persistence.MediaRepository;
+import org.SalimMRP.persistence.MediaSearchCriteria;
+import org.SalimMRP.persistence.PageRequest;
+import org.SalimMRP.persistence.RatingCursor;
+import org.SalimMRP.persistence.RatingPage;
 import org.SalimMRP.persistence.RatingRepository;
+import org.SalimMRP.persistence.models.FavoriteSummary;
+import org.SalimMRP.persistence.models.LeaderboardRow;
 import org.SalimMRP.persistence.models.Media;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.RatingSummary;
-import org.SalimMRP.persistence.models.UserRatingCount;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,14 +37,22 @@ class MediaServiceTest {
     private InMemoryMediaRepository mediaRepository;
     private InMemoryRatingRepository ratingRepository;
     private InMemoryFavoriteRepository favoriteRepository;
+    private MediaServiceComponents components;
     private DefaultMediaService mediaService;
 
     @BeforeEach
     void setUp() {
-        mediaRepository = new InMemoryMediaRepository();
         ratingRepository = new InMemoryRatingRepository();
+        mediaRepository = new InMemoryMediaRepository(ratingRepository);
         favoriteRepository = new InMemoryFavoriteRepository();
-        mediaService = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository);
+        components = MediaServiceComponents.withDefaults();
+        mediaService = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository, components);
+    }
+
+    // Die Tests speichern direkt in die Repositories, an den Medien- und Rating-Ereignissen vorbei; die Indizes
+    // werden danach wie beim Start aus den Repositories aufgebaut.
+    private void indexRepositories() {
+        components.rebuildIndexes(mediaRepository, ratingRepository);
     }
 
     @Test
@@ -101,6 +117,54 @@ class MediaServiceTest {
         assertEquals(4.5, result.get(0).getAverageRating(), 0.001);
     }
 
+    @Test
+    @DisplayName("searchMedia returns only the requested page")
+    void searchMediaHonorsPage() {
+        mediaRepository.save(buildMedia("Alpha", "Movie", 1));
+        mediaRepository.save(buildMedia("Beta", "Movie", 1));
+        mediaRepository.save(buildMedia("Gamma", "Movie", 1));
+
+        List<MediaDetails> result = mediaService.searchMedia(new MediaSearchCriteria(), 99, PageRequest.of(1, 1));
+        assertEquals(1, result.size());
+        assertEquals("Beta", result.get(0).getMedia().getTitle());
+    }
+
+    @Test
+    @DisplayName("searchMedia shares cached results across users and drops them on writes")
+    void searchMediaUsesCachedResults() {
+        Media media = buildMedia("Cached", "Movie", 1);
+        mediaRepository.save(media);
+        favoriteRepository.addFavorite(7, media.getId());
+        MediaSearchCriteria criteria = new MediaSearchCriteria();
+        criteria.setGenre("adventure");
+
+        assertTrue(mediaService.searchMedia(criteria, 7).get(0).isFavoriteForUser());
+
+        // Direkt im Repository angelegt: der Cache weiß davon nichts.
+        mediaRepository.save(buildMedia("Hidden", "Movie", 1));
+        MediaSearchCriteria sameQuery = new MediaSearchCriteria();
+        sameQuery.setGenre(" Adventure ");
+        List<MediaDetails> forOtherUser = mediaService.searchMedia(sameQuery, 8);
+        assertEquals(1, forOtherUser.size());
+        assertFalse(forOtherUser.get(0).isFavoriteForUser());
+
+        assertTrue(mediaService.createMedia(buildMedia("Fresh", "Movie", 1)));
+        assertEquals(3, mediaService.searchMedia(criteria, 7).size());
+    }
+
+    @Test
+    @DisplayName("searchMedia does not cache results of a failed search")
+    void searchMediaDoesNotCacheFailures() {
+        mediaRepository.save(buildMedia("Recovered", "Movie", 1));
+        MediaSearchCriteria criteria = new MediaSearchCriteria();
+
+        mediaRepository.failSearch = true;
+        assertTrue(mediaService.searchMedia(criteria, 7).isEmpty());
+
+        mediaRepository.failSearch = false;
+        assertEquals(1, mediaService.searchMedia(criteria, 7).size());
+    }
+
     @Test
     @DisplayName("getDetailedMedia returns ratings and favorite counters")
     void getDetailedMediaReturnsRatings() {
@@ -123,6 +187,42 @@ class MediaServiceTest {
         assertEquals(1, details.getFavoritesCount());
     }
 
+    @Test
+    @DisplayName("getDetailedMedia embeds only the newest page of ratings")
+    void getDetailedMediaEmbedsFirstRatingsPage() {
+        Media media = buildMedia("Crowded", "Movie", 1);
+        mediaRepository.save(media);
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < 25; i++) {
+            Rating rating = ratingFor(media.getId(), 100 + i, 4);
+            rating.setCreatedAt(start.plusSeconds(i));
+            ratingRepository.save(rating);
+        }
+
+        MediaDetails details = mediaService.getDetailedMedia(media.getId(), 1);
+        assertEquals(25, details.getRatingCount());
+        assertEquals(20, details.getRatings().size());
+        assertEquals(124, details.getRatings().get(0).getUserId());
+
+        assertEquals(RatingCursor.after(details.getRatings().get(19)), details.getRatingsNextCursor());
+
+        RatingPage rest = ratingRepository.findByMediaId(media.getId(), details.getRatingsNextCursor(), 20);
+        assertEquals(5, rest.ratings().size());
+        assertFalse(rest.hasMore());
+    }
+
+    @Test
+    @DisplayName("getDetailedMedia has no ratings cursor when all ratings are embedded")
+    void getDetailedMediaWithoutMoreRatings() {
+        Media media = buildMedia("Quiet", "Movie", 1);
+        mediaRepository.save(media);
+        ratingRepository.save(ratingFor(media.getId(), 2, 3));
+
+        MediaDetails details = mediaService.getDetailedMedia(media.getId(), 2);
+        assertEquals(1, details.getRatings().size());
+        assertNull(details.getRatingsNextCursor());
+    }
+
     @Test
     @DisplayName("addFavorite marks entry for user")
     void addFavoriteMarksEntry() {
@@ -145,6 +245,25 @@ class MediaServiceTest {
         assertTrue(mediaService.listFavorites(7).isEmpty());
     }
 
+    @Test
+    @DisplayName("favorite and update writes bump the media and catalog versions")
+    void writesBumpMediaVersion() {
+        Media media = buildMedia("Versioned", "Movie", 1);
+        mediaRepository.save(media);
+        String mediaVersion = mediaService.mediaVersion(media.getId());
+        String catalogVersion = mediaService.catalogVersion();
+
+        assertEquals(mediaVersion, mediaService.mediaVersion(media.getId()));
+        assertTrue(mediaService.addFavorite(media.getId(), 7));
+        String afterFavorite = mediaService.mediaVersion(media.getId());
+        assertNotEquals(mediaVersion, afterFavorite);
+        assertNotEquals(catalogVersion, mediaService.catalogVersion());
+
+        media.setTitle("Versioned 2");
+        assertTrue(mediaService.updateMedia(media));
+        assertNotEquals(afterFavorite, mediaService.mediaVersion(media.getId()));
+    }
+
     @Test
     @DisplayName("recommendMedia prefers items with matching genres")
     void recommendMediaPrefersGenres() {
@@ -165,6 +284,7 @@ class MediaServiceTest {
         // User highly rates the liked media to establish preferences.
         Rating userRating = ratingFor(liked.getId(), 10, 5);
         ratingRepository.save(userRating);
+        indexRepositories();
 
         List<MediaDetails> recommendation = mediaService.recommendMedia(10);
         assertFalse(recommendation.isEmpty());
@@ -173,6 +293,204 @@ class MediaServiceTest {
                 "Own rated media should not be recommended");
     }
 
+    @Test
+    @DisplayName("recommendMedia ranks well-rated unrated media for users without high ratings")
+    void recommendMediaWithoutHighRatings() {
+        Media disliked = buildMedia("Disliked", "Movie", 2);
+        mediaRepository.save(disliked);
+        ratingRepository.save(ratingFor(disliked.getId(), 10, 3));
+        ratingRepository.save(ratingFor(disliked.getId(), 4, 5));
+
+        Media popular = buildMedia("Popular", "Series", 3);
+        popular.setGenres(List.of("Drama"));
+        mediaRepository.save(popular);
+        ratingRepository.save(ratingFor(popular.getId(), 5, 5));
+
+        Media decent = buildMedia("Decent", "Game", 3);
+        decent.setGenres(List.of("Horror"));
+        mediaRepository.save(decent);
+        ratingRepository.save(ratingFor(decent.getId(), 6, 3));
+
+        Media unknown = buildMedia("Unknown", "Game", 3);
+        mediaRepository.save(unknown);
+        indexRepositories();
+
+        List<String> titles = mediaService.recommendMedia(10).stream()
+                .map(details -> details.getMedia().getTitle())
+                .toList();
+        assertEquals(List.of("Popular", "Decent"), titles);
+    }
+
+    @Test
+    @DisplayName("recommendMedia follows genre changes of updated media")
+    void recommendMediaSeesUpdatedGenres() {
+        Media liked = buildMedia("Liked", "Movie", 2);
+        liked.setGenres(List.of("Sci-Fi"));
+        assertTrue(mediaService.createMedia(liked));
+        ratingRepository.save(ratingFor(liked.getId(), 10, 5));
+
+        Media other = buildMedia("Other", "Game", 3);
+        other.setAgeRestriction("R");
+        other.setGenres(List.of("Drama"));
+        assertTrue(mediaService.createMedia(other));
+        assertTrue(mediaService.recommendMedia(10).stream()
+                .noneMatch(r -> r.getMedia().getId() == other.getId()));
+
+        other.setGenres(List.of(" sci-fi "));
+        assertTrue(mediaService.updateMedia(other));
+        List<MediaDetails> recommendations = mediaService.recommendMedia(10);
+        assertEquals(1, recommendations.size());
+        assertEquals("Other", recommendations.get(0).getMedia().getTitle());
+    }
+
+    @Test
+    @DisplayName("recommendMedia ranks the same with partitioned parallel scoring")
+    void recommendMediaParallelMatchesSequential() {
+        Media liked = buildMedia("Liked", "Movie", 2);
+        liked.setGenres(List.of("Sci-Fi"));
+        assertTrue(mediaService.createMedia(liked));
+        ratingRepository.save(ratingFor(liked.getId(), 10, 5));
+        MediaAttributeIndex attributeIndex = new MediaAttributeIndex();
+        attributeIndex.mediaCreated(liked);
+
+        for (int i = 0; i < 2_100; i++) {
+            Media candidate = buildMedia("Candidate " + i, i % 3 == 0 ? "Game" : "Movie", 3);
+            candidate.setGenres(List.of(i % 7 == 0 ? "Sci-Fi" : "Drama"));
+            assertTrue(mediaService.createMedia(candidate));
+            attributeIndex.mediaCreated(candidate);
+            if (i % 4 == 0) {
+                ratingRepository.save(ratingFor(candidate.getId(), 20, i % 5 + 1));
+            }
+        }
+        List<String> sequential = mediaService.recommendMedia(10).stream()
+                .map(details -> details.getMedia().getTitle())
+                .toList();
+
+        try (ParallelScorer scorer = new ParallelScorer(2, 1)) {
+            MediaServiceComponents parallelComponents = MediaServiceComponents.withDefaults();
+            parallelComponents.setAttributeIndex(attributeIndex);
+            parallelComponents.setScorer(scorer);
+            DefaultMediaService parallelService = new DefaultMediaService(mediaRepository, ratingRepository,
+                    favoriteRepository, parallelComponents);
+            List<String> parallel = parallelService.recommendMedia(10).stream()
+                    .map(details -> details.getMedia().getTitle())
+                    .toList();
+            assertEquals(sequential, parallel);
+            assertEquals(1, scorer.metrics().parallelRuns());
+        }
+    }
+
+    @Test
+    @DisplayName("recommendMedia keeps only the best ten candidates in ranking order")
+    void recommendMediaKeepsTopTen() {
+        Media liked = buildMedia("Liked", "Movie", 2);
+        liked.setGenres(List.of("Sci-Fi"));
+        assertTrue(mediaService.createMedia(liked));
+        ratingRepository.save(ratingFor(liked.getId(), 10, 5));
+
+        for (int i = 0; i < 12; i++) {
+            Media candidate = buildMedia("Candidate " + i, "Movie", 3);
+            assertTrue(mediaService.createMedia(candidate));
+            ratingRepository.save(ratingFor(candidate.getId(), 20, i % 5 + 1));
+        }
+
+        List<MediaDetails> recommendations = mediaService.recommendMedia(10);
+        assertEquals(10, recommendations.size());
+        for (int i = 1; i < recommendations.size(); i++) {
+            assertTrue(recommendations.get(i - 1).getAverageRating() >= recommendations.get(i).getAverageRating());
+        }
+        assertEquals(1, recommendations.stream().filter(r -> r.getAverageRating() == 1.0).count());
+    }
+
+    @Test
+    @DisplayName("suggestMedia ranks title starts and popular media first and follows media writes")
+    void suggestMediaRanksAndFollowsWrites() {
+        TitleSuggestionIndex titleIndex = new TitleSuggestionIndex(Duration.ofSeconds(1));
+        components.setTitleIndex(titleIndex);
+        mediaService = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository, components);
+
+        Media inside = buildMedia("Animatrix", "Movie", 1);
+        Media word = buildMedia("The Matrix", "Movie", 1);
+        Media start = buildMedia("Matrix Reloaded", "Movie", 1);
+        Media popular = buildMedia("Matrix Revolutions", "Movie", 1);
+        for (Media media : List.of(inside, word, start, popular)) {
+            assertTrue(mediaService.createMedia(media));
+        }
+        titleIndex.ratingCreated(ratingFor(popular.getId(), 1, 4));
+
+        assertEquals(List.of("Matrix Revolutions", "Matrix Reloaded", "The Matrix", "Animatrix"),
+                titles(mediaService.suggestMedia(" MATRIX", 10)));
+        assertEquals(List.of("Matrix Revolutions", "Matrix Reloaded"), titles(mediaService.suggestMedia("mat", 2)));
+        assertTrue(mediaService.suggestMedia("matrixx", 10).isEmpty());
+
+        word.setTitle("The Thirteenth Floor");
+        assertTrue(mediaService.updateMedia(word));
+        assertTrue(mediaService.deleteMedia(inside.getId()));
+        assertEquals(List.of("Matrix Revolutions", "Matrix Reloaded"), titles(mediaService.suggestMedia("matrix", 10)));
+        assertEquals(List.of("The Thirteenth Floor"), titles(mediaService.suggestMedia("floor", 10)));
+    }
+
+    @Test
+    @DisplayName("Short suggestion queries rank by popularity regardless of media IDs and budget")
+    void suggestShortQueriesUseRankedLists() {
+        TitleSuggestionIndex titleIndex = new TitleSuggestionIndex(Duration.ofNanos(1));
+        List<Media> catalog = new ArrayList<>();
+        Map<Integer, Integer> ratingCounts = new HashMap<>();
+        for (int id = 500; id >= 1; id--) {
+            Media media = buildMedia("Alpha " + id, "Movie", 1);
+            media.setId(id);
+            catalog.add(media);
+            ratingCounts.put(id, id);
+        }
+        titleIndex.rebuild(catalog, ratingCounts);
+
+        assertEquals(List.of("Alpha 500", "Alpha 499", "Alpha 498"), titles(titleIndex.suggest("al", 3)));
+
+        // Bei gleicher Popularität entscheidet der Titel.
+        titleIndex.ratingDeleted(ratingFor(500, 1, 3));
+        titleIndex.ratingCreated(ratingFor(7, 1, 3));
+        assertEquals(List.of("Alpha 499", "Alpha 500", "Alpha 498"), titles(titleIndex.suggest("al", 3)));
+
+        titleIndex.mediaDeleted(499);
+        assertEquals(List.of("Alpha 500", "Alpha 498"), titles(titleIndex.suggest("a", 2)));
+        assertEquals(0, titleIndex.metrics().budgetExceeded());
+    }
+
+    @Test
+    @DisplayName("suggestMedia refills shrunken ranked lists in the background")
+    void suggestRefillsShrunkenRankedLists() {
+        List<Runnable> pending = new ArrayList<>();
+        TitleSuggestionIndex titleIndex = new TitleSuggestionIndex(Duration.ofSeconds(1), pending::add);
+        List<Media> catalog = new ArrayList<>();
+        Map<Integer, Integer> ratingCounts = new HashMap<>();
+        for (int id = 1; id <= 100; id++) {
+            Media media = buildMedia("Beta " + id, "Movie", 1);
+            media.setId(id);
+            catalog.add(media);
+            ratingCounts.put(id, id);
+        }
+        titleIndex.rebuild(catalog, ratingCounts);
+
+        // Die Reserve fängt herausfallende Einträge ab, ohne dass aufgefüllt werden muss.
+        for (int id = 100; id > 80; id--) {
+            titleIndex.mediaDeleted(id);
+        }
+        assertTrue(pending.isEmpty());
+        assertEquals("Beta 80", titles(titleIndex.suggest("be", 1)).get(0));
+
+        // Unter 20 Einträgen liest die Abfrage die Postings-Liste, bis die Liste aufgefüllt ist.
+        titleIndex.mediaDeleted(80);
+        assertEquals(1, pending.size());
+        assertTrue(titleIndex.metrics().pendingRefills() > 0);
+        assertEquals(List.of("Beta 79", "Beta 78"), titles(titleIndex.suggest("be", 2)));
+        assertEquals(20, titleIndex.suggest("be", 20).size());
+
+        pending.remove(0).run();
+        assertEquals(0, titleIndex.metrics().pendingRefills());
+        assertEquals(List.of("Beta 79", "Beta 78"), titles(titleIndex.suggest("be", 2)));
+        assertEquals("Beta 60", titles(titleIndex.suggest("be", 20)).get(19));
+    }
+
     @Test
     @DisplayName("recommendMedia falls back to popular items when no preferences exist")
     void recommendMediaFallsBackToPopular() {
@@ -183,11 +501,76 @@ class MediaServiceTest {
         Media second = buildMedia("Popular Two", "Movie", 2);
         mediaRepository.save(second);
         ratingRepository.save(ratingFor(second.getId(), 1, 4));
+        indexRepositories();
 
         List<MediaDetails> recommendations = mediaService.recommendMedia(42);
         assertEquals(2, recommendations.size());
     }
 
+    @Test
+    @DisplayName("Similarity index refreshes neighbours off the write path and caps ratings per user")
+    void similarityIndexRefreshesLaterAndCapsRatings() {
+        List<Runnable> pending = new ArrayList<>();
+        ItemSimilarityIndex index = new ItemSimilarityIndex(5, 2, pending::add);
+
+        index.ratingCreated(ratingFor(1, 7, 5));
+        index.ratingCreated(ratingFor(2, 7, 5));
+        assertTrue(index.neighborsOf(1).isEmpty());
+        assertEquals(1, pending.size());
+
+        pending.remove(0).run();
+        assertEquals(2, index.neighborsOf(1).get(0).mediaId());
+
+        // Das dritte Rating verdrängt das älteste (Medium 1) aus dem Index.
+        index.ratingCreated(ratingFor(3, 7, 5));
+        pending.remove(0).run();
+        assertTrue(index.neighborsOf(1).isEmpty());
+        assertEquals(3, index.neighborsOf(2).get(0).mediaId());
+        assertEquals(1, index.metrics().coRatedPairs());
+        assertEquals(0, index.metrics().pendingRefreshes());
+    }
+
+    @Test
+    @DisplayName("recommendMedia prefers media co-rated by similar users")
+    void recommendMediaUsesSimilarityIndex() {
+        ItemSimilarityIndex index = new ItemSimilarityIndex(5, 200, Runnable::run);
+        components.setSimilarityIndex(index);
+        mediaService = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository, components);
+
+        Media liked = buildMedia("Liked", "Movie", 1);
+        mediaRepository.save(liked);
+        Media companion = buildMedia("Companion", "Game", 1);
+        companion.setGenres(List.of("Puzzle"));
+        mediaRepository.save(companion);
+        Media disliked = buildMedia("Disliked", "Movie", 1);
+        mediaRepository.save(disliked);
+
+        ratingRepository.save(ratingFor(liked.getId(), 1, 5));
+        ratingRepository.save(ratingFor(companion.getId(), 1, 5));
+        ratingRepository.save(ratingFor(liked.getId(), 2, 5));
+        ratingRepository.save(ratingFor(companion.getId(), 2, 4));
+        ratingRepository.save(ratingFor(liked.getId(), 3, 5));
+        ratingRepository.save(ratingFor(disliked.getId(), 3, 1));
+        index.rebuild(ratingRepository.findAllStarValues());
+
+        // Spätere Ratings kommen über die Rating-Ereignisse in den Index.
+        Rating own = ratingRepository.save(ratingFor(liked.getId(), 10, 5));
+        index.ratingCreated(own);
+
+        List<MediaDetails> recommendations = mediaService.recommendMedia(10);
+        assertFalse(recommendations.isEmpty());
+        assertEquals("Companion", recommendations.get(0).getMedia().getTitle());
+        assertTrue(recommendations.stream().noneMatch(r -> r.getMedia().getId() == liked.getId()));
+        // Der einzige gemeinsame Bewerter fand "Liked" gut und "Disliked" schlecht: kein Nachbar.
+        assertTrue(recommendations.stream().noneMatch(r -> r.getMedia().getId() == disliked.getId()));
+        assertTrue(index.neighborsOf(liked.getId()).stream()
+                .noneMatch(neighbor -> neighbor.mediaId() == disliked.getId()));
+
+        mediaService.deleteMedia(companion.getId());
+        assertTrue(index.neighborsOf(liked.getId()).stream()
+                .noneMatch(neighbor -> neighbor.mediaId() == companion.getId()));
+    }
+
     private Media buildMedia(String title, String type, int creatorId) {
         Media media = new Media();
         media.setTitle(title);
@@ -200,6 +583,10 @@ class MediaServiceTest {
         return media;
     }
 
+    private List<String> titles(List<Media> mediaList) {
+        return mediaList.stream().map(Media::getTitle).toList();
+    }
+
     private Rating ratingFor(int mediaId, int userId, int stars) {
         Rating rating = new Rating();
         rating.setMediaId(mediaId);
@@ -214,7 +601,14 @@ class MediaServiceTest {
 
     private static class InMemoryMediaRepository implements MediaRepository {
         private final Map<Integer, Media> storage = new HashMap<>();
+        private final InMemoryRatingRepository ratings;
         private int nextId = 1;
+        // Simuliert einen Datenbankfehler bei der Suche.
+        private boolean failSearch;
+
+        InMemoryMediaRepository(InMemoryRatingRepository ratings) {
+            this.ratings = ratings;
+        }
 
         @Override
         public boolean save(Media media) {
@@ -233,12 +627,64 @@ class MediaServiceTest {
             return storage.values().stream().map(this::cloneMedia).toList();
         }
 
+        // Bildet die SQL-Suche des JdbcMediaRepository im Speicher nach.
+        @Override
+        public List<Media> search(MediaSearchCriteria criteria, PageRequest page) {
+            if (failSearch) {
+                return null;
+            }
+            Comparator<Media> comparator = switch (criteria.getSortField()) {
+                case YEAR -> Comparator.comparingInt(media ->
+                        media.getReleaseYear() != null ? media.getReleaseYear() : Integer.MIN_VALUE);
+                case SCORE -> Comparator.comparingDouble(this::averageOf);
+                default -> Comparator.comparing(Media::getTitle, String.CASE_INSENSITIVE_ORDER);
+            };
+            if (criteria.getSortDirection() == MediaSearchCriteria.SortDirection.DESC) {
+                comparator = comparator.reversed();
+            }
+            return storage.values().stream()
+                    .filter(media -> criteria.getTitleQuery() == null
+                            || media.getTitle().toLowerCase().contains(criteria.getTitleQuery().toLowerCase()))
+                    .filter(media -> criteria.getMediaType() == null
+                            || media.getMediaType().equalsIgnoreCase(criteria.getMediaType()))
+                    .filter(media -> criteria.getGenre() == null
+                            || media.getGenres().stream().anyMatch(g -> g.equalsIgnoreCase(criteria.getGenre())))
+                    .filter(media -> criteria.getReleaseYear() == null
+                            || criteria.getReleaseYear().equals(media.getReleaseYear()))
+                    .filter(media -> criteria.getAgeRestriction() == null
+                            || criteria.getAgeRestriction().equalsIgnoreCase(media.getAgeRestriction()))
+                    .filter(media -> criteria.getMinimumRating() == null
+                            || (!ratings.findByMediaId(media.getId()).isEmpty()
+                            && averageOf(media) >= criteria.getMinimumRating()))
+                    .sorted(comparator.thenComparing(Media::getTitle, String.CASE_INSENSITIVE_ORDER))
+                    .skip(page.offset())
+                    .limit(page.limit())
+                    .map(this::cloneMedia)
+                    .toList();
+        }
+
+        private double averageOf(Media media) {
+            return ratings.findByMediaId(media.getId()).stream()
+                    .mapToInt(Rating::getStarValue)
+                    .average()
+                    .orElse(0.0);
+        }
+
         @Override
         public Media findById(int id) {
             Media media = storage.get(id);
             return media == null ? null : cloneMedia(media);
         }
 
+        @Override
+        public List<Media> findByIds(Collection<Integer> ids) {
+            return ids.stream()
+                    .map(storage::get)
+                    .filter(Objects::nonNull)
+                    .map(this::cloneMedia)
+                    .toList();
+        }
+
         @Override
         public boolean update(Media media) {
             if (media == null || !storage.containsKey(media.getId())) {
@@ -271,7 +717,7 @@ class MediaServiceTest {
         }
     }
 
-    private static class InMemoryRatingRepository implements RatingRepository {
+    static class InMemoryRatingRepository implements RatingRepository {
         private final Map<Integer, Rating> storage = new HashMap<>();
         private int nextId = 1;
 
@@ -313,14 +759,18 @@ class MediaServiceTest {
                     .orElse(null);
         }
 
-        @Override
-        public List<Rating> findByMediaId(int mediaId) {
+        List<Rating> findByMediaId(int mediaId) {
             return storage.values().stream()
                     .filter(r -> r.getMediaId() == mediaId)
                     .map(this::cloneRating)
                     .toList();
         }
 
+        @Override
+        public RatingPage findByMediaId(int mediaId, RatingCursor after, int limit) {
+            return page(findByMediaId(mediaId), after, limit);
+        }
+
         @Override
         public List<Rating> findByUserId(int userId) {
             return storage.values().stream()
@@ -329,6 +779,33 @@ class MediaServiceTest {
                     .toList();
         }
 
+        @Override
+        public RatingPage findByUserId(int userId, RatingCursor after, int limit) {
+            return page(findByUserId(userId), after, limit);
+        }
+
+        // Gleiche Reihenfolge und Cursor-Semantik wie die SQL-Abfrage: (created_at, id) absteigend.
+        private RatingPage page(List<Rating> ratings, RatingCursor after, int limit) {
+            Comparator<RatingCursor> order = Comparator.comparing(RatingCursor::createdAt)
+                    .thenComparingInt(RatingCursor::ratingId);
+            List<Rating> sorted = ratings.stream()
+                    .filter(r -> after == null || order.compare(RatingCursor.after(r), after) < 0)
+                    .sorted(Comparator.comparing(RatingCursor::after, order).reversed())
+                    .toList();
+            if (sorted.size() <= limit) {
+                return new RatingPage(sorted, null);
+            }
+            List<Rating> firstPage = sorted.subList(0, limit);
+            return new RatingPage(firstPage, RatingCursor.after(firstPage.get(limit - 1)));
+        }
+
+        @Override
+        public List<Rating> findAllStarValues() {
+            return storage.values().stream()
+                    .map(this::cloneRating)
+                    .toList();
+        }
+
         @Override
         public List<RatingSummary> summarizeByMediaIds(List<Integer> mediaIds) {
             List<RatingSummary> summaries = new ArrayList<>();
@@ -344,7 +821,7 @@ class MediaServiceTest {
         }
 
         @Override
-        public List<UserRatingCount> findRatingCountsPerUser(int limit) {
+        public List<LeaderboardRow> findLeaderboard(int limit) {
             Map<Integer, Long> counts = new HashMap<>();
             for (Rating rating : storage.values()) {
                 counts.merge(rating.getUserId(), 1L, Long::sum);
@@ -352,7 +829,7 @@ class MediaServiceTest {
             return counts.entrySet().stream()
                     .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
                     .limit(limit)
-                    .map(e -> new UserRatingCount(e.getKey(), e.getValue()))
+                    .map(e -> new LeaderboardRow(e.getKey(), "user" + e.getKey(), e.getValue()))
                     .toList();
         }
 
@@ -390,6 +867,18 @@ class MediaServiceTest {
             return rating == null ? Set.of() : new HashSet<>(rating.getLikedByUserIds());
         }
 
+        @Override
+        public Map<Integer, Set<Integer>> findLikesByRatingIds(Collection<Integer> ratingIds) {
+            Map<Integer, Set<Integer>> likes = new HashMap<>();
+            for (Integer id : ratingIds) {
+                Rating rating = storage.get(id);
+                if (rating != null && !rating.getLikedByUserIds().isEmpty()) {
+                    likes.put(id, new HashSet<>(rating.getLikedByUserIds()));
+                }
+            }
+            return likes;
+        }
+
         private Rating cloneRating(Rating source) {
             Rating clone = new Rating();
             clone.setId(source.getId());
@@ -440,5 +929,17 @@ class MediaServiceTest {
             }
             return count;
         }
+
+        @Override
+        public List<FavoriteSummary> summarizeByMediaIds(List<Integer> mediaIds, int userId) {
+            List<FavoriteSummary> summaries = new ArrayList<>();
+            for (Integer id : mediaIds) {
+                int count = countFavoritesForMedia(id);
+                if (count > 0) {
+                    summaries.add(new FavoriteSummary(id, count, isFavorite(userId, id)));
+                }
+            }
+            return summaries;
+        }
     }
 }
@@ -0,0 +1,55 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.MediaSearchCriteria;
+import org.SalimMRP.persistence.PageRequest;
+import org.SalimMRP.persistence.models.Media;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Prüft, dass Rating-Ereignisse nur die gemerkten Suchen verwerfen, deren Ergebnis sich ändern kann.
+class SearchResultCacheTest {
+
+    @Test
+    @DisplayName("Ratings evict score-sorted searches only when the rated media matches their filters")
+    void ratingsEvictOnlyMatchingScoreSearches() {
+        MediaAttributeIndex attributeIndex = new MediaAttributeIndex();
+        Media action = media(1, "Action");
+        Media drama = media(2, "Drama");
+        attributeIndex.mediaCreated(action);
+        attributeIndex.mediaCreated(drama);
+        SearchResultCache cache = new SearchResultCache(10, Duration.ofMinutes(1), attributeIndex);
+
+        MediaSearchCriteria criteria = new MediaSearchCriteria();
+        criteria.setGenre("action");
+        criteria.setSortField(MediaSearchCriteria.SortField.SCORE);
+        SearchResultCache.Key key = SearchResultCache.Key.of(criteria, PageRequest.of(0, 10));
+        List<SearchResultCache.CachedMedia> results = List.of(new SearchResultCache.CachedMedia(action, 4.0, 1, 0));
+
+        cache.put(key, results, cache.generation());
+        cache.ratingsChanged(drama.getId());
+        assertEquals(results, cache.get(key));
+
+        cache.ratingsChanged(action.getId());
+        assertNull(cache.get(key));
+
+        // Unbekannte Medien könnten jede Suche betreffen.
+        cache.put(key, results, cache.generation());
+        cache.ratingsChanged(99);
+        assertNull(cache.get(key));
+    }
+
+    private static Media media(int id, String genre) {
+        Media media = new Media();
+        media.setId(id);
+        media.setTitle(genre + " Title");
+        media.setMediaType("Movie");
+        media.setReleaseYear(2010);
+        media.setGenres(List.of(genre));
+        return media;
+    }
+}
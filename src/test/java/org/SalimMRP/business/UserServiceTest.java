@@ -1,8 +1,10 @@
 package org.SalimMRP.business;
 
+import org.SalimMRP.business.auth.BcryptPasswordHasher;
 import org.SalimMRP.business.auth.InMemoryTokenService;
 import org.SalimMRP.business.auth.PasswordHasher;
 import org.SalimMRP.business.auth.Sha256PasswordHasher;
+import org.SalimMRP.business.auth.SignedTokenService;
 import org.SalimMRP.business.auth.TokenService;
 import org.SalimMRP.persistence.UserRepository;
 import org.SalimMRP.persistence.models.User;
@@ -19,13 +21,14 @@ import static org.junit.jupiter.api.Assertions.*;
 class UserServiceTest {
 
     private InMemoryUserRepository userRepository;
+    private TokenService tokenService;
     private UserService userService;
 
     @BeforeEach
     void setUp() {
         userRepository = new InMemoryUserRepository();
         PasswordHasher passwordHasher = new Sha256PasswordHasher();
-        TokenService tokenService = new InMemoryTokenService();
+        tokenService = new InMemoryTokenService();
         userService = new DefaultUserService(userRepository, passwordHasher, tokenService);
     }
 
@@ -56,6 +59,25 @@ class UserServiceTest {
         assertFalse(userService.register(new User("charlie", "")));
     }
 
+    @Test
+    @DisplayName("register rejects usernames that do not fit into a token")
+    void registerRejectsOverlongUsername() {
+        assertFalse(userService.register(new User("x".repeat(DefaultUserService.MAX_USERNAME_LENGTH + 1), "pw")));
+        assertTrue(userService.register(new User("x".repeat(DefaultUserService.MAX_USERNAME_LENGTH), "pw")));
+    }
+
+    @Test
+    @DisplayName("login fails instead of throwing when the token cannot be issued")
+    void loginFailsWhenTokenCannotBeIssued() {
+        String legacyName = "\u00e4".repeat(300);
+        User legacy = new User(legacyName, new Sha256PasswordHasher().hash("pw"));
+        userRepository.save(legacy);
+        TokenService signed = new SignedTokenService(new byte[32]);
+        UserService service = new DefaultUserService(userRepository, new Sha256PasswordHasher(), signed);
+
+        assertNull(service.login(legacyName, "pw"));
+    }
+
     @Test
     @DisplayName("login returns token for valid credentials")
     void loginSucceedsWithCorrectCredentials() {
@@ -99,6 +121,57 @@ class UserServiceTest {
         assertEquals("irene", user.getUsername());
     }
 
+    @Test
+    @DisplayName("authenticate resolves the user without a repository lookup and honors invalidation")
+    void authenticateUsesCachedPrincipal() {
+        userService.register(new User("judith", "pw"));
+        String token = userService.login("judith", "pw");
+        int lookupsAfterLogin = userRepository.getLookupCount();
+
+        User first = userService.authenticate(token);
+        User second = userService.authenticate(token);
+
+        assertNotNull(first);
+        assertEquals("judith", second.getUsername());
+        assertEquals(lookupsAfterLogin, userRepository.getLookupCount());
+
+        tokenService.invalidate(token);
+        assertNull(userService.authenticate(token));
+    }
+
+    @Test
+    @DisplayName("login replaces legacy SHA-256 hashes with bcrypt")
+    void loginUpgradesLegacyHash() {
+        PasswordHasher legacy = new Sha256PasswordHasher();
+        userRepository.save(new User("karl", legacy.hash("pw")));
+        UserService upgrading = new DefaultUserService(userRepository, new BcryptPasswordHasher(4, legacy), tokenService);
+
+        assertNotNull(upgrading.login("karl", "pw"));
+
+        String upgraded = userRepository.getStoredUser("karl").getPassword();
+        assertTrue(upgraded.startsWith("$2a$04$"));
+        assertNotNull(upgrading.login("karl", "pw"));
+        assertNull(upgrading.login("karl", "wrong"));
+    }
+
+    @Test
+    @DisplayName("login verifies a dummy hash for unknown users")
+    void loginVerifiesHashForUnknownUser() {
+        int[] checks = new int[1];
+        PasswordHasher counting = new Sha256PasswordHasher() {
+            @Override
+            public boolean matches(String plainText, String hash) {
+                checks[0]++;
+                return super.matches(plainText, hash);
+            }
+        };
+        UserService service = new DefaultUserService(userRepository, counting, tokenService);
+
+        assertNull(service.login("ghost", "pw"));
+        assertNull(service.login("ghost", "pw"));
+        assertEquals(2, checks[0]);
+    }
+
     @Test
     @DisplayName("findByUsername returns user copy")
     void findByUsernameReturnsCopy() {
@@ -115,6 +188,7 @@ class UserServiceTest {
     private static class InMemoryUserRepository implements UserRepository {
         private final Map<String, User> storage = new HashMap<>();
         private int nextId = 1;
+        private int lookupCount;
 
         @Override
         public boolean save(User user) {
@@ -129,6 +203,7 @@ class UserServiceTest {
 
         @Override
         public User findByUsername(String username) {
+            lookupCount++;
             User existing = storage.get(username);
             if (existing == null) {
                 return null;
@@ -136,6 +211,31 @@ class UserServiceTest {
             return cloneUser(existing);
         }
 
+        @Override
+        public User findById(int id) {
+            lookupCount++;
+            return storage.values().stream()
+                    .filter(user -> user.getId() == id)
+                    .findFirst()
+                    .map(this::cloneUser)
+                    .orElse(null);
+        }
+
+        @Override
+        public boolean updatePassword(int userId, String passwordHash) {
+            for (User user : storage.values()) {
+                if (user.getId() == userId) {
+                    user.setPassword(passwordHash);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int getLookupCount() {
+            return lookupCount;
+        }
+
         User getStoredUser(String username) {
             return storage.get(username);
         }
@@ -3,6 +3,18 @@ package org.SalimMRP.business.auth;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 // Prüft die zentralen Sicherheitskomponenten (Hashing und Tokens) in Isolation.
@@ -79,4 +91,152 @@ class SecurityComponentsTest {
         tokenService.invalidate(token);
         assertFalse(tokenService.isValid(token));
     }
+
+    @Test
+    @DisplayName("Tokens expire after the TTL unless they are used")
+    void tokensExpireWithoutUse() {
+        MutableClock clock = new MutableClock();
+        InMemoryTokenService expiring = new InMemoryTokenService(Duration.ofMinutes(10), 10, clock);
+        String used = expiring.issueToken("erin");
+        String idle = expiring.issueToken("frank");
+
+        clock.advance(Duration.ofMinutes(8));
+        assertTrue(expiring.isValid(used));
+        clock.advance(Duration.ofMinutes(8));
+
+        assertEquals("erin", expiring.resolveUsername(used));
+        assertNull(expiring.resolveUsername(idle));
+        assertEquals(1, expiring.metrics().activeTokens());
+    }
+
+    @Test
+    @DisplayName("Token service evicts the oldest tokens at the cap")
+    void evictsOldestTokensAtCap() {
+        MutableClock clock = new MutableClock();
+        InMemoryTokenService capped = new InMemoryTokenService(Duration.ofMinutes(10), 2, clock);
+        String oldest = capped.issueToken("gina");
+        clock.advance(Duration.ofMinutes(1));
+        String middle = capped.issueToken("hank");
+        clock.advance(Duration.ofMinutes(1));
+        String newest = capped.issueToken("ivan");
+
+        assertFalse(capped.isValid(oldest));
+        assertTrue(capped.isValid(middle));
+        assertTrue(capped.isValid(newest));
+        assertEquals(1, capped.metrics().evictedTokens());
+    }
+
+    @Test
+    @DisplayName("Signed tokens resolve on any instance sharing the secret")
+    void signedTokensAreStateless() {
+        byte[] secret = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+        String token = new SignedTokenService(secret).issueToken(7, "jürgen.k");
+
+        assertEquals("jürgen.k", new SignedTokenService(secret).resolveUsername(token));
+        assertTrue(token.startsWith("7."));
+    }
+
+    @Test
+    @DisplayName("Signed tokens reject tampering, expiry and revocation")
+    void signedTokensRejectInvalidTokens() {
+        MutableClock clock = new MutableClock();
+        byte[] secret = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+        SignedTokenService signed = new SignedTokenService(secret, Duration.ofMinutes(10), 10, clock);
+        String token = signed.issueToken(1, "kate");
+        String revoked = signed.issueToken(2, "leo");
+
+        assertFalse(signed.isValid("2" + token.substring(1)));
+        signed.invalidate(revoked);
+        assertFalse(signed.isValid(revoked));
+        assertTrue(signed.isValid(token));
+
+        clock.advance(Duration.ofMinutes(11));
+        assertNull(signed.resolveUsername(token));
+    }
+
+    @Test
+    @DisplayName("Full revocation list refuses new revocations instead of dropping old ones")
+    void signedTokensFailClosedWhenRevocationListIsFull() {
+        MutableClock clock = new MutableClock();
+        byte[] secret = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+        SignedTokenService signed = new SignedTokenService(secret, Duration.ofMinutes(10), 1, clock);
+        String first = signed.issueToken(1, "mia");
+        clock.advance(Duration.ofMinutes(5));
+        String second = signed.issueToken(2, "nils");
+
+        signed.invalidate(first);
+        signed.invalidate(second);
+
+        assertFalse(signed.isValid(first));
+        assertTrue(signed.isValid(second));
+        assertEquals(1, signed.metrics().refusedRevocations());
+
+        clock.advance(Duration.ofMinutes(6));
+        signed.invalidate(second);
+        assertFalse(signed.isValid(second));
+        assertEquals(1, signed.metrics().revokedTokens());
+    }
+
+    @Test
+    @DisplayName("Pooled hasher rejects work when its queue is full")
+    void pooledHasherRejectsWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHasher blocking = new PasswordHasher() {
+            @Override
+            public String hash(String plainText) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return plainText;
+            }
+
+            @Override
+            public boolean matches(String plainText, String hash) {
+                return plainText.equals(hash);
+            }
+        };
+
+        try (PooledPasswordHasher pooled = new PooledPasswordHasher(blocking, 1, 1)) {
+            ExecutorService callers = Executors.newFixedThreadPool(2);
+            Future<String> running = callers.submit(() -> pooled.hash("a"));
+            Future<String> queued = callers.submit(() -> pooled.hash("b"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (pooled.metrics().queued() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            assertThrows(PasswordHashingBusyException.class, () -> pooled.hash("c"));
+            release.countDown();
+            assertEquals("a", running.get(5, TimeUnit.SECONDS));
+            assertEquals("b", queued.get(5, TimeUnit.SECONDS));
+            assertEquals(1, pooled.metrics().rejected());
+            callers.shutdown();
+        }
+    }
+
+    // Uhr, die im Test manuell vorgestellt wird.
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
 }
@@ -0,0 +1,139 @@
+package org.SalimMRP.persistence;
+
+import org.SalimMRP.persistence.models.Rating;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Prüft die Keyset-Paginierung von JdbcRatingRepository gegen eine aufgezeichnete JDBC-Verbindung:
+// erzeugtes SQL, gebundene Parameter und die Ableitung des nächsten Cursors aus der zusätzlichen Zeile.
+class JdbcRatingRepositoryTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final List<String> statements = new ArrayList<>();
+    private final List<Map<Integer, Object>> parameters = new ArrayList<>();
+    private final List<List<Map<String, Object>>> results = new ArrayList<>();
+
+    @Test
+    @DisplayName("First page binds limit + 1 and derives the cursor from the last returned rating")
+    void firstPageUsesExtraRowForCursor() {
+        results.add(rows(40, 39, 38));
+        results.add(List.of());
+        JdbcRatingRepository repository = new JdbcRatingRepository(this::connection);
+
+        RatingPage page = repository.findByMediaId(7, null, 2);
+
+        String sql = statements.get(0);
+        assertTrue(sql.contains("WHERE media_id = ?"), sql);
+        assertFalse(sql.contains("(created_at, id) <"), sql);
+        assertTrue(sql.endsWith("ORDER BY created_at DESC, id DESC LIMIT ?"), sql);
+        assertEquals(Map.of(1, 7, 2, 3), parameters.get(0));
+
+        assertEquals(List.of(40, 39), page.ratings().stream().map(Rating::getId).toList());
+        assertEquals(new RatingCursor(START.plusSeconds(39), 39), page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Following page seeks behind the cursor with a row comparison")
+    void nextPageSeeksBehindCursor() {
+        results.add(rows(38, 37));
+        results.add(List.of());
+        JdbcRatingRepository repository = new JdbcRatingRepository(this::connection);
+        RatingCursor cursor = new RatingCursor(START.plusSeconds(39), 39);
+
+        RatingPage page = repository.findByUserId(5, cursor, 2);
+
+        String sql = statements.get(0);
+        assertTrue(sql.contains("WHERE user_id = ? AND (created_at, id) < (?, ?)"), sql);
+        assertEquals(Map.of(1, 5, 2, Timestamp.from(cursor.createdAt()), 3, 39, 4, 3), parameters.get(0));
+
+        assertEquals(List.of(38, 37), page.ratings().stream().map(Rating::getId).toList());
+        assertNull(page.nextCursor());
+        assertTrue(statements.get(1).contains("FROM rating_likes"));
+    }
+
+    // Ratings mit absteigenden IDs; created_at wächst mit der ID, wie bei fortlaufend angelegten Ratings.
+    private static List<Map<String, Object>> rows(int... ids) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int id : ids) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", id);
+            row.put("media_id", 7);
+            row.put("user_id", 5);
+            row.put("star_value", 4);
+            row.put("comment_confirmed", false);
+            row.put("created_at", Timestamp.from(START.plusSeconds(id)));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private Connection connection() {
+        return proxy(Connection.class, (method, args) -> switch (method) {
+            case "prepareStatement" -> statement((String) args[0]);
+            case "createArrayOf" -> proxy(Array.class, (name, ignored) -> null);
+            default -> null;
+        });
+    }
+
+    private PreparedStatement statement(String sql) {
+        statements.add(sql);
+        Map<Integer, Object> bound = new HashMap<>();
+        parameters.add(bound);
+        return proxy(PreparedStatement.class, (method, args) -> {
+            if (method.startsWith("set")) {
+                bound.put((Integer) args[0], args[1]);
+                return null;
+            }
+            if (method.equals("executeQuery")) {
+                return resultSet(results.isEmpty() ? List.of() : results.remove(0));
+            }
+            return null;
+        });
+    }
+
+    private static ResultSet resultSet(List<Map<String, Object>> rows) {
+        Iterator<Map<String, Object>> iterator = rows.iterator();
+        Object[] current = new Object[1];
+        return proxy(ResultSet.class, (method, args) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> row = (Map<String, Object>) current[0];
+            return switch (method) {
+                case "next" -> {
+                    current[0] = iterator.hasNext() ? iterator.next() : null;
+                    yield current[0] != null;
+                }
+                case "getInt" -> row.get((String) args[0]);
+                case "getBoolean" -> row.get((String) args[0]);
+                case "getString", "getTimestamp" -> row.get((String) args[0]);
+                default -> null;
+            };
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method.getName(), args));
+    }
+}
@@ -0,0 +1,156 @@
+package org.SalimMRP.persistence;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Prüft den MigrationRunner gegen eine aufgezeichnete JDBC-Verbindung: übersprungene Versionen,
+// Index-Migrationen ohne Transaktion und fehlende Erweiterungen.
+class MigrationRunnerTest {
+
+    private final Set<Integer> applied = new HashSet<>();
+    private final List<String> executed = new ArrayList<>();
+    private final List<Integer> recorded = new ArrayList<>();
+    private int commits;
+    private boolean extensionInstalled = true;
+
+    @Test
+    @DisplayName("Already applied versions are skipped")
+    void skipsAppliedVersions() throws Exception {
+        applied.addAll(Set.of(1, 2, 3, 4, 6));
+
+        assertEquals(1, new MigrationRunner(this::connection).migrate());
+
+        assertEquals(List.of(5), recorded);
+        assertEquals(1, commits);
+        assertTrue(executed.stream().anyMatch(sql -> sql.contains("CREATE TABLE IF NOT EXISTS media_rating_stats")));
+        assertTrue(executed.stream().noneMatch(sql -> sql.contains("CREATE INDEX")), executed.toString());
+    }
+
+    @Test
+    @DisplayName("Index migrations run statement by statement outside a transaction")
+    void indexMigrationsRunConcurrently() throws Exception {
+        applied.addAll(Set.of(1, 2, 3, 4, 5));
+
+        assertEquals(1, new MigrationRunner(this::connection).migrate());
+
+        assertEquals(List.of(6), recorded);
+        assertEquals(0, commits);
+        assertTrue(executed.contains(
+                "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ratings_media_keyset ON ratings (media_id, created_at DESC, id DESC)"),
+                executed.toString());
+        assertTrue(executed.contains("DROP INDEX CONCURRENTLY IF EXISTS idx_ratings_user_created"), executed.toString());
+        assertTrue(executed.stream().noneMatch(sql -> sql.contains(";")), executed.toString());
+    }
+
+    @Test
+    @DisplayName("A migration whose extension cannot be created is skipped without failing")
+    void skipsMigrationWithoutExtension() throws Exception {
+        applied.addAll(Set.of(1, 2, 3, 5, 6));
+        extensionInstalled = false;
+
+        assertEquals(0, new MigrationRunner(this::connection).migrate());
+
+        assertEquals(List.of(), recorded);
+        assertTrue(executed.contains("CREATE EXTENSION IF NOT EXISTS pg_trgm"));
+        assertTrue(executed.stream().noneMatch(sql -> sql.contains("gin_trgm_ops")), executed.toString());
+    }
+
+    @Test
+    @DisplayName("Scripts are split outside of comments, strings and dollar-quoted bodies")
+    void splitsStatements() {
+        String script = """
+                -- Kommentar; kein Ende
+                CREATE FUNCTION f() RETURNS TEXT LANGUAGE sql AS
+                $$ SELECT 'a;b' $$;
+                UPDATE t SET v = ';' WHERE v IS NULL;
+                """;
+
+        assertEquals(List.of("CREATE FUNCTION f() RETURNS TEXT LANGUAGE sql AS\n$$ SELECT 'a;b' $$",
+                "UPDATE t SET v = ';' WHERE v IS NULL"), MigrationRunner.statements(script));
+    }
+
+    private Connection connection() {
+        return proxy(Connection.class, (method, args) -> switch (method) {
+            case "createStatement" -> statement();
+            case "prepareStatement" -> preparedStatement((String) args[0]);
+            case "commit" -> {
+                commits++;
+                yield null;
+            }
+            default -> null;
+        });
+    }
+
+    private Statement statement() {
+        return proxy(Statement.class, (method, args) -> switch (method) {
+            case "execute" -> {
+                String sql = ((String) args[0]).strip();
+                executed.add(sql);
+                if (sql.startsWith("CREATE EXTENSION") && !extensionInstalled) {
+                    throw new SQLException("permission denied to create extension");
+                }
+                yield false;
+            }
+            case "executeQuery" -> resultSet(List.copyOf(applied));
+            default -> null;
+        });
+    }
+
+    private PreparedStatement preparedStatement(String sql) {
+        int[] version = new int[1];
+        return proxy(PreparedStatement.class, (method, args) -> switch (method) {
+            case "setInt" -> {
+                version[0] = (Integer) args[1];
+                yield null;
+            }
+            case "executeQuery" -> resultSet(extensionInstalled ? List.of(1) : List.of());
+            case "executeUpdate" -> {
+                assertTrue(sql.startsWith("INSERT INTO schema_migrations"), sql);
+                recorded.add(version[0]);
+                yield 1;
+            }
+            default -> null;
+        });
+    }
+
+    private static ResultSet resultSet(List<Integer> values) {
+        Iterator<Integer> iterator = values.iterator();
+        int[] current = new int[1];
+        return proxy(ResultSet.class, (method, args) -> switch (method) {
+            case "next" -> {
+                boolean hasNext = iterator.hasNext();
+                if (hasNext) {
+                    current[0] = iterator.next();
+                }
+                yield hasNext;
+            }
+            case "getInt" -> current[0];
+            default -> null;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method.getName(), args));
+    }
+}
@@ -0,0 +1,157 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Prüft das adaptive Limit mit simulierten Latenzen und das Abweisen im Filter ohne echten Server.
+class AdmissionFilterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    @DisplayName("Limit grows while saturated at stable latency")
+    void limitGrowsAtStableLatency() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 10, 100);
+
+        completeWhileSaturated(limit, FAST, 50);
+
+        assertTrue(limit.metrics().limit() > 10, "limit was " + limit.metrics().limit());
+    }
+
+    @Test
+    @DisplayName("Limit does not grow without load")
+    void limitStaysWithoutLoad() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 10, 100);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(FAST);
+        }
+
+        assertEquals(10, limit.metrics().limit());
+    }
+
+    @Test
+    @DisplayName("Limit shrinks when latency rises above the baseline")
+    void limitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 50, 100);
+        completeWhileSaturated(limit, FAST, 10);
+        int before = limit.metrics().limit();
+
+        // Wenige Messungen: die Basislatenz folgt neuen Latenzen absichtlich nur langsam.
+        completeWhileSaturated(limit, SLOW, 10);
+
+        int shrunk = limit.metrics().limit();
+        assertTrue(shrunk < before, "limit went from " + before + " to " + shrunk);
+        assertTrue(shrunk >= 2);
+        assertEquals(1, limit.retryAfterSeconds());
+    }
+
+    @Test
+    @DisplayName("Limit never drops below the minimum")
+    void limitRespectsMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(5, 8, 10);
+        completeWhileSaturated(limit, FAST, 1);
+
+        int lowest = Integer.MAX_VALUE;
+        for (long latency = SLOW; latency < SLOW * 1_000; latency *= 2) {
+            completeWhileSaturated(limit, latency, 1);
+            lowest = Math.min(lowest, limit.metrics().limit());
+        }
+
+        assertEquals(5, lowest);
+    }
+
+    @Test
+    @DisplayName("Requests beyond the limit are shed with 503 and Retry-After")
+    void shedsWhenLimitReached() throws IOException {
+        AdmissionFilter filter = new AdmissionFilter(1, 1, 1);
+        FakeExchange first = routed("GET", "/api/media/7");
+        FakeExchange second = routed("GET", "/api/media/8");
+        FakeExchange otherRoute = routed("GET", "/api/users/alice/profile");
+
+        // Während der erste Request noch läuft, treffen ein zweiter auf dieselbe Route und einer auf eine andere ein.
+        Filter.Chain inner = new Filter.Chain(List.of(), exchange -> exchange.sendResponseHeaders(200, -1));
+        Filter.Chain outer = new Filter.Chain(List.of(), exchange -> {
+            filter.doFilter(second, inner);
+            filter.doFilter(otherRoute, inner);
+            exchange.sendResponseHeaders(200, -1);
+        });
+        filter.doFilter(first, outer);
+
+        assertEquals(200, first.getResponseCode());
+        assertEquals(503, second.getResponseCode());
+        assertEquals("1", second.getResponseHeaders().getFirst("Retry-After"));
+        assertEquals(200, otherRoute.getResponseCode());
+
+        RouteAdmissionMetrics metrics = filter.snapshot().get("GET /api/media/{id}");
+        assertEquals(1, metrics.accepted());
+        assertEquals(1, metrics.rejected());
+        assertEquals(0, metrics.inFlight());
+    }
+
+    @Test
+    @DisplayName("Limits are keyed by router template and unmatched requests share one key")
+    void keysByRouterTemplate() throws IOException {
+        AdmissionFilter filter = new AdmissionFilter();
+        Filter.Chain ok = new Filter.Chain(List.of(), exchange -> exchange.sendResponseHeaders(200, -1));
+
+        filter.doFilter(routed("GET", "/api/media/7"), ok);
+        filter.doFilter(routed("get", "/api/media/8/"), ok);
+        filter.doFilter(routed("FOO1", "/api/media/7"), ok);
+        filter.doFilter(routed("FOO2", "/api/media/7"), ok);
+        filter.doFilter(routed("GET", "/api/media/7/a/b/c/d"), ok);
+        filter.doFilter(new FakeExchange("POST", "/api/users/login").context("/api/users/login", exchange -> { }), ok);
+        filter.doFilter(new FakeExchange("BREW", "/api/users/login").context("/api/users/login", exchange -> { }), ok);
+
+        assertEquals(Set.of("GET /api/media/{id}", "POST /api/users/login", AdmissionFilter.UNMATCHED_ROUTE),
+                filter.snapshot().keySet());
+        assertEquals(2, filter.snapshot().get("GET /api/media/{id}").accepted());
+        assertEquals(4, filter.snapshot().get(AdmissionFilter.UNMATCHED_ROUTE).accepted());
+    }
+
+    // Request unter /api mit einem Handler, dessen Router die Routen der Tests kennt.
+    private static FakeExchange routed(String method, String path) {
+        Router<Void> router = new Router<Void>((m, template, nanos) -> { })
+                .add("GET", "/api/media/{id}", (exchange, params, context) -> { })
+                .add("GET", "/api/users/{username}/profile", (exchange, params, context) -> { });
+        return new FakeExchange(method, path).context("/api", new RoutedTestHandler(router));
+    }
+
+    private record RoutedTestHandler(Router<Void> router) implements HttpHandler, RoutedHandler {
+        @Override
+        public void handle(HttpExchange exchange) {
+        }
+
+        @Override
+        public String routeKey(HttpExchange exchange) {
+            return router.routeKey(exchange.getRequestMethod(), exchange.getRequestURI().getRawPath());
+        }
+    }
+
+    // Hält das Limit ausgeschöpft und schließt requests Anfragen mit der angegebenen Latenz ab.
+    private static void completeWhileSaturated(AdaptiveConcurrencyLimit limit, long latencyNanos, int requests) {
+        int inFlight = 0;
+        for (int i = 0; i < requests; i++) {
+            while (limit.tryAcquire()) {
+                inFlight++;
+            }
+            limit.release(latencyNanos);
+            inFlight--;
+        }
+        for (; inFlight > 0; inFlight--) {
+            limit.release(latencyNanos);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.SalimMRP.presentation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Prüft das Auslesen von Cursor und Limit aus der Query der Rating-Listen.
+class RatingPagingTest {
+
+    @Test
+    @DisplayName("Limit is clamped and missing query yields defaults")
+    void parsesLimit() {
+        assertEquals(RatingPaging.MAX_LIMIT, RatingPaging.parse("limit=1000").limit());
+        assertEquals(1, RatingPaging.parse("limit=0").limit());
+        assertNull(RatingPaging.parse(null).after());
+    }
+
+    @Test
+    @DisplayName("Malformed escapes and invalid cursors are rejected instead of throwing")
+    void rejectsMalformedQuery() {
+        assertNull(RatingPaging.parse("cursor=%zz"));
+        assertNull(RatingPaging.parse("limit=5&cursor=%"));
+        assertNull(RatingPaging.parse("cursor=garbage"));
+    }
+}
@@ -0,0 +1,104 @@
+package org.SalimMRP.presentation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Prüft Aushandlung, Schwelle und Zähler der Antwortkompression ohne echten Server.
+class ResponseWriterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ResponseWriter writer = new ResponseWriter(mapper);
+
+    @Test
+    @DisplayName("Accept-Encoding negotiation honours explicit rejections over the wildcard")
+    void negotiatesEncoding() throws IOException {
+        assertEquals("gzip", encodingFor("gzip, deflate"));
+        assertEquals("deflate", encodingFor("deflate"));
+        assertEquals("gzip", encodingFor("*"));
+        assertEquals("deflate", encodingFor("gzip;q=0, *"));
+        assertEquals("deflate", encodingFor("*, gzip;q=0"));
+        assertNull(encodingFor("gzip;q=0, deflate;q=0, *"));
+        assertNull(encodingFor("*;q=0"));
+        assertNull(encodingFor("br"));
+        assertNull(encodingFor(null));
+    }
+
+    @Test
+    @DisplayName("Responses below 1 KiB are sent uncompressed with a fixed length")
+    void smallResponsesStayUncompressed() throws IOException {
+        FakeExchange exchange = new FakeExchange("GET", "/api/media").header("Accept-Encoding", "gzip");
+
+        writer.sendJson(exchange, 200, Map.of("text", "x".repeat(900)));
+
+        assertEquals(200, exchange.getResponseCode());
+        assertNull(exchange.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals(exchange.body().length, exchange.responseLength());
+        assertEquals(1, writer.metrics().uncompressedResponses());
+        assertEquals(0, writer.metrics().compressedResponses());
+    }
+
+    @Test
+    @DisplayName("Responses above 1 KiB are gzip-compressed and counted")
+    void largeResponsesAreCompressedAndCounted() throws IOException {
+        FakeExchange exchange = new FakeExchange("GET", "/api/media").header("Accept-Encoding", "gzip");
+        Map<String, String> payload = Map.of("text", "x".repeat(4_000));
+
+        writer.sendJson(exchange, 200, payload);
+
+        byte[] json = mapper.writeValueAsBytes(payload);
+        assertEquals("gzip", exchange.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals(0, exchange.responseLength());
+        assertArrayEquals(json, gunzip(exchange.body()));
+
+        CompressionMetrics metrics = writer.metrics();
+        assertEquals(1, metrics.compressedResponses());
+        assertEquals(json.length, metrics.bytesBeforeCompression());
+        assertEquals(exchange.body().length, metrics.bytesAfterCompression());
+        assertEquals(json.length - exchange.body().length, metrics.bytesSaved());
+        assertTrue(metrics.bytesSaved() > 0);
+    }
+
+    @Test
+    @DisplayName("A failure after the headers were sent aborts the compressed response without finishing it")
+    void failedSerializationAbortsCompressedResponse() {
+        FakeExchange exchange = new FakeExchange("GET", "/api/media").header("Accept-Encoding", "deflate");
+        List<Object> payload = List.of("x".repeat(4_000), new Exploding());
+
+        assertThrows(IOException.class, () -> writer.sendJson(exchange, 200, payload));
+
+        assertEquals("deflate", exchange.getResponseHeaders().getFirst("Content-Encoding"));
+        assertFalse(exchange.closed());
+        assertEquals(0, writer.metrics().compressedResponses());
+    }
+
+    private String encodingFor(String acceptEncoding) throws IOException {
+        FakeExchange exchange = new FakeExchange("GET", "/api/media");
+        if (acceptEncoding != null) {
+            exchange.header("Accept-Encoding", acceptEncoding);
+        }
+        writer.sendJson(exchange, 200, Map.of("text", "x".repeat(2_000)));
+        return exchange.getResponseHeaders().getFirst("Content-Encoding");
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    // Scheitert bei der Serialisierung, nachdem davor schon genug für den Start der Kompression geschrieben wurde.
+    private static final class Exploding {
+        public String getValue() {
+            throw new IllegalStateException("boom");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.SalimMRP.presentation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Prüft Reihenfolge, Pfadvergleich, 404/405 und Pfadparameter des Routers ohne echten Server.
+class RouterTest {
+
+    private final List<String> calls = new ArrayList<>();
+    private final List<String> completed = new ArrayList<>();
+    private final Router<String> router = new Router<String>(
+            (method, template, durationNanos) -> completed.add(method + " " + template))
+            .add("GET", "/api/media/recommendations", (exchange, params, user) -> calls.add("recommendations"))
+            .add("GET", "/api/media/{id}", (exchange, params, user) -> calls.add("get " + params.getPositiveInt("id")))
+            .add("delete", "/api/media/{id}", (exchange, params, user) -> calls.add("delete " + params.get("id")))
+            .add("POST", "/api/users/{username}/favorites/{id}",
+                    (exchange, params, user) -> calls.add(params.get("username") + " " + params.getPositiveInt("id")));
+
+    @Test
+    @DisplayName("Literal routes registered first win over placeholders")
+    void literalBeforePlaceholder() throws IOException {
+        assertEquals(Router.Outcome.HANDLED, dispatch("GET", "/api/media/recommendations"));
+        assertEquals(Router.Outcome.HANDLED, dispatch("GET", "/api/media/RECOMMENDATIONS"));
+        assertEquals(Router.Outcome.HANDLED, dispatch("GET", "/api/media/42"));
+
+        assertEquals(List.of("recommendations", "recommendations", "get 42"), calls);
+        assertEquals(List.of("GET /api/media/recommendations", "GET /api/media/recommendations",
+                "GET /api/media/{id}"), completed);
+    }
+
+    @Test
+    @DisplayName("Empty segments from duplicate or trailing slashes are ignored")
+    void ignoresEmptySegments() throws IOException {
+        assertEquals(Router.Outcome.HANDLED, dispatch("GET", "/api//media/7/"));
+        assertEquals(Router.Outcome.NOT_FOUND, dispatch("GET", "/api/media//"));
+
+        assertEquals(List.of("get 7"), calls);
+    }
+
+    @Test
+    @DisplayName("Known path with unknown method is 405, unknown path is 404")
+    void distinguishesNotFoundAndMethodNotAllowed() throws IOException {
+        assertEquals(Router.Outcome.METHOD_NOT_ALLOWED, dispatch("PUT", "/api/media/7"));
+        assertEquals(Router.Outcome.METHOD_NOT_ALLOWED, dispatch("POST", "/api/media/recommendations"));
+        assertEquals(Router.Outcome.NOT_FOUND, dispatch("GET", "/api/media/7/unknown"));
+        assertEquals(Router.Outcome.NOT_FOUND, dispatch("GET", "/api/ratings"));
+
+        assertTrue(calls.isEmpty());
+        assertTrue(completed.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Methods match case-insensitively and placeholders are extracted")
+    void extractsPlaceholders() throws IOException {
+        assertEquals(Router.Outcome.HANDLED, dispatch("Delete", "/api/media/9"));
+        assertEquals(Router.Outcome.HANDLED, dispatch("post", "/api/users/j%C3%BCrgen/favorites/12"));
+        assertEquals(Router.Outcome.HANDLED, dispatch("GET", "/api/media/abc"));
+
+        assertEquals(List.of("delete 9", "jürgen 12", "get null"), calls);
+        assertEquals("DELETE /api/media/{id}", completed.get(0));
+    }
+
+    @Test
+    @DisplayName("Placeholders are decoded exactly once from the raw path")
+    void decodesPlaceholdersOnce() throws IOException {
+        assertEquals(Router.Outcome.HANDLED, dispatch("POST", "/api/users/a+b%2525/favorites/3"));
+        assertEquals(Router.Outcome.HANDLED, dispatch("POST", "/api/users/a%2Fb/favorites/4"));
+        assertEquals(Router.Outcome.HANDLED, dispatch("POST", "/api/users/100%25/favorites/5"));
+
+        assertEquals(List.of("a+b%25 3", "a/b 4", "100% 5"), calls);
+    }
+
+    private Router.Outcome dispatch(String method, String path) throws IOException {
+        return router.dispatch(new FakeExchange(method, path), "alice");
+    }
+}